@@ -64,6 +64,19 @@ public final class NetworkComponent extends WorkspaceComponent {
         init();
     }
 
+    /**
+     * Handle a model being added to the network.
+     */
+    private void modelAdded(NetworkModel m) {
+        setChangedSinceLastSave(true);
+        if (m instanceof AttributeContainer) {
+            fireAttributeContainerAdded((AttributeContainer) m);
+        }
+        if (m instanceof NeuronGroup) {
+            ((NeuronGroup)m).getNeuronList().forEach(this::fireAttributeContainerAdded);
+        }
+    }
+
     /**
      * Initialize attribute types and listeners.
      */
@@ -71,15 +84,9 @@ public final class NetworkComponent extends WorkspaceComponent {
 
         NetworkEvents event = network.getEvents();
 
-        event.onModelAdded(m -> {
-            setChangedSinceLastSave(true);
-            if (m instanceof AttributeContainer) {
-                fireAttributeContainerAdded((AttributeContainer) m);
-            }
-            if (m instanceof NeuronGroup) {
-                ((NeuronGroup)m).getNeuronList().forEach(this::fireAttributeContainerAdded);
-            }
-        });
+        event.onModelAdded(this::modelAdded);
+
+        event.onModelsAdded(models -> models.forEach(this::modelAdded));
 
         event.onModelRemoved(m -> {
             setChangedSinceLastSave(true);
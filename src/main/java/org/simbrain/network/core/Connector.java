@@ -48,11 +48,27 @@ public abstract class Connector extends NetworkModel implements EditableObject,
         initEvents();
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return parent;
+    }
+
     /**
      * Returns the output of this connector
      */
     public abstract Matrix getOutput();
 
+    /**
+     * Add the output of this connector to the input buffer of its target. Used by layers to sum their inputs.
+     * Subclasses that can compute their output in place should override this, so that a network update does not
+     * allocate a new output matrix per connector.
+     *
+     * @param inputs column vector to add the output to
+     */
+    public void addOutputTo(Matrix inputs) {
+        inputs.add(getOutput());
+    }
+
     protected void initEvents() {
 
         // When the parents of the matrix are deleted, delete the matrix
@@ -124,6 +140,12 @@ public abstract class Connector extends NetworkModel implements EditableObject,
                 return "Dense matrix";
             }
         },
+        SPARSE {
+            @Override
+            public String toString() {
+                return "Sparse matrix";
+            }
+        },
         ZOE {
             @Override
             public String toString() {
@@ -100,6 +100,11 @@ public abstract class Layer extends LocatableModel implements AttributeContainer
 
     public abstract Network getNetwork();
 
+    @Override
+    protected Network owningNetwork() {
+        return getNetwork();
+    }
+
     /**
      * Needed so arrow can be set correctly
      */
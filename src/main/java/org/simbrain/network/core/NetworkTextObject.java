@@ -108,6 +108,11 @@ public class NetworkTextObject extends LocatableModel {
         this.italic = text.isItalic();
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return parent;
+    }
+
     @Override
     public String toString() {
         return "(" + Math.round(x) + "," + Math.round(y) + "):" + text;
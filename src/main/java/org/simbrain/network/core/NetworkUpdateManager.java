@@ -26,6 +26,8 @@ import org.simbrain.network.groups.SynapseGroup;
 import org.simbrain.network.matrix.NeuronArray;
 import org.simbrain.network.matrix.WeightMatrix;
 import org.simbrain.network.update_actions.BufferedUpdate;
+import org.simbrain.network.update_actions.CompiledUpdate;
+import org.simbrain.network.update_actions.ConcurrentBufferedUpdate;
 import org.simbrain.network.update_actions.PriorityUpdate;
 import org.simbrain.network.update_actions.UpdateNetworkModel;
 import org.simbrain.workspace.updater.UpdateAction;
@@ -101,6 +103,8 @@ public class NetworkUpdateManager {
         // By default these actions are always available
         availableActionList.add(new BufferedUpdate(network));
         availableActionList.add(new PriorityUpdate(network));
+        availableActionList.add(new CompiledUpdate(network));
+        availableActionList.add(new ConcurrentBufferedUpdate(network));
 
         // TODO: If added, these should be removed when any corresponding object is removed
 
@@ -150,6 +154,7 @@ public class NetworkUpdateManager {
      */
     public void removeAction(UpdateAction action) {
         actionList.remove(action);
+        network.invalidateCompiledModels();
         network.getEvents().fireUpdateActionsChanged();
     }
 
@@ -158,6 +163,7 @@ public class NetworkUpdateManager {
      */
     public void clear() {
         actionList.clear();
+        network.invalidateCompiledModels();
         network.getEvents().fireUpdateActionsChanged();
     }
 
@@ -116,20 +116,27 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     private final Network parent;
 
     /**
-     * Pre-allocates the number of bins in this neuron's fanIn/Out for
-     * efficiency.
+     * Fan-out in the form of a map from target neurons to synapses. Created with default capacity, which is only
+     * allocated when the first synapse is added and grows as needed, since most neurons have few synapses.
      */
-    public static final int PRE_ALLOCATED_NUM_SYNAPSES = (int) Math.ceil(500 / 0.75);
+    private transient Map<Neuron, Synapse> fanOut = new HashMap<>();
 
     /**
-     * Fan-out in the form of a map from target neurons to synapses.
+     * List of synapses attaching to this neuron. Grows as needed, like {@link #fanOut}.
      */
-    private transient Map<Neuron, Synapse> fanOut = new HashMap<>(PRE_ALLOCATED_NUM_SYNAPSES);
+    private transient ArrayList<Synapse> fanIn = new ArrayList<>();
 
     /**
-     * List of synapses attaching to this neuron.
+     * The fan-in partitioned by sign: synapses with positive strengths, then synapses with negative strengths. Built
+     * when first needed and discarded when synapses are added or removed or a strength changes sign. See
+     * {@link #getSignedFanIn()}.
      */
-    private transient ArrayList<Synapse> fanIn = new ArrayList<>(PRE_ALLOCATED_NUM_SYNAPSES);
+    private transient Synapse[] signedFanIn;
+
+    /**
+     * Number of synapses with positive strengths at the start of {@link #signedFanIn}.
+     */
+    private transient int numExcitatoryFanIn;
 
     /**
      * Central x-coordinate of this neuron in 2-space.
@@ -193,15 +200,36 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     private double auxValue;
 
     /**
-     * Support for property change events.
+     * Support for property change events. Created by {@link #getEvents()} the first time it is needed, so neurons
+     * nobody listens to do not carry one. Events are not fired while it is null, since there are no listeners.
+     */
+    private transient NeuronEvents events;
+
+    /**
+     * True while {@link #updateDeferringEvents()} runs. Activation and spike events are then recorded in
+     * {@link #deferredEvents} instead of being fired.
      */
-    private transient NeuronEvents events = new NeuronEvents(this);
+    private transient boolean eventsDeferred;
+
+    /**
+     * Events recorded while {@link #eventsDeferred} is true, as a combination of the DEFERRED_ flags.
+     */
+    private transient int deferredEvents;
+
+    /**
+     * Activation before the first activation change recorded while events were deferred.
+     */
+    private transient double deferredOldActivation;
+
+    private static final int DEFERRED_ACTIVATION_CHANGE = 1;
+    private static final int DEFERRED_SPIKE_END = 2;
+    private static final int DEFERRED_SPIKE = 4;
 
     /**
      * Local data holder for neuron update rule.
      */
     @UserParameter(label = "State variables", useSetter = true, isEmbeddedObject = true, order = 100)
-    private ScalarDataHolder dataHolder = new EmptyScalarData();
+    private ScalarDataHolder dataHolder = EmptyScalarData.INSTANCE;
 
     /**
      * Construct a specific type of neuron.
@@ -265,9 +293,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
 
     @Override
     public void postOpenInit() {
-        events = new NeuronEvents(this);
         fanOut = new HashMap<>();
         fanIn = new ArrayList<>();
+        signedFanIn = null;
         if (polarity == null) {
             polarity = Polarity.BOTH;
         }
@@ -330,8 +358,11 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         dataHolder = updateRule.createScalarData();
 
         if (getNetwork() != null) {
+            getNetwork().invalidateCompiledModels();
             getNetwork().updateTimeType();
-            events.fireUpdateRuleChange(oldRule, updateRule);
+            if (events != null) {
+                events.fireUpdateRuleChange(oldRule, updateRule);
+            }
         }
     }
 
@@ -341,6 +372,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void changeUpdateRule(final NeuronUpdateRule updateRule, final ScalarDataHolder data) {
         this.updateRule = updateRule;
         this.dataHolder = data;
+        if (getNetwork() != null) {
+            getNetwork().invalidateCompiledModels();
+        }
     }
 
     @Override
@@ -361,6 +395,41 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         inputValue = 0.0;
     }
 
+    /**
+     * Same as {@link #update()}, but activation and spike listeners are not notified. This lets neurons be updated
+     * from worker threads, as long as {@link #fireDeferredEvents()} is then called on the thread that owns the
+     * network.
+     */
+    public void updateDeferringEvents() {
+        eventsDeferred = true;
+        try {
+            update();
+        } finally {
+            eventsDeferred = false;
+        }
+    }
+
+    /**
+     * Notify listeners of the changes made by the last {@link #updateDeferringEvents()}. Listeners see the end of a
+     * spike, then one activation change from the activation before the update to the current one, then a new spike.
+     */
+    public void fireDeferredEvents() {
+        if (deferredEvents == 0) {
+            return;
+        }
+        int fired = deferredEvents;
+        deferredEvents = 0;
+        if ((fired & DEFERRED_SPIKE_END) != 0) {
+            events.fireSpiked(false);
+        }
+        if ((fired & DEFERRED_ACTIVATION_CHANGE) != 0) {
+            events.fireActivationChange(deferredOldActivation, activation);
+        }
+        if ((fired & DEFERRED_SPIKE) != 0 && spike) {
+            events.fireSpiked(true);
+        }
+    }
+
     /**
      * Sets the activation of the neuron if it is not clamped. To unequivocally
      * set the activation use {@link #forceSetActivation(double)
@@ -381,7 +450,7 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
                 activation = act;
             }
         }
-        events.fireActivationChange(lastActivation, act);
+        fireActivationChange(lastActivation, act);
     }
 
     /**
@@ -396,7 +465,24 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void forceSetActivation(final double act) {
         lastActivation = getActivation();
         activation = act;
-        events.fireActivationChange(lastActivation, act);
+        fireActivationChange(lastActivation, act);
+    }
+
+    /**
+     * Fire an activation change, or record it if events are deferred.
+     */
+    private void fireActivationChange(double old, double act) {
+        if (events == null) {
+            return;
+        }
+        if (eventsDeferred) {
+            if ((deferredEvents & DEFERRED_ACTIVATION_CHANGE) == 0) {
+                deferredOldActivation = old;
+                deferredEvents |= DEFERRED_ACTIVATION_CHANGE;
+            }
+        } else {
+            events.fireActivationChange(old, act);
+        }
     }
 
     @Producible()
@@ -482,6 +568,10 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         if (fanIn != null) {
             fanIn.add(source);
         }
+        signedFanIn = null;
+        if (parent != null) {
+            parent.invalidateCompiledModels();
+        }
     }
 
     /**
@@ -492,6 +582,10 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         if (fanIn != null) {
             fanIn.remove(synapse);
         }
+        signedFanIn = null;
+        if (parent != null) {
+            parent.invalidateCompiledModels();
+        }
     }
 
     /**
@@ -512,10 +606,12 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
      * weights.
      */
     public double getExcitatoryInputs() {
-         return fanIn.stream()
-                    .filter(s -> s.getStrength() > 0.0)
-                    .map(Synapse::getPsr)
-                    .reduce(Double::sum).orElse(0.0);
+        Synapse[] synapses = getSignedFanIn();
+        double sum = 0;
+        for (int i = 0; i < numExcitatoryFanIn; i++) {
+            sum += synapses[i].getPsr();
+        }
+        return sum;
     }
 
     /**
@@ -524,10 +620,64 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
      * weights.
      */
     public double getInhibitoryInputs() {
-        return fanIn.stream()
-                    .filter(s -> s.getStrength() < 0.0)
-                    .map(Synapse::getPsr)
-                    .reduce(Double::sum).orElse(0.0);
+        Synapse[] synapses = getSignedFanIn();
+        double sum = 0;
+        for (int i = numExcitatoryFanIn; i < synapses.length; i++) {
+            sum += synapses[i].getPsr();
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the fan-in partitioned by sign, in fan-in order within each part: the first
+     * {@link #getNumExcitatoryFanIn()} synapses have positive strengths and the rest have negative strengths. Synapses
+     * with zero strength are left out. Lets conductance based rules sum excitatory and inhibitory inputs in one pass
+     * without filtering the fan-in. The array is shared and should not be modified.
+     */
+    public Synapse[] getSignedFanIn() {
+        if (signedFanIn == null) {
+            partitionFanIn();
+        }
+        return signedFanIn;
+    }
+
+    /**
+     * Returns the number of synapses with positive strengths at the start of {@link #getSignedFanIn()}.
+     */
+    public int getNumExcitatoryFanIn() {
+        getSignedFanIn();
+        return numExcitatoryFanIn;
+    }
+
+    private void partitionFanIn() {
+        int numExcitatory = 0;
+        int numInhibitory = 0;
+        for (Synapse synapse : fanIn) {
+            if (synapse.getStrength() > 0) {
+                numExcitatory++;
+            } else if (synapse.getStrength() < 0) {
+                numInhibitory++;
+            }
+        }
+        Synapse[] partition = new Synapse[numExcitatory + numInhibitory];
+        int excitatoryIndex = 0;
+        int inhibitoryIndex = numExcitatory;
+        for (Synapse synapse : fanIn) {
+            if (synapse.getStrength() > 0) {
+                partition[excitatoryIndex++] = synapse;
+            } else if (synapse.getStrength() < 0) {
+                partition[inhibitoryIndex++] = synapse;
+            }
+        }
+        signedFanIn = partition;
+        numExcitatoryFanIn = numExcitatory;
+    }
+
+    /**
+     * Called by a synapse in the fan-in whose strength changed sign.
+     */
+    void fanInSignChanged() {
+        signedFanIn = null;
     }
 
     /**
@@ -571,6 +721,11 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         return parent;
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return parent;
+    }
+
     /**
      * Add to the input value of the neuron. When external components (like input tables) send activation to the
      * network they should use this. Called in couplings (by reflection) to allow multiple values to be added each
@@ -702,6 +857,7 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     private void deleteFanIn() {
         List<Synapse> fanInList = getFanInList();
         fanIn.clear();
+        signedFanIn = null;
         for (Synapse synapse : fanInList) {
             synapse.delete();
         }
@@ -936,7 +1092,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void setPolarity(Polarity polarity) {
         this.polarity = polarity;
         fanOut.values().forEach(s -> s.setStrength(polarity.value(s.getStrength())));
-        events.fireColorChange();
+        if (events != null) {
+            events.fireColorChange();
+        }
     }
 
     // TODO: Move these methods to SpikingScalarData?
@@ -950,7 +1108,13 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         if (dataHolder instanceof SpikingScalarData) {
             ((SpikingScalarData) dataHolder).setHasSpiked(spike, parent.getTime());
         }
-        events.fireSpiked(spike);
+        if (events != null) {
+            if (eventsDeferred) {
+                deferredEvents |= spike ? DEFERRED_SPIKE : DEFERRED_SPIKE_END;
+            } else {
+                events.fireSpiked(spike);
+            }
+        }
     }
 
     public Double getLastSpikeTime() {
@@ -977,7 +1141,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
         y = position.getY();
         tempDebugNan(this);
         if (fireEvent) {
-            events.fireLocationChange();
+            if (events != null) {
+                events.fireLocationChange();
+            }
         }
     }
 
@@ -1040,7 +1206,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void setX(final double x, boolean fireEvent) {
         this.x = x;
         if (fireEvent) {
-            events.fireLocationChange();
+            if (events != null) {
+                events.fireLocationChange();
+            }
         }
     }
 
@@ -1051,7 +1219,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void setY(final double y, boolean fireEvent) {
         this.y = y;
         if (fireEvent) {
-            events.fireLocationChange();
+            if (events != null) {
+                events.fireLocationChange();
+            }
         }
     }
 
@@ -1061,7 +1231,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
 
     public void setZ(final double z) {
         this.z = z;
-        events.fireLocationChange();
+        if (events != null) {
+            events.fireLocationChange();
+        }
     }
 
     /**
@@ -1085,6 +1257,9 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     }
 
     public NeuronEvents getEvents() {
+        if (events == null) {
+            events = new NeuronEvents(this);
+        }
         return events;
     }
 
@@ -1092,7 +1267,10 @@ public class Neuron extends LocatableModel implements EditableObject, AttributeC
     public void delete() {
         getNetwork().updatePriorityList();
         deleteConnectedSynapses();
-        events.fireDeleted();
+        getNetwork().modelDeleted(this);
+        if (events != null) {
+            events.fireDeleted();
+        }
     }
 
 }
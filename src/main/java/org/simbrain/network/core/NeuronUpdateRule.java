@@ -124,6 +124,30 @@ public abstract class NeuronUpdateRule implements CopyableObject {
         return DEFAULT_MATRIX_DATA;
     }
 
+    /**
+     * Returns true if {@link #apply(Layer, MatrixDataHolder)} computes new activations from the layer's inputs,
+     * activations and the data holder alone (and not, for example, from the layer's connectors). Such rules can be
+     * run over any block of neuron state, which lets {@link org.simbrain.network.groups.NeuronGroup} update all its
+     * neurons with one call.
+     * <p>
+     * Overrides should return true only for their exact class (e.g. {@code getClass() == LinearRule.class}), since a
+     * subclass may change the scalar rule without providing a matching kernel.
+     */
+    public boolean hasArrayKernel() {
+        return false;
+    }
+
+    /**
+     * Returns true if {@link #apply(Neuron, ScalarDataHolder)} only reads and writes the neuron and its data holder,
+     * and never a field of this rule. Rules are shared between neurons, so only such rules let neurons that share them
+     * be updated on different threads.
+     * <p>
+     * As with {@link #hasArrayKernel()}, overrides should return true only for their exact class.
+     */
+    public boolean updatesNeuronsIndependently() {
+        return false;
+    }
+
     /**
      * Returns a name for this update rule.  Used in combo boxes in the GUI.
      *
@@ -43,7 +43,7 @@ import java.util.*;
  * @author Jeff Yoshimi
  * @author Zoë Tosi
  */
-public class Synapse extends NetworkModel implements EditableObject, AttributeContainer {
+public class Synapse extends NetworkModel implements EditableObject, AttributeContainer, DelayWheel.Receiver {
 
     /**
      * A default update rule for the synapse.
@@ -65,6 +65,11 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
      */
     private static double DEFAULT_LOWER_BOUND = -100;
 
+    /**
+     * Parameters of synapses that have not been given their own. Uses the default bounds.
+     */
+    private static final SynapseParameters DEFAULT_PARAMETERS;
+
     /**
      * Strength of synapse.
      */
@@ -129,28 +134,20 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     private double psr;
 
     /**
-     * Amount to increment the neuron.
-     */
-    @UserParameter(label = "Increment", description = "Strength Increment", minimumValue = 0, order = 2)
-    private double increment = 1;
-
-    /**
-     * Upper limit of synapse.
-     */
-    @UserParameter(label = "Upper bound", description = "Upper bound", minimumValue = 0, order = 3)
-    private double upperBound = DEFAULT_UPPER_BOUND;
-
-    /**
-     * Lower limit of synapse.
+     * Increment, bounds and delay. Shared with other synapses that have the same values, e.g. synapses copied from
+     * the same template. See {@link SynapseParameters}.
      */
-    @UserParameter(label = "Lower bound", description = "Lower bound", maximumValue = 0, order = 4)
-    private double lowerBound = DEFAULT_LOWER_BOUND;
+    private SynapseParameters parameters = DEFAULT_PARAMETERS;
 
     /**
-     * Time to delay sending activation to target neuron.
+     * Increment, bounds and delay as saved before they were moved to {@link #parameters}. Filled in by xstream when
+     * loading older files and moved to {@link #parameters} by {@link #readResolve()}. Always null otherwise, so they
+     * are not written.
      */
-    @UserParameter(label = "Delay", useSetter = true, description = "delay", minimumValue = 0, order = 5)
-    private int delay;
+    private Double increment;
+    private Double upperBound;
+    private Double lowerBound;
+    private Integer delay;
 
     /**
      * Parent group, if any (null if none).
@@ -172,19 +169,14 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     private boolean frozen;
 
     /**
-     * Manages synaptic delay
+     * Delayed psr delivered by the network's {@link DelayWheel} for tick {@link #delayedPsrTick}.
      */
-    private double[] delayManager;
+    private transient double delayedPsr;
 
     /**
-     * Points to the location in the delay manager that corresponds to the current time.
+     * Tick of the delay wheel at which {@link #delayedPsr} came due.
      */
-    private int dlyPtr = 0;
-
-    /**
-     * The value {@link #dlyPtr} points to in the delay manager.
-     */
-    private double dlyVal = 0;
+    private transient long delayedPsrTick = -1;
 
     /**
      * This special tag denotes that the synapse is a template to other synapses. That is, it exists solely to store
@@ -199,18 +191,29 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
      * Data holder for synapse
      */
     @UserParameter(label = "Learning data", isEmbeddedObject = true, order = 100)
-    private ScalarDataHolder dataHolder = new EmptyScalarData();
+    private ScalarDataHolder dataHolder = EmptyScalarData.INSTANCE;
 
     /**
      * Data holder for spiker responder.
      */
     @UserParameter(label = "Spike data", isEmbeddedObject = true, order = 110)
-    private ScalarDataHolder spikeResponderData = new EmptyScalarData();
+    private ScalarDataHolder spikeResponderData = EmptyScalarData.INSTANCE;
+
+    /**
+     * Support for property change events. Created by {@link #getEvents()} the first time it is needed, so synapses
+     * nobody listens to do not carry one. Events are not fired while it is null, since there are no listeners.
+     */
+    private transient SynapseEvents events;
 
     /**
-     * Support for property change events.
+     * If non-null, this synapse has been packed into a {@link CompiledNetwork}, which holds its strength and psr.
      */
-    private transient SynapseEvents events = new SynapseEvents(this);
+    private transient CompiledNetwork compiledNetwork;
+
+    /**
+     * Index of this synapse in {@link #compiledNetwork}.
+     */
+    private transient int compiledIndex;
 
     static {
         Properties properties = Utils.getSimbrainProperties();
@@ -221,6 +224,7 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
         if (properties.containsKey("weightLowerBound")) {
             DEFAULT_LOWER_BOUND = Double.parseDouble(properties.getProperty("weightLowerBound"));
         }
+        DEFAULT_PARAMETERS = new SynapseParameters(1, DEFAULT_UPPER_BOUND, DEFAULT_LOWER_BOUND, 0);
 
     }
 
@@ -335,12 +339,9 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     public Synapse(final Synapse s) {
         setLearningRule(s.getLearningRule().deepCopy());
         forceSetStrength(s.getStrength());
-        setUpperBound(s.getUpperBound());
-        setLowerBound(s.getLowerBound());
-        setIncrement(s.getIncrement());
+        parameters = s.parameters;
         setSpikeResponder(s.getSpikeResponder());
         setEnabled(s.isEnabled());
-        setDelay(s.getDelay());
         this.frozen = s.frozen;
         isTemplate = s.isTemplate;
     }
@@ -393,14 +394,27 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
             spikeResponder.apply(this, spikeResponderData);
         }
 
-        // Handle delays
+        // Handle delays. The current psr is sent through the network's delay wheel and replaced by the psr that
+        // comes due now.
+        int delay = parameters.getDelay();
         if (delay != 0) {
-            dlyVal = dequeu();
-            enqueu(psr);
-            psr = dlyVal;
+            DelayWheel wheel = getNetwork().getDelayWheel();
+            if (psr != 0) {
+                wheel.schedule(this, 0, psr, delay);
+            }
+            psr = delayedPsrTick == wheel.getTick() ? delayedPsr : 0;
         }
     }
 
+    @Override
+    public void receiveDelayed(int index, double value, long tick) {
+        if (delayedPsrTick != tick) {
+            delayedPsrTick = tick;
+            delayedPsr = 0;
+        }
+        delayedPsr += value;
+    }
+
     /**
      * The name of the learning rule of the synapse; it's "type". Used via reflection for consistency checking in the
      * gui. (Open multiple synapses and if they are of the different types the dialog is different).
@@ -474,42 +488,68 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     }
 
     public void forceSetStrength(final double wt) {
+        double oldStrength = strength;
         strength = wt;
-        events.fireStrengthUpdate();
+        checkSignChange(oldStrength);
+        if (compiledNetwork != null) {
+            compiledNetwork.setWeight(compiledIndex, wt);
+        }
+        if (parentNetwork != null) {
+            parentNetwork.strengthChanged();
+        }
+        if (events != null) {
+            events.fireStrengthUpdate();
+        }
     }
 
+    /**
+     * @return Upper limit of synapse.
+     */
+    @UserParameter(label = "Upper bound", description = "Upper bound", minimumValue = 0, order = 3)
     public double getUpperBound() {
-        return upperBound;
+        return parameters.getUpperBound();
     }
 
     public void setUpperBound(final double d) {
-        upperBound = d;
-        events.fireStrengthUpdate(); // to force a graphics update
+        parameters = parameters.withUpperBound(d);
+        if (events != null) {
+            events.fireStrengthUpdate(); // to force a graphics update
+        }
     }
 
+    /**
+     * @return Lower limit of synapse.
+     */
+    @UserParameter(label = "Lower bound", description = "Lower bound", maximumValue = 0, order = 4)
     public double getLowerBound() {
-        return lowerBound;
+        return parameters.getLowerBound();
     }
 
     public void setLowerBound(final double d) {
-        lowerBound = d;
-        events.fireStrengthUpdate(); // to force a graphics update
+        parameters = parameters.withLowerBound(d);
+        if (events != null) {
+            events.fireStrengthUpdate(); // to force a graphics update
+        }
     }
 
+    /**
+     * @return Amount to increment the synapse.
+     */
+    @UserParameter(label = "Increment", description = "Strength Increment", minimumValue = 0, order = 2)
     public double getIncrement() {
-        return increment;
+        return parameters.getIncrement();
     }
 
     public void setIncrement(final double d) {
-        increment = d;
+        parameters = parameters.withIncrement(d);
     }
 
     /**
      * Increment this weight by increment.
      */
     public void increment() {
-        if (strength < upperBound) {
-            forceSetStrength(strength + increment);
+        if (strength < getUpperBound()) {
+            forceSetStrength(strength + getIncrement());
         }
     }
 
@@ -517,9 +557,8 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
      * Decrement this weight by increment.
      */
     public void decrement() {
-        if (strength > lowerBound) {
-            forceSetStrength(strength - increment);
-            strength -= increment;
+        if (strength > getLowerBound()) {
+            forceSetStrength(strength - getIncrement());
         }
     }
 
@@ -581,20 +620,36 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
 
     @Override
     public void randomize() {
-        double newStrength = (getUpperBound() - getLowerBound()) * Math.random() + getLowerBound();
-        forceSetStrength(newStrength);
+        forceSetStrength(randomStrength());
+    }
+
+    /**
+     * Returns a strength drawn uniformly between this synapse's bounds. Used by {@link #randomize()}, and by compact
+     * synapse groups to randomize strengths that have no synapse object.
+     */
+    public double randomStrength() {
+        return (getUpperBound() - getLowerBound()) * Math.random() + getLowerBound();
     }
 
     /**
      * If weight value is above or below its bounds set it to those bounds.
      */
     public void checkBounds() {
-        if (strength > upperBound) {
-            strength = upperBound;
+        // Through forceSetStrength so that compiled weights, the network and the target neuron see the change
+        if (strength > getUpperBound()) {
+            forceSetStrength(getUpperBound());
+        } else if (strength < getLowerBound()) {
+            forceSetStrength(getLowerBound());
         }
+    }
 
-        if (strength < lowerBound) {
-            strength = lowerBound;
+    /**
+     * Let the target know if the strength changed sign, since it keeps its fan-in partitioned by sign (see
+     * {@link Neuron#getSignedFanIn()}).
+     */
+    private void checkSignChange(double oldStrength) {
+        if (target != null && Math.signum(oldStrength) != Math.signum(strength)) {
+            target.fanInSignChanged();
         }
     }
 
@@ -607,11 +662,11 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
      */
     public double clip(final double value) {
         double val = value;
-        if (val > upperBound) {
-            val = upperBound;
+        if (val > getUpperBound()) {
+            val = getUpperBound();
         } else {
-            if (val < lowerBound) {
-                val = lowerBound;
+            if (val < getLowerBound()) {
+                val = getLowerBound();
             }
         }
         return val;
@@ -624,10 +679,11 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     public void setSpikeResponder(final SpikeResponder sr) {
         this.spikeResponder = sr;
         spikeResponderData = sr.createResponderData();
+        invalidateCompiledModels();
     }
 
     /**
-     * Delay manager.
+     * Set the delay, in time steps, and discard any responses in flight.
      *
      * @param dly Amount of delay
      */
@@ -635,49 +691,26 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
         if (dly < 0 && source != null) {
             return;
         }
-        delay = dly;
-
-        if (delay <= 0) {
-            delayManager = null;
-
-            return;
-        }
-
-        delayManager = new double[delay];
-
-        for (int i = 0; i < delay; i++) {
-            delayManager[i] = 0;
-        }
-        dlyPtr = 0;
+        parameters = parameters.withDelay(dly);
+        invalidateCompiledModels();
+        clearDelayedPsrs();
     }
 
     /**
-     * @return Current amount of delay.
+     * @return Time to delay sending activation to target neuron.
      */
+    @UserParameter(label = "Delay", description = "delay", minimumValue = 0, order = 5)
     public int getDelay() {
-        return delay;
+        return parameters.getDelay();
     }
 
     /**
-     * @return the deque.
+     * Remove this synapse's responses from the delay wheel.
      */
-    private double dequeu() {
-        if (dlyPtr == delay) {
-            dlyPtr = 0;
-        }
-        return delayManager[dlyPtr++];
-    }
-
-    /**
-     * Enqueeu.
-     *
-     * @param val Value to enqueu
-     */
-    private void enqueu(final double val) {
-        if (dlyPtr == 0) {
-            delayManager[delay - 1] = val;
-        } else {
-            delayManager[dlyPtr - 1] = val;
+    private void clearDelayedPsrs() {
+        delayedPsrTick = -1;
+        if (!isTemplate && source != null && source.getNetwork() != null) {
+            source.getNetwork().getDelayWheel().cancel(this);
         }
     }
 
@@ -698,6 +731,11 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
         return parentNetwork;
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return getNetwork();
+    }
+
     /**
      * A better name than setSendWeightedInput. Forwarding to setSendWeightedInput for now. Possibly change name for
      * 3.0. have not done so yet so as note to break a bunch of simulations.
@@ -706,6 +744,7 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
      */
     public void setEnabled(final boolean enabled) {
         this.enabled = enabled;
+        invalidateCompiledModels();
     }
 
     /**
@@ -745,13 +784,9 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     public void setLearningRule(SynapseUpdateRule newLearningRule) {
         SynapseUpdateRule oldRule = learningRule;
         this.learningRule = newLearningRule.deepCopy();
-        // TODO: Needed for calls to SynapseGroup.postOpenInit, which calls
-        // SynapseGroup.setAndComformToTemplate. Template synapses don't seem to have
-        // change support initialized.
-        if (events == null) {
-            events = new SynapseEvents(this);
+        if (events != null) {
+            events.fireLearningRuleUpdate(oldRule, learningRule);
         }
-        events.fireLearningRuleUpdate(oldRule, learningRule);
     }
 
     /**
@@ -841,22 +876,74 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
         this.frozen = frozen;
         // Trying to fire an event from here causes problems relating to
         // template synapses
-        if (getNetwork() != null && !isTemplate) {
-            getEvents().fireClampChanged();
+        if (getNetwork() != null && !isTemplate && events != null) {
+            events.fireClampChanged();
         }
     }
 
     public double getPsr() {
+        if (compiledNetwork != null) {
+            return compiledNetwork.getPsr(compiledIndex);
+        }
         return psr;
     }
 
     public void setPsr(double psr) {
+        if (compiledNetwork != null) {
+            compiledNetwork.setPsr(compiledIndex, psr);
+        }
         this.psr = psr;
     }
 
+    /**
+     * Called when this synapse is packed into a {@link CompiledNetwork}.
+     */
+    void attachCompiled(CompiledNetwork compiledNetwork, int index) {
+        this.compiledNetwork = compiledNetwork;
+        this.compiledIndex = index;
+    }
+
+    /**
+     * Called when the {@link CompiledNetwork} holding this synapse is released.
+     */
+    void detachCompiled() {
+        compiledNetwork = null;
+    }
+
+    /**
+     * Structural changes to this synapse require the parent network's compiled representation to be rebuilt.
+     */
+    private void invalidateCompiledModels() {
+        if (parentNetwork != null) {
+            parentNetwork.invalidateCompiledModels();
+        }
+    }
+
+    /**
+     * Called by xstream after unmarshalling, including for template synapses, which are not post-open initialized.
+     */
+    private Object readResolve() {
+        if (parameters == null) {
+            parameters = DEFAULT_PARAMETERS;
+        }
+        if (increment != null || upperBound != null || lowerBound != null || delay != null) {
+            // Saved before parameters were shared. Deriving from the defaults returns the default block itself when
+            // the values are unchanged, and successive synapses with the same values share derived blocks.
+            parameters = parameters
+                    .withIncrement(increment != null ? increment : parameters.getIncrement())
+                    .withUpperBound(upperBound != null ? upperBound : parameters.getUpperBound())
+                    .withLowerBound(lowerBound != null ? lowerBound : parameters.getLowerBound())
+                    .withDelay(delay != null ? delay : parameters.getDelay());
+            increment = null;
+            upperBound = null;
+            lowerBound = null;
+            delay = null;
+        }
+        return this;
+    }
+
     @Override
     public void postOpenInit() {
-        events = new SynapseEvents(this);
         if (getTarget() != null) {
             if (getTarget().getFanIn() != null) {
                 getTarget().addAfferent(this);
@@ -890,8 +977,8 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     @Override
     public void clear() {
         setPsr(0);
-        if (delayManager != null) {
-            Arrays.fill(delayManager, 0);
+        if (getDelay() != 0) {
+            clearDelayedPsrs();
         }
     }
 
@@ -901,6 +988,9 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     }
 
     public SynapseEvents getEvents() {
+        if (events == null) {
+            events = new SynapseEvents(this);
+        }
         return events;
     }
 
@@ -920,7 +1010,12 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
         if (getTarget() != null) {
             getTarget().removeAfferent(this);
         }
-        getEvents().fireDeleted();
+        if (parentNetwork != null) {
+            parentNetwork.modelDeleted(this);
+        }
+        if (events != null) {
+            events.fireDeleted();
+        }
     }
 
     public void hardClear() {
@@ -937,7 +1032,9 @@ public class Synapse extends NetworkModel implements EditableObject, AttributeCo
     }
 
     public void setVisible(boolean newVisibility) {
-        events.fireVisibilityChanged(isVisible, newVisibility);
+        if (events != null) {
+            events.fireVisibilityChanged(isVisible, newVisibility);
+        }
         isVisible = newVisibility;
     }
 
@@ -61,7 +61,7 @@ public abstract class SynapseUpdateRule implements CopyableObject {
     /**
      * Default data holder for scalar data.
      */
-    private static final ScalarDataHolder DEFAULT_SCALAR_DATA = new EmptyScalarData();
+    private static final ScalarDataHolder DEFAULT_SCALAR_DATA = EmptyScalarData.INSTANCE;
 
     /**
      * Default data holder for matrix data.
@@ -102,6 +102,14 @@ public abstract class SynapseUpdateRule implements CopyableObject {
         return DEFAULT_MATRIX_DATA;
     }
 
+    /**
+     * Override to return a data holder for a weight matrix with the given number of rows (target neurons) and columns
+     * (source neurons).
+     */
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return createMatrixData(rows * cols);
+    }
+
     /**
      * Initialize the update rule and make necessary changes to the parent
      * synapse.
@@ -11,7 +11,6 @@ import org.simbrain.util.RectangleOutlines;
 import org.simbrain.util.SimbrainConstants;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.Utils;
-import org.simbrain.util.math.SimbrainMath;
 import org.simbrain.util.propertyeditor.CopyableObject;
 import org.simbrain.workspace.Consumable;
 import org.simbrain.workspace.Producible;
@@ -77,6 +76,17 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
     private boolean cachedActivationsDirty = true;
     private boolean cachedInputsDirty = true;
 
+    /**
+     * Activations as a column vector, returned by {@link #getOutputs()}. Refilled in place when activations change.
+     */
+    private transient Matrix outputs;
+    private transient boolean cachedOutputsDirty = true;
+
+    /**
+     * Buffer that incoming connectors add their outputs to in {@link #updateInputs()}.
+     */
+    private transient Matrix inputBuffer;
+
     /**
      * References to neurons in this collection
      */
@@ -112,8 +122,18 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
 
     @Override
     public Matrix getOutputs() {
-        // TODO: Performance drain? Consider caching this.
-        return new Matrix(getActivations());
+        int n = neuronList.size();
+        if (outputs == null || outputs.nrows() != n) {
+            outputs = new Matrix(n, 1);
+            cachedOutputsDirty = true;
+        }
+        if (cachedOutputsDirty) {
+            for (int i = 0; i < n; i++) {
+                outputs.set(i, 0, neuronList.get(i).getActivation());
+            }
+            cachedOutputsDirty = false;
+        }
+        return outputs;
     }
 
     @Override
@@ -262,6 +282,7 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         neuronList.add(neuron);
         neuron.setId(getParentNetwork().getIdManager().getAndIncrementId(Neuron.class));
         addListener(neuron);
+        getParentNetwork().structureChanged();
     }
 
     /**
@@ -284,6 +305,7 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         });
         n.getEvents().onDeleted(neuron-> {
             neuronList.remove(neuron);
+            getParentNetwork().structureChanged();
             if (isEmpty()) {
                 delete();
             }
@@ -297,6 +319,7 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
      */
     public void removeNeuron(Neuron neuron) {
         neuronList.remove(neuron);
+        getParentNetwork().structureChanged();
     }
 
     /**
@@ -337,7 +360,7 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         for (Neuron n : getNeuronList()) {
             n.forceSetActivation(value);
         }
-        cachedActivationsDirty = true;
+        invalidateCachedActivations();
     }
 
     @Override
@@ -433,11 +456,19 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         // }
         // inputManager.applyCurrentRow(); // TODO
 
-        double[] wtdInputs = new double[size()];
+        int n = neuronList.size();
+        if (inputBuffer == null || inputBuffer.nrows() != n) {
+            inputBuffer = new Matrix(n, 1);
+        } else {
+            inputBuffer.fill(0.0);
+        }
         for (Connector c : getIncomingConnectors()) {
-            wtdInputs = SimbrainMath.addVector(wtdInputs, c.getOutput().col(0));
+            c.addOutputTo(inputBuffer);
         }
-        addInputs(wtdInputs);
+        for (int i = 0; i < n; i++) {
+            neuronList.get(i).addInputValue(inputBuffer.get(i, 0));
+        }
+        invalidateCachedInputs();
     }
 
     @Override
@@ -594,11 +625,12 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         for (int i = 0; i < size; i++) {
             neuronList.get(i).setActivation(activations[i]);
         }
-        cachedActivationsDirty = true;
+        invalidateCachedActivations();
     }
 
     protected void invalidateCachedActivations() {
         cachedActivationsDirty = true;
+        cachedOutputsDirty = true;
     }
 
     protected void invalidateCachedInputs() {
@@ -611,7 +643,7 @@ public abstract class AbstractNeuronCollection extends Layer implements Copyable
         for (int i = 0; i < size; i++) {
             neuronList.get(i).forceSetActivation(activations[i]);
         }
-        cachedActivationsDirty = true;
+        invalidateCachedActivations();
     }
 
 
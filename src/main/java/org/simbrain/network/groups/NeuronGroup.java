@@ -23,19 +23,26 @@ import org.simbrain.network.core.Neuron;
 import org.simbrain.network.core.NeuronUpdateRule;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.layouts.GridLayout;
+import org.simbrain.network.matrix.NeuronArray;
 import org.simbrain.network.layouts.Layout;
 import org.simbrain.network.layouts.LineLayout;
 import org.simbrain.network.layouts.LineLayout.LineOrientation;
 import org.simbrain.network.neuron_update_rules.LinearRule;
 import org.simbrain.network.neuron_update_rules.interfaces.BiasedUpdateRule;
+import org.simbrain.network.neurongroups.KuramotoGroup;
 import org.simbrain.network.neurongroups.SoftmaxGroup;
 import org.simbrain.network.subnetworks.CompetitiveGroup;
 import org.simbrain.network.subnetworks.SOMGroup;
 import org.simbrain.network.subnetworks.WinnerTakeAll;
+import org.simbrain.network.util.BiasedMatrixData;
+import org.simbrain.network.util.BiasedScalarData;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
+import org.simbrain.network.util.SpikingMatrixData;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.propertyeditor.EditableObject;
 import org.simbrain.workspace.Producible;
+import smile.math.matrix.Matrix;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -91,6 +98,18 @@ public class NeuronGroup extends AbstractNeuronCollection {
      */
     private ScalarDataHolder dataHolder;
 
+    /**
+     * Struct-of-arrays state used when the prototype rule has an array kernel (see
+     * {@link NeuronUpdateRule#hasArrayKernel()}): inputs and activations of all neurons in primitive arrays, so
+     * the rule runs as one kernel over the group. Not added to the network. Null until needed.
+     */
+    private transient NeuronArray arrayState;
+
+    /**
+     * Per-neuron rule state (biases, recovery variables, spike times...) for {@link #arrayState}.
+     */
+    private transient MatrixDataHolder arrayData;
+
     /**
      * Create a neuron group without any initial neurons.
      */
@@ -173,12 +192,68 @@ public class NeuronGroup extends AbstractNeuronCollection {
      */
     @Override
     public void update() {
-        neuronList.forEach(Neuron::updateInputs);
-        neuronList.forEach(n -> prototypeRule.apply(n, dataHolder));
-        neuronList.forEach(Neuron::clearInput);
+        updateNeurons();
         super.update();
     }
 
+    /**
+     * Update the inputs and activations of the neurons using the prototype rule. Subclasses can override this to
+     * update the neurons differently while keeping the rest of the group update.
+     */
+    protected void updateNeurons() {
+        if (prototypeRule.hasArrayKernel()) {
+            updateArrayState();
+        } else {
+            neuronList.forEach(Neuron::updateInputs);
+            neuronList.forEach(n -> prototypeRule.apply(n, dataHolder));
+            neuronList.forEach(Neuron::clearInput);
+        }
+    }
+
+    /**
+     * Update using the prototype rule's array kernel. Inputs, activations and biases are gathered from the neurons,
+     * the kernel is applied once to the whole group, and activations and spikes are written back. The neurons remain
+     * the authoritative copy of activations, so the gui, scripts and couplings can change them between updates; rule
+     * state lives in {@link #arrayData}.
+     */
+    private void updateArrayState() {
+        int n = neuronList.size();
+        if (arrayState == null || arrayState.size() != n) {
+            arrayState = new NeuronArray(getParentNetwork(), n);
+            arrayData = prototypeRule.createMatrixData(n);
+        }
+        Matrix inputs = arrayState.getInputs();
+        Matrix activations = arrayState.getActivations();
+        double[] biases = arrayData instanceof BiasedMatrixData ? ((BiasedMatrixData) arrayData).getBiases() : null;
+        for (int i = 0; i < n; i++) {
+            Neuron neuron = neuronList.get(i);
+            neuron.updateInputs();
+            inputs.set(i, 0, neuron.getInput());
+            activations.set(i, 0, neuron.getActivation());
+            if (biases != null && neuron.getDataHolder() instanceof BiasedScalarData) {
+                biases[i] = ((BiasedScalarData) neuron.getDataHolder()).getBias();
+            }
+        }
+        prototypeRule.apply(arrayState, arrayData);
+        boolean[] spikes = arrayData instanceof SpikingMatrixData ? ((SpikingMatrixData) arrayData).getSpikes() : null;
+        for (int i = 0; i < n; i++) {
+            Neuron neuron = neuronList.get(i);
+            if (neuron.isClamped()) {
+                if (neuron.isSpike()) {
+                    neuron.setSpike(false);
+                }
+            } else {
+                // Only touch the spike state when it changes or a new spike occurs
+                boolean spiked = spikes != null && spikes[i];
+                if (spiked || neuron.isSpike()) {
+                    neuron.setSpike(spiked);
+                }
+                neuron.setActivation(activations.get(i, 0));
+            }
+            neuron.clearInput();
+        }
+    }
+
     // TODO: Replace with setPrototypeRule or setUpdateRule
     /**
      * Set the update rule for the neurons in this group.
@@ -189,6 +264,8 @@ public class NeuronGroup extends AbstractNeuronCollection {
         inputManager.setInputSpikes(base.isSpikingRule());
         prototypeRule = base;
         dataHolder = prototypeRule.createScalarData();
+        arrayState = null;
+        arrayData = null;
         // Have to also set node rules to support randomization, increment, etc.
         // But they don't then use the settings of the prototype rule
         neuronList.forEach(n -> n.changeUpdateRule(base, dataHolder));
@@ -198,6 +275,10 @@ public class NeuronGroup extends AbstractNeuronCollection {
         setNeuronType(rule);
     }
 
+    public NeuronUpdateRule getPrototypeRule() {
+        return prototypeRule;
+    }
+
     @Override
     public void clear() {
         super.clear();
@@ -431,6 +512,8 @@ public class NeuronGroup extends AbstractNeuronCollection {
                 ng = new SOMGroup(network, numNeurons);
             } else if (groupType == GroupEnum.SOFTMAX){
                 ng = new SoftmaxGroup(network, numNeurons);
+            } else if (groupType == GroupEnum.KURAMOTO) {
+                ng = new KuramotoGroup(network, numNeurons);
             }
             ng.setLayout(layout);
             ng.applyLayout();
@@ -483,6 +566,12 @@ public class NeuronGroup extends AbstractNeuronCollection {
             public String toString() {
                 return "Softmax";
             }
+        },
+        KURAMOTO {
+            @Override
+            public String toString() {
+                return "Kuramoto oscillators";
+            }
         };
     }
 
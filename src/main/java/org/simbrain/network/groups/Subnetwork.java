@@ -149,6 +149,11 @@ public abstract class Subnetwork extends LocatableModel implements EditableObjec
         return parentNetwork;
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return parentNetwork;
+    }
+
     @Override
     public void postOpenInit() {
         if (events == null) {
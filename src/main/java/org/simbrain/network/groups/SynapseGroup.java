@@ -863,6 +863,11 @@ public class SynapseGroup extends NetworkModel implements EditableObject, Attrib
         return parentNetwork;
     }
 
+    @Override
+    protected Network owningNetwork() {
+        return parentNetwork;
+    }
+
     public SynapseGroupEvents getEvents() {
         return events;
     }
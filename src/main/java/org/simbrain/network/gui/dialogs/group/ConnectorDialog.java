@@ -22,6 +22,7 @@ import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Layer;
 import org.simbrain.network.gui.NetworkPanel;
 import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.matrix.SparseWeightMatrix;
 import org.simbrain.network.matrix.ZoeConnector;
 import org.simbrain.util.StandardDialog;
 import org.simbrain.util.propertyeditor.AnnotatedPropertyEditor;
@@ -91,6 +92,8 @@ public final class ConnectorDialog extends StandardDialog {
             for (Layer target: targets) {
                 if (widget == Connector.ConnectorEnum.DENSE) {
                     net.addNetworkModel(new WeightMatrix(net, source, target));
+                } else if (widget == Connector.ConnectorEnum.SPARSE) {
+                    net.addNetworkModel(new SparseWeightMatrix(net, source, target));
                 } else if (widget == Connector.ConnectorEnum.ZOE) {
                     net.addNetworkModel(new ZoeConnector(net, source, target));
                 }
@@ -196,7 +196,7 @@ public class AddNeuronsDialog extends StandardDialog {
                 ng.applyLayout();
                 ng.setLabel(groupPanel.tfGroupName.getText());
             } else {
-                addedNeurons.forEach(networkPanel.getNetwork()::addNetworkModel);
+                networkPanel.getNetwork().addNetworkModels(addedNeurons);
                 layoutObject.getLayout().layoutNeurons(addedNeurons);
             }
         }
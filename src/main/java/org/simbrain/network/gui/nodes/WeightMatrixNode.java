@@ -11,6 +11,7 @@ import org.simbrain.network.gui.actions.edit.CutAction;
 import org.simbrain.network.gui.actions.edit.DeleteAction;
 import org.simbrain.network.gui.actions.edit.PasteAction;
 import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.matrix.SparseWeightMatrix;
 import org.simbrain.network.matrix.ZoeConnector;
 import org.simbrain.util.ImageKt;
 import org.simbrain.util.ResourceManager;
@@ -110,10 +111,13 @@ public class WeightMatrixNode extends ScreenElement implements PropertyChangeLis
                 double[] tempArray = new double[100];
                 Arrays.fill(tempArray, .1);
                 img = ImageKt.toSimbrainColorImage(tempArray, 10, 10);
+            } else if (weightMatrix instanceof SparseWeightMatrix) {
+                SparseWeightMatrix swm = (SparseWeightMatrix) weightMatrix;
+                img = ImageKt.toSimbrainColorImage(swm.getWeights(), swm.getNumCols(), swm.getNumRows());
             } else {
                 double[] pixelArray = ((WeightMatrix)weightMatrix).getWeights();
-                img = ImageKt.toSimbrainColorImage(pixelArray, ((WeightMatrix)weightMatrix).getWeightMatrix().ncols(),
-                        ((WeightMatrix)weightMatrix).getWeightMatrix().nrows());
+                img = ImageKt.toSimbrainColorImage(pixelArray, ((WeightMatrix)weightMatrix).getWeightMatrixForReading().ncols(),
+                        ((WeightMatrix)weightMatrix).getWeightMatrixForReading().nrows());
 
             }
 
@@ -233,7 +237,7 @@ public class WeightMatrixNode extends ScreenElement implements PropertyChangeLis
 
         // Weight matrix
         if (weightMatrix instanceof WeightMatrix) {
-            var wm = BasicDataWrapperKt.createFromMatrix(((WeightMatrix) weightMatrix).getWeightMatrix());
+            var wm = BasicDataWrapperKt.createFromMatrix(((WeightMatrix) weightMatrix).getWeightMatrixForReading());
             var wmViewer = new SimbrainDataViewer(wm, false);
             TableActionsKt.addSimpleDefaults(wmViewer);
             tabs.addTab("Weight Matrix", wmViewer);
@@ -241,6 +245,12 @@ public class WeightMatrixNode extends ScreenElement implements PropertyChangeLis
                 ((WeightMatrix) weightMatrix).setWeights(wm.get2DDoubleArray());
                 weightMatrix.getEvents().fireUpdated();
             });
+        } else if (weightMatrix instanceof SparseWeightMatrix) {
+            var wm = BasicDataWrapperKt.createFromMatrix(((SparseWeightMatrix) weightMatrix).toDense());
+            var wmViewer = new SimbrainDataViewer(wm, false);
+            TableActionsKt.addSimpleDefaults(wmViewer);
+            tabs.addTab("Weight Matrix", wmViewer);
+            dialog.addClosingTask(() -> ((SparseWeightMatrix) weightMatrix).setWeights(wm.get2DDoubleArray()));
         }
 
         dialog.setContentPane(tabs);
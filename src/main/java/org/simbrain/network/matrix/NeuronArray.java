@@ -11,7 +11,6 @@ import org.simbrain.network.neuron_update_rules.LinearRule;
 import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.Utils;
-import org.simbrain.util.math.SimbrainMath;
 import org.simbrain.util.propertyeditor.EditableObject;
 import org.simbrain.workspace.AttributeContainer;
 import org.simbrain.workspace.Producible;
@@ -34,7 +33,8 @@ public class NeuronArray extends ArrayLayer implements EditableObject, Attribute
 
     /**
      * Array to hold activation values. These are also the outputs that are consumed by
-     * other network components via {@link Layer}.
+     * other network components via {@link Layer}. Update rules write to this matrix in place, so it is never shared
+     * with other objects (see {@link #setActivations(Matrix)}).
      */
     private Matrix activations;
 
@@ -72,12 +72,22 @@ public class NeuronArray extends ArrayLayer implements EditableObject, Attribute
      */
     public NeuronArray deepCopy(Network newParent) {
         NeuronArray copy = new NeuronArray(newParent, this.outputSize());
+        copyStateTo(copy);
+        return copy;
+    }
+
+    /**
+     * Copy location, grid mode, activations and update rule to a new array of the same size. Used by the deep copies
+     * of subclasses.
+     *
+     * @param copy the array to copy to
+     */
+    protected void copyStateTo(NeuronArray copy) {
         copy.setLocation(this.getLocation());
         copy.setGridMode(this.gridMode);
         copy.setActivations(this.getActivations());
         copy.setUpdateRule(this.getUpdateRule());
         copy.setDataHolder(this.getDataHolder().copy());
-        return copy;
     }
 
     @Producible
@@ -180,8 +190,17 @@ public class NeuronArray extends ArrayLayer implements EditableObject, Attribute
     }
 
 
+    /**
+     * Set activations by copying the provided values, so that the matrix passed in is not modified by later updates.
+     */
     public void setActivations(Matrix newActivations) {
-        activations = newActivations;
+        if (newActivations.nrows() == activations.nrows() && newActivations.ncols() == activations.ncols()) {
+            for (int i = 0; i < activations.nrows(); i++) {
+                activations.set(i, 0, newActivations.get(i, 0));
+            }
+        } else {
+            activations = newActivations.clone();
+        }
         getEvents().fireUpdated();
     }
 
@@ -269,19 +288,34 @@ public class NeuronArray extends ArrayLayer implements EditableObject, Attribute
         return this;
     }
 
+    /**
+     * Returns the summed psr's of excitatory (> 0) incoming weights for each node.
+     */
     public double[] getExcitatoryInputs() {
-        return getIncomingConnectors().stream()
-                .filter(wm -> wm instanceof WeightMatrix)
-                .map(wm -> ((WeightMatrix) wm).getExcitatoryOutputs())
-                .reduce(SimbrainMath::addVector)
-                .orElse(new double[inputSize()]);
+        double[] sums = new double[inputSize()];
+        addSignedInputsTo(sums, null);
+        return sums;
     }
+
+    /**
+     * Returns the summed psr's of inhibitory (< 0) incoming weights for each node.
+     */
     public double[] getInhibitoryInputs() {
-        return getIncomingConnectors().stream()
-                .filter(wm -> wm instanceof WeightMatrix)
-                .map(wm -> ((WeightMatrix) wm).getInhibitoryOutputs())
-                .reduce(SimbrainMath::addVector)
-                .orElse(new double[inputSize()]);
+        double[] sums = new double[inputSize()];
+        addSignedInputsTo(null, sums);
+        return sums;
+    }
+
+    /**
+     * Add the summed psr's of excitatory and of inhibitory incoming weights to the provided arrays, either of which
+     * can be null, with one pass over each incoming weight matrix. See {@link WeightMatrix#addSignedOutputsTo}.
+     */
+    public void addSignedInputsTo(double[] excitatory, double[] inhibitory) {
+        for (var connector : getIncomingConnectors()) {
+            if (connector instanceof WeightMatrix) {
+                ((WeightMatrix) connector).addSignedOutputsTo(excitatory, inhibitory);
+            }
+        }
     }
 
 }
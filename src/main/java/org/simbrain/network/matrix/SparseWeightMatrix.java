@@ -0,0 +1,397 @@
+package org.simbrain.network.matrix;
+
+import org.simbrain.network.core.*;
+import org.simbrain.network.spikeresponders.NonResponder;
+import org.simbrain.network.synapse_update_rules.StaticSynapseRule;
+import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder;
+import org.simbrain.network.util.EmptyMatrixData;
+import org.simbrain.network.util.MatrixDataHolder;
+import org.simbrain.util.UserParameter;
+import org.simbrain.workspace.Consumable;
+import org.simbrain.workspace.Producible;
+import smile.math.matrix.Matrix;
+import smile.stat.distribution.GaussianDistribution;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A sparse weight matrix that connects a source and target {@link Layer} object. Same semantics as {@link
+ * WeightMatrix} (as many rows as the target layer and as many columns as the source layer) but only non-zero entries
+ * are stored, in compressed sparse row (CSR) format, so that memory use and the cost of computing outputs scale with
+ * the number of connections rather than the size of the layers.
+ * <p>
+ * The entries of row i are stored at indices rowPointers[i] until rowPointers[i+1] of {@link #getValues()}, and
+ * {@link #getColumnIndices()} holds the source index of each entry. Post synaptic responses (used with spike
+ * responders) are stored per entry, in the same order. Spike responders and learning rules that support sparse
+ * matrices iterate over these arrays directly.
+ * <p>
+ * The sparsity structure is fixed unless weights are reset using {@link #setWeights(double[][])} or similar methods,
+ * in which case the zero entries of the new weights are dropped.
+ */
+public class SparseWeightMatrix extends Connector {
+
+    @UserParameter(label = "Increment amount", increment = .1, order = 20)
+    private double increment = .1;
+
+    @UserParameter(label = "Learning Rule", useSetter = true, isObjectType = true, order = 100)
+    SynapseUpdateRule prototypeRule = new StaticSynapseRule();
+
+    /**
+     * Only used if source connector's rule is spiking.
+     */
+    @UserParameter(label = "Spike Responder", isObjectType = true,
+            useSetter = true, showDetails = false, order = 200)
+    private SpikeResponder spikeResponder = new NonResponder();
+
+    /**
+     * Holds data for prototype rule.
+     */
+    private MatrixDataHolder dataHolder = new EmptyMatrixData();
+
+    /**
+     * Holds data for spike responder. Created with one row and one column per stored entry.
+     */
+    public MatrixDataHolder spikeResponseData = new EmptyMatrixData();
+
+    /**
+     * Number of rows (size of the target layer).
+     */
+    private final int numRows;
+
+    /**
+     * Number of columns (size of the source layer).
+     */
+    private final int numCols;
+
+    /**
+     * Entries of row i are stored at rowPointers[i] until rowPointers[i+1].
+     */
+    private int[] rowPointers;
+
+    /**
+     * Column (source index) of each stored entry.
+     */
+    private int[] columnIndices;
+
+    /**
+     * Value of each stored entry.
+     */
+    private double[] values;
+
+    /**
+     * Post synaptic response of each stored entry. Only used with spike responders.
+     */
+    private double[] psrs;
+
+    /**
+     * Construct a sparse matrix with random gaussian weights where roughly 10% of entries are non-zero.
+     *
+     * @param net    parent network
+     * @param source source layer
+     * @param target target layer
+     */
+    public SparseWeightMatrix(Network net, Layer source, Layer target) {
+        this(net, source, target, .1);
+    }
+
+    /**
+     * Construct a sparse matrix with random gaussian weights.
+     *
+     * @param net     parent network
+     * @param source  source layer
+     * @param target  target layer
+     * @param density probability that a given entry is non-zero
+     */
+    public SparseWeightMatrix(Network net, Layer source, Layer target, double density) {
+        super(source, target, net);
+
+        source.addOutgoingConnector(this);
+        target.addIncomingConnector(this);
+
+        numRows = target.inputSize();
+        numCols = source.outputSize();
+        initStructure(density, new Random());
+    }
+
+    /**
+     * Create a random sparsity structure where each entry is non-zero with probability density.
+     */
+    private void initStructure(double density, Random random) {
+        rowPointers = new int[numRows + 1];
+        int[] columns = new int[16];
+        int count = 0;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                if (random.nextDouble() < density) {
+                    if (count == columns.length) {
+                        columns = Arrays.copyOf(columns, count * 2);
+                    }
+                    columns[count++] = j;
+                }
+            }
+            rowPointers[i + 1] = count;
+        }
+        columnIndices = Arrays.copyOf(columns, count);
+        values = new double[count];
+        psrs = new double[count];
+        spikeResponseData = spikeResponder.createMatrixData(1, count);
+        randomize();
+    }
+
+    /**
+     * Rebuild the sparsity structure from dense weights, keeping only non-zero entries.
+     */
+    private void initStructure(double[][] denseWeights) {
+        rowPointers = new int[numRows + 1];
+        int count = 0;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                if (denseWeights[i][j] != 0) {
+                    count++;
+                }
+            }
+            rowPointers[i + 1] = count;
+        }
+        columnIndices = new int[count];
+        values = new double[count];
+        psrs = new double[count];
+        int k = 0;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                if (denseWeights[i][j] != 0) {
+                    columnIndices[k] = j;
+                    values[k++] = denseWeights[i][j];
+                }
+            }
+        }
+        spikeResponseData = spikeResponder.createMatrixData(1, count);
+    }
+
+    /**
+     * Returns the weight at a given row and column, which is 0 if the entry is not stored.
+     */
+    public double get(int row, int col) {
+        int k = indexOf(row, col);
+        return k < 0 ? 0 : values[k];
+    }
+
+    /**
+     * Set the weight of a stored entry. Entries that are not part of the sparsity structure can't be set.
+     *
+     * @return true if the entry exists and was set
+     */
+    public boolean set(int row, int col, double value) {
+        int k = indexOf(row, col);
+        if (k < 0) {
+            return false;
+        }
+        values[k] = value;
+        return true;
+    }
+
+    /**
+     * Index of an entry in the value array, or -1 if it is not stored. Column indices are sorted within a row.
+     */
+    private int indexOf(int row, int col) {
+        int k = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], col);
+        return k < 0 ? -1 : k;
+    }
+
+    /**
+     * Returns a dense copy of the weights.
+     */
+    public Matrix toDense() {
+        Matrix dense = new Matrix(numRows, numCols);
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                dense.set(i, columnIndices[k], values[k]);
+            }
+        }
+        return dense;
+    }
+
+    @Producible
+    public double[] getWeights() {
+        double[] weights = new double[numRows * numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                weights[i * numCols + columnIndices[k]] = values[k];
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Set the weights using a dense array. Zero entries are dropped from the sparsity structure.
+     */
+    public void setWeights(double[][] newWeights) {
+        double[][] dense = toDense().toArray();
+        for (int i = 0; i < Math.min(numRows, newWeights.length); i++) {
+            System.arraycopy(newWeights[i], 0, dense[i], 0, Math.min(numCols, newWeights[i].length));
+        }
+        initStructure(dense);
+        getEvents().fireUpdated();
+    }
+
+    /**
+     * Set the weights using a flattened (row-major) dense array. Zero entries are dropped from the sparsity structure.
+     */
+    @Consumable
+    public void setWeights(double[] newWeights) {
+        double[][] dense = toDense().toArray();
+        int len = Math.min(numRows * numCols, newWeights.length);
+        for (int i = 0; i < len; i++) {
+            dense[i / numCols][i % numCols] = newWeights[i];
+        }
+        initStructure(dense);
+        getEvents().fireUpdated();
+    }
+
+    @Override
+    public void update() {
+        if (!(prototypeRule instanceof StaticSynapseRule)) {
+            prototypeRule.apply(this, dataHolder);
+            getEvents().fireUpdated();
+        }
+    }
+
+    /**
+     * Returns the product of this matrix and its source activations, or the row sums of the post synaptic responses if
+     * the source array's rule is spiking.
+     */
+    @Override
+    public Matrix getOutput() {
+        double[] output = new double[numRows];
+        if (spikeResponder instanceof NonResponder) {
+            double[] inputs = source.getOutputs().col(0);
+            for (int i = 0; i < numRows; i++) {
+                double sum = 0;
+                for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    sum += values[k] * inputs[columnIndices[k]];
+                }
+                output[i] = sum;
+            }
+        } else {
+            spikeResponder.apply(this, spikeResponseData);
+            for (int i = 0; i < numRows; i++) {
+                double sum = 0;
+                for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    sum += psrs[k];
+                }
+                output[i] = sum;
+            }
+        }
+        return new Matrix(output);
+    }
+
+    /**
+     * In the connectionist case the product of this matrix and its source activations is accumulated directly into
+     * the input buffer.
+     */
+    @Override
+    public void addOutputTo(Matrix inputs) {
+        if (spikeResponder instanceof NonResponder) {
+            Matrix sourceOutputs = source.getOutputs();
+            for (int i = 0; i < numRows; i++) {
+                double sum = 0;
+                for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    sum += values[k] * sourceOutputs.get(columnIndices[k], 0);
+                }
+                inputs.set(i, 0, inputs.get(i, 0) + sum);
+            }
+        } else {
+            super.addOutputTo(inputs);
+        }
+    }
+
+    @Override
+    public void randomize() {
+        var distribution = new GaussianDistribution(0, 1);
+        for (int k = 0; k < values.length; k++) {
+            values[k] = distribution.rand();
+        }
+        getEvents().fireUpdated();
+    }
+
+    @Override
+    public void increment() {
+        for (int k = 0; k < values.length; k++) {
+            values[k] += increment;
+        }
+        getEvents().fireUpdated();
+    }
+
+    @Override
+    public void decrement() {
+        for (int k = 0; k < values.length; k++) {
+            values[k] -= increment;
+        }
+        getEvents().fireUpdated();
+    }
+
+    /**
+     * Set all stored entries to 0, keeping the sparsity structure.
+     */
+    public void hardClear() {
+        Arrays.fill(values, 0);
+        getEvents().fireUpdated();
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Number of stored entries.
+     */
+    public int getNumEntries() {
+        return values.length;
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public int[] getColumnIndices() {
+        return columnIndices;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public double[] getPsrs() {
+        return psrs;
+    }
+
+    public SynapseUpdateRule getPrototypeRule() {
+        return prototypeRule;
+    }
+
+    public void setPrototypeRule(SynapseUpdateRule prototypeRule) {
+        this.prototypeRule = prototypeRule;
+        dataHolder = prototypeRule.createMatrixData(numRows, numCols);
+    }
+
+    public SpikeResponder getSpikeResponder() {
+        return spikeResponder;
+    }
+
+    public void setSpikeResponder(SpikeResponder spikeResponder) {
+        this.spikeResponder = spikeResponder;
+        spikeResponseData = spikeResponder.createMatrixData(1, values.length);
+    }
+
+    @Override
+    public String toString() {
+        return getId()
+                + " (" + numRows + "x" + numCols + ", " + values.length + " entries) "
+                + "connecting " + source.getId() + " to " + target.getId();
+    }
+
+}
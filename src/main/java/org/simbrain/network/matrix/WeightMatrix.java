@@ -2,6 +2,7 @@ package org.simbrain.network.matrix;
 
 import org.simbrain.network.core.*;
 import org.simbrain.network.spikeresponders.NonResponder;
+import org.simbrain.network.spikeresponders.PsrRowSumData;
 import org.simbrain.network.synapse_update_rules.StaticSynapseRule;
 import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder;
 import org.simbrain.network.util.EmptyMatrixData;
@@ -9,6 +10,7 @@ import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.workspace.Consumable;
 import org.simbrain.workspace.Producible;
+import smile.math.blas.Transpose;
 import smile.math.matrix.Matrix;
 import smile.stat.distribution.GaussianDistribution;
 
@@ -26,7 +28,7 @@ import java.util.Arrays;
  * generate the target.
  *
  */
-public class WeightMatrix extends Connector {
+public class WeightMatrix extends Connector implements DelayWheel.Receiver {
 
     @UserParameter(label = "Increment amount", increment = .1, order = 20)
     private double increment = .1;
@@ -57,6 +59,12 @@ public class WeightMatrix extends Connector {
      */
     private Matrix weightMatrix;
 
+    /**
+     * True if {@link #weightMatrix} may be shared with a copy of this weight matrix, in which case it is copied before
+     * it is first changed. See {@link #shareWeights(WeightMatrix)}.
+     */
+    private transient boolean weightsShared;
+
     /**
      * A matrix with the same size as the weight matrix. Holds values from post synaptic responses.
      * Only used with spike responders.
@@ -64,16 +72,20 @@ public class WeightMatrix extends Connector {
     private Matrix psrMatrix;
 
     /**
-     * A binary matrix with 1s corresponding to entries of the weight matrix that are greater than 1 and thus
-     * excitatory, and 0s otherwise. Used by {@link #getExcitatoryOutputs()}
+     * Delay in time steps of each connection, in row-major order. Null if no connection is delayed. Delayed psr's are
+     * sent through the network's {@link DelayWheel}.
+     */
+    private int[] delays;
+
+    /**
+     * Sum of the delayed psr's of each row that came due at tick {@link #delayedOutputsTick}.
      */
-    private transient Matrix excitatoryMask;
+    private transient double[] delayedOutputs;
 
     /**
-     * A binary matrix with 1s corresponding to entries of the weight matrix that are less than 1 and thus
-     * inhibitory, and 0s otherwise. Used by {@link #getInhibitoryOutputs()} }
+     * Tick of the delay wheel at which {@link #delayedOutputs} came due.
      */
-    private transient Matrix inhibitoryMask;
+    private transient long delayedOutputsTick = -1;
 
     /**
      * Construct the matrix.
@@ -92,19 +104,45 @@ public class WeightMatrix extends Connector {
         diagonalize();
 
         psrMatrix = new Matrix(target.inputSize(), source.outputSize());
-
-        getEvents().onUpdated(() -> {
-           updateExcitatoryMask();
-           updateInhibitoryMask();
-        });
-        updateExcitatoryMask();
-        updateInhibitoryMask();
     }
 
+    /**
+     * Returns the weights, for changing in place. If the weights are shared with a copy they are copied first, so
+     * code that only reads weights should use {@link #getWeightMatrixForReading()}.
+     */
     public Matrix getWeightMatrix() {
+        return ownWeights();
+    }
+
+    /**
+     * Returns the weights for reading. They may be shared with a copy of this weight matrix (see
+     * {@link #shareWeights(WeightMatrix)}), so they must not be changed.
+     */
+    public Matrix getWeightMatrixForReading() {
         return weightMatrix;
     }
 
+    /**
+     * Returns {@link #weightMatrix}, first copying it if it is shared so that it can be changed.
+     */
+    private Matrix ownWeights() {
+        if (weightsShared) {
+            weightMatrix = weightMatrix.clone();
+            weightsShared = false;
+        }
+        return weightMatrix;
+    }
+
+    /**
+     * Use the same weights as another weight matrix of the same size until either one changes them. Used to copy
+     * networks without copying large weight matrices that are never changed.
+     */
+    public void shareWeights(WeightMatrix other) {
+        weightMatrix = other.weightMatrix;
+        weightsShared = true;
+        other.weightsShared = true;
+    }
+
     @Producible
     public double[] getWeights() {
         return Arrays.stream(weightMatrix.toArray())
@@ -118,7 +156,7 @@ public class WeightMatrix extends Connector {
     public void setWeights(double[][] newWeights) {
         for (int i = 0; i <  newWeights.length; i++) {
                 for (int j = 0; j < newWeights[i].length; j++) {
-                weightMatrix.set(i,j,newWeights[i][j]);
+                ownWeights().set(i,j,newWeights[i][j]);
             }
         }
     }
@@ -126,8 +164,9 @@ public class WeightMatrix extends Connector {
     @Consumable
     public void setWeights(double[] newWeights) {
         int len = Math.min((int) weightMatrix.size(), newWeights.length);
+        Matrix weights = ownWeights();
         for (int i = 0; i < len; i++) {
-            weightMatrix.set(i / weightMatrix.ncols(), i % weightMatrix.ncols(), newWeights[i]);
+            weights.set(i / weights.ncols(), i % weights.ncols(), newWeights[i]);
         }
         getEvents().fireUpdated();
     }
@@ -138,6 +177,7 @@ public class WeightMatrix extends Connector {
     public void diagonalize() {
         clear();
         weightMatrix = Matrix.eye(target.inputSize(), source.outputSize());
+        weightsShared = false;
         getEvents().fireUpdated();
     }
 
@@ -163,15 +203,131 @@ public class WeightMatrix extends Connector {
         // TODO: Do frozen, clamping, or enabling make sense here
 
         if (spikeResponder instanceof NonResponder) {
+            if (delays != null) {
+                updateConnectionistPSR();
+                return delayedOutput(psrMatrix);
+            }
             // For "connectionist" case. PSR Matrix not needed in this case
             return weightMatrix.mm(source.getOutputs());
         } else {
             // Updates the psrMatrix in the spiking case
             spikeResponder.apply(this, spikeResponseData);
+            if (delays != null) {
+                return delayedOutput(getPsrMatrix());
+            }
+            if (spikeResponseData instanceof PsrRowSumData) {
+                // Event-driven responders maintain the row sums themselves
+                return new Matrix(((PsrRowSumData) spikeResponseData).getRowSums().clone());
+            }
             return new Matrix(psrMatrix.rowSums());
         }
     }
 
+    /**
+     * In the connectionist case the product of this matrix and its source activations is accumulated directly into
+     * the input buffer.
+     */
+    @Override
+    public void addOutputTo(Matrix inputs) {
+        if (spikeResponder instanceof NonResponder && delays == null) {
+            inputs.mm(Transpose.NO_TRANSPOSE, weightMatrix, Transpose.NO_TRANSPOSE, source.getOutputs(), 1.0, 1.0);
+        } else {
+            super.addOutputTo(inputs);
+        }
+    }
+
+    /**
+     * Row sums of the psr's with delays applied. Non-zero psr's of delayed connections are scheduled on the network's
+     * delay wheel, and psr's that come due now are added in. Should be called once per network update.
+     */
+    private Matrix delayedOutput(Matrix psrs) {
+        var wheel = parent.getDelayWheel();
+        int rows = psrs.nrows();
+        int cols = psrs.ncols();
+        double[] output = new double[rows];
+        for (int j = 0; j < cols; j++) {
+            for (int i = 0; i < rows; i++) {
+                double psr = psrs.get(i, j);
+                if (psr != 0) {
+                    int delay = delays[i * cols + j];
+                    if (delay == 0) {
+                        output[i] += psr;
+                    } else {
+                        wheel.schedule(this, i, psr, delay);
+                    }
+                }
+            }
+        }
+        if (delayedOutputsTick == wheel.getTick()) {
+            for (int i = 0; i < rows; i++) {
+                output[i] += delayedOutputs[i];
+            }
+        }
+        return new Matrix(output);
+    }
+
+    @Override
+    public void receiveDelayed(int index, double value, long tick) {
+        if (delayedOutputsTick != tick) {
+            if (delayedOutputs == null || delayedOutputs.length != weightMatrix.nrows()) {
+                delayedOutputs = new double[weightMatrix.nrows()];
+            } else {
+                Arrays.fill(delayedOutputs, 0);
+            }
+            delayedOutputsTick = tick;
+        }
+        delayedOutputs[index] += value;
+    }
+
+    /**
+     * Returns the delay in time steps of each connection, or null if there are no delays.
+     */
+    public int[][] getDelays() {
+        if (delays == null) {
+            return null;
+        }
+        int cols = weightMatrix.ncols();
+        int[][] result = new int[weightMatrix.nrows()][cols];
+        for (int i = 0; i < result.length; i++) {
+            System.arraycopy(delays, i * cols, result[i], 0, cols);
+        }
+        return result;
+    }
+
+    /**
+     * Set the delay in time steps of each connection. Null or all zeros removes delays. Discards psr's in flight.
+     */
+    public void setDelays(int[][] newDelays) {
+        parent.getDelayWheel().cancel(this);
+        delayedOutputsTick = -1;
+        delays = null;
+        if (newDelays == null) {
+            return;
+        }
+        int rows = weightMatrix.nrows();
+        int cols = weightMatrix.ncols();
+        if (newDelays.length != rows) {
+            throw new IllegalArgumentException("Delay matrix must have " + rows + " rows");
+        }
+        int[] flat = new int[rows * cols];
+        boolean anyDelayed = false;
+        for (int i = 0; i < rows; i++) {
+            if (newDelays[i].length != cols) {
+                throw new IllegalArgumentException("Delay matrix must have " + cols + " columns");
+            }
+            for (int j = 0; j < cols; j++) {
+                if (newDelays[i][j] < 0) {
+                    throw new IllegalArgumentException("Delays must be non-negative");
+                }
+                flat[i * cols + j] = newDelays[i][j];
+                anyDelayed |= newDelays[i][j] > 0;
+            }
+        }
+        if (anyDelayed) {
+            delays = flat;
+        }
+    }
+
     /**
      * Update the psr matrix in the connectionist case.
      */
@@ -191,46 +347,51 @@ public class WeightMatrix extends Connector {
         }
     }
 
-    private void updateExcitatoryMask() {
-        excitatoryMask = weightMatrix.clone();
-        for (int i = 0; i <  excitatoryMask.nrows(); i++) {
-            for (int j = 0; j < excitatoryMask.ncols(); j++) {
-                var newVal = (excitatoryMask.get(i,j) > 0) ? 1 : 0;
-                excitatoryMask.set(i,j, newVal);
-            }
-        }
-    }
-
-    private void updateInhibitoryMask() {
-        inhibitoryMask = weightMatrix.clone();
-        for (int i = 0; i <  inhibitoryMask.nrows(); i++) {
-            for (int j = 0; j < inhibitoryMask.ncols(); j++) {
-                var newVal = (inhibitoryMask.get(i,j) < 0) ? 1 : 0;
-                inhibitoryMask.set(i,j, newVal);
-            }
-        }
-    }
-
     /**
      * Returns an array representing the sum of the psr's for all excitatory (> 0) pre-synaptic weights
      */
     public double[] getExcitatoryOutputs() {
-        updateConnectionistPSR();
-        if (excitatoryMask == null) {
-            updateExcitatoryMask();
-        }
-        return excitatoryMask.clone().mul(psrMatrix).rowSums();
+        double[] sums = new double[weightMatrix.nrows()];
+        addSignedOutputsTo(sums, null);
+        return sums;
     }
 
     /**
      * Returns an array representing the sum of the psr's for all inhibitory (< 0) pre-synaptic weights
      */
     public double[] getInhibitoryOutputs() {
-        updateConnectionistPSR();
-        if (inhibitoryMask == null) {
-            updateInhibitoryMask();
+        double[] sums = new double[weightMatrix.nrows()];
+        addSignedOutputsTo(null, sums);
+        return sums;
+    }
+
+    /**
+     * Add the sum of the psr's of each row, restricted to excitatory and to inhibitory weights, to the provided
+     * arrays, computing both in a single pass without building masks. Either array can be null. In the connectionist
+     * case psr's are computed on the fly from the source outputs. Iterates column by column since matrices are stored
+     * in column-major order.
+     */
+    public void addSignedOutputsTo(double[] excitatory, double[] inhibitory) {
+        int rows = weightMatrix.nrows();
+        int cols = weightMatrix.ncols();
+        boolean connectionist = spikeResponder instanceof NonResponder;
+        var output = connectionist ? source.getOutputs() : null;
+        var psrs = connectionist ? null : getPsrMatrix();
+        for (int j = 0; j < cols; j++) {
+            double out = connectionist ? output.get(j, 0) : 0;
+            for (int i = 0; i < rows; i++) {
+                double w = weightMatrix.get(i, j);
+                if (w > 0) {
+                    if (excitatory != null) {
+                        excitatory[i] += connectionist ? w * out : psrs.get(i, j);
+                    }
+                } else if (w < 0) {
+                    if (inhibitory != null) {
+                        inhibitory[i] += connectionist ? w * out : psrs.get(i, j);
+                    }
+                }
+            }
         }
-        return inhibitoryMask.clone().mul(psrMatrix).rowSums();
     }
 
 
@@ -240,6 +401,7 @@ public class WeightMatrix extends Connector {
 
     public void setPrototypeRule(SynapseUpdateRule prototypeRule) {
         this.prototypeRule = prototypeRule;
+        dataHolder = prototypeRule.createMatrixData(weightMatrix.nrows(), weightMatrix.ncols());
     }
 
     @Override
@@ -247,18 +409,19 @@ public class WeightMatrix extends Connector {
     randomize() {
         weightMatrix = Matrix.rand(getTarget().inputSize(), getSource().outputSize(),
                 new GaussianDistribution(0, 1));
+        weightsShared = false;
         getEvents().fireUpdated();
     }
 
     @Override
     public void increment() {
-        weightMatrix.add(increment);
+        ownWeights().add(increment);
         getEvents().fireUpdated();
     }
 
     @Override
     public void decrement() {
-        weightMatrix.sub(increment);
+        ownWeights().sub(increment);
         getEvents().fireUpdated();
     }
 
@@ -267,6 +430,7 @@ public class WeightMatrix extends Connector {
      */
     public void hardClear() {
         weightMatrix = new Matrix(weightMatrix.nrows(), weightMatrix.ncols());
+        weightsShared = false;
         getEvents().fireUpdated();
     }
 
@@ -277,10 +441,27 @@ public class WeightMatrix extends Connector {
                 + "connecting " + source.getId() + " to " + target.getId();
     }
 
+    /**
+     * Returns the psr matrix, first bringing it up to date if the spike responder updates it lazily.
+     */
     public Matrix getPsrMatrix() {
+        if (spikeResponseData instanceof PsrRowSumData) {
+            ((PsrRowSumData) spikeResponseData).materialize(psrMatrix);
+        }
         return psrMatrix;
     }
 
+    /**
+     * Returns the psr matrix without bringing it up to date. For use by spike responders that update it lazily.
+     */
+    public Matrix getRawPsrMatrix() {
+        return psrMatrix;
+    }
+
+    public SpikeResponder getSpikeResponder() {
+        return spikeResponder;
+    }
+
     public void setSpikeResponder(SpikeResponder spikeResponder) {
         this.spikeResponder = spikeResponder;
         spikeResponseData = spikeResponder.createMatrixData(weightMatrix.nrows(), weightMatrix.ncols());
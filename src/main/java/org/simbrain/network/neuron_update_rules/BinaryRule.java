@@ -28,7 +28,6 @@ import org.simbrain.network.util.BiasedScalarData;
 import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
-import smile.math.matrix.Matrix;
 
 import java.util.Random;
 
@@ -92,12 +91,12 @@ public class BinaryRule extends NeuronUpdateRule {
     @Override
     public void apply(Layer arr, MatrixDataHolder data) {
         var array = (NeuronArray) arr;
-        // TODO: Implement using matrix operations
-        double[] vals = new double[array.size()];
-        for (int i = 0; i < vals.length ; i++) {
-            vals[i] = binaryRule(array.getInputs().col(0)[i], ((BiasedMatrixData)data).getBiases()[i]);
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        double[] biases = ((BiasedMatrixData) data).getBiases();
+        for (int i = 0; i < array.size(); i++) {
+            activations.set(i, 0, binaryRule(inputs.get(i, 0), biases[i]));
         }
-        array.setActivations(new Matrix(vals));
     }
 
     @Override
@@ -119,6 +118,16 @@ public class BinaryRule extends NeuronUpdateRule {
         return new BiasedMatrixData(size);
     }
 
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == BinaryRule.class;
+    }
+
+    @Override
+    public boolean updatesNeuronsIndependently() {
+        return getClass() == BinaryRule.class;
+    }
+
     @Override
     public ScalarDataHolder createScalarData() {
         return new BiasedScalarData();
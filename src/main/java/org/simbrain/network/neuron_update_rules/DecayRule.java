@@ -33,7 +33,6 @@ import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
 import org.simbrain.util.stats.distributions.UniformRealDistribution;
-import smile.math.matrix.Matrix;
 
 /**
  * <b>DecayNeuron</b> implements various forms of standard decay.
@@ -117,13 +116,12 @@ public class DecayRule extends NeuronUpdateRule implements BoundedUpdateRule, Cl
     @Override
     public void apply(Layer arr, MatrixDataHolder data) {
         var array = (NeuronArray) arr;
-        // TODO: Implement using matrix operations
-        double[] vals = new double[array.size()];
-        for (int i = 0; i < vals.length ; i++) {
-            vals[i] = decayRule(array.getInputs().col(0)[i],
-                    array.getActivations().col(0)[i], ((BiasedMatrixData)data).getBiases()[i]);
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        double[] biases = ((BiasedMatrixData) data).getBiases();
+        for (int i = 0; i < array.size(); i++) {
+            activations.set(i, 0, decayRule(inputs.get(i, 0), activations.get(i, 0), biases[i]));
         }
-        array.setActivations(new Matrix(vals));
     }
 
     @Override
@@ -165,6 +163,19 @@ public class DecayRule extends NeuronUpdateRule implements BoundedUpdateRule, Cl
         return new BiasedMatrixData(size);
     }
 
+    /**
+     * Subclasses that only override the scalar rule don't have an array kernel.
+     */
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == DecayRule.class;
+    }
+
+    @Override
+    public boolean updatesNeuronsIndependently() {
+        return getClass() == DecayRule.class;
+    }
+
     @Override
     public ScalarDataHolder createScalarData() {
         return new BiasedScalarData();
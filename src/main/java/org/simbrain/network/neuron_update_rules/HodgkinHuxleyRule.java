@@ -18,10 +18,14 @@
  */
 package org.simbrain.network.neuron_update_rules;
 
+import org.simbrain.network.core.Layer;
 import org.simbrain.network.core.Network.TimeType;
 import org.simbrain.network.core.Neuron;
 import org.simbrain.network.core.NeuronUpdateRule;
+import org.simbrain.network.matrix.NeuronArray;
 import org.simbrain.network.neuron_update_rules.interfaces.NoisyUpdateRule;
+import org.simbrain.network.util.HodgkinHuxleyMatrixData;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
@@ -163,6 +167,59 @@ public class HodgkinHuxleyRule extends NeuronUpdateRule implements NoisyUpdateRu
 
     }
 
+    @Override
+    public void apply(Layer arr, MatrixDataHolder data) {
+        var array = (NeuronArray) arr;
+        var gating = (HodgkinHuxleyMatrixData) data;
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        double timeStep = array.getNetwork().getTimeStep();
+        double[] n = gating.getN();
+        double[] m = gating.getM();
+        double[] h = gating.getH();
+        for (int i = 0; i < array.size(); i++) {
+            double v = inputs.get(i, 0);
+            double bh = 1 / (Math.exp((v + 30) / 10) + 1);
+            double ah = 0.07 * Math.exp(v / 20);
+            double bm = 4 * Math.exp(v / 18);
+            double am = 0.1 * (v + 25) / (Math.exp((v + 25) / 10) - 1);
+            double bn = 0.125 * Math.exp(v / 80);
+            double an = 0.01 * (v + 10) / (Math.exp((v + 10) / 10) - 1);
+            double dh = (ah * (1 - h[i]) - bh * h[i]) * timeStep;
+            double dm = (am * (1 - m[i]) - bm * m[i]) * timeStep;
+            double dn = (an * (1 - n[i]) - bn * n[i]) * timeStep;
+
+            double n4 = n[i] * n[i] * n[i] * n[i];
+            double m3h = m[i] * m[i] * m[i] * h[i];
+            double naCurrent = gna * m3h * (v - vna);
+            double kCurrent = gk * n4 * (v - vk);
+            double dv = -1 * timeStep * (kCurrent + naCurrent + gl * (v - vl)) / cm;
+
+            activations.set(i, 0, -1 * (v + dv + resting_v));
+            h[i] += dh;
+            m[i] += dm;
+            n[i] += dn;
+        }
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int size) {
+        // Start the gating variables in steady state at the same arbitrary voltage used by the initializer below
+        double v = -70;
+        double bh = 1 / (Math.exp((v + 30) / 10) + 1);
+        double ah = 0.07 * Math.exp(v / 20);
+        double bm = 4 * Math.exp(v / 18);
+        double am = 0.1 * (v + 25) / (Math.exp((v + 25) / 10) - 1);
+        double bn = 0.125 * Math.exp(v / 80);
+        double an = 0.01 * (v + 10) / (Math.exp((v + 10) / 10) - 1);
+        return new HodgkinHuxleyMatrixData(size, an / (an + bn), am / (am + bm), ah / (ah + bh));
+    }
+
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == HodgkinHuxleyRule.class;
+    }
+
     // Initializer quickly hacked from old init. Zoë this is in your hands to fix! :)
     {
         cm = 1.0;
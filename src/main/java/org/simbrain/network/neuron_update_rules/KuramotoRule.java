@@ -1,10 +1,11 @@
 package org.simbrain.network.neuron_update_rules;
 
-import org.simbrain.network.core.Network;
-import org.simbrain.network.core.Neuron;
-import org.simbrain.network.core.NeuronUpdateRule;
-import org.simbrain.network.core.Synapse;
+import org.simbrain.network.core.*;
+import org.simbrain.network.matrix.NeuronArray;
+import org.simbrain.network.matrix.SparseWeightMatrix;
+import org.simbrain.network.matrix.WeightMatrix;
 import org.simbrain.network.neuron_update_rules.interfaces.*;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
@@ -106,6 +107,62 @@ public class KuramotoRule extends NeuronUpdateRule implements BiasedUpdateRule,
         neuron.setActivation(theta);
     }
 
+    /**
+     * Array version. Activations are phases. The coupling sum_j w_ij * sin(theta_j - theta_i) is computed from the
+     * incoming weight matrices as cos(theta_i) * sum_j w_ij * sin(theta_j) - sin(theta_i) * sum_j w_ij * cos(theta_j),
+     * so that sines and cosines are computed once per source rather than once per weight. As in the scalar rule N is
+     * the fan-in size: every source of a weight matrix, and every stored entry of a sparse weight matrix. New phases
+     * are clipped as {@link Neuron#setActivation(double)} clips them.
+     */
+    @Override
+    public void apply(Layer arr, MatrixDataHolder data) {
+        var array = (NeuronArray) arr;
+        var activations = array.getActivations();
+        int size = array.size();
+        double[] sinSum = new double[size];
+        double[] cosSum = new double[size];
+        int[] fanIn = new int[size];
+        for (Connector c : array.getIncomingConnectors()) {
+            double[] sources = c.getSource().getOutputs().col(0);
+            double[] sin = new double[sources.length];
+            double[] cos = new double[sources.length];
+            for (int j = 0; j < sources.length; j++) {
+                sin[j] = Math.sin(sources[j]);
+                cos[j] = Math.cos(sources[j]);
+            }
+            if (c instanceof WeightMatrix) {
+                var weights = ((WeightMatrix) c).getWeightMatrixForReading();
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < sources.length; j++) {
+                        double w = weights.get(i, j);
+                        sinSum[i] += w * sin[j];
+                        cosSum[i] += w * cos[j];
+                    }
+                    fanIn[i] += sources.length;
+                }
+            } else if (c instanceof SparseWeightMatrix) {
+                var swm = (SparseWeightMatrix) c;
+                int[] rowPointers = swm.getRowPointers();
+                int[] columns = swm.getColumnIndices();
+                double[] values = swm.getValues();
+                for (int i = 0; i < size; i++) {
+                    for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                        sinSum[i] += values[k] * sin[columns[k]];
+                        cosSum[i] += values[k] * cos[columns[k]];
+                    }
+                    fanIn[i] += rowPointers[i + 1] - rowPointers[i];
+                }
+            }
+        }
+        double timeStep = array.getNetwork().getTimeStep();
+        for (int i = 0; i < size; i++) {
+            double theta = activations.get(i, 0);
+            double sum = Math.cos(theta) * sinSum[i] - Math.sin(theta) * cosSum[i];
+            double thetaDot = naturalFrequency + sum / Math.max(fanIn[i], 1);
+            activations.set(i, 0, clip((theta + timeStep * thetaDot) % (2 * Math.PI)));
+        }
+    }
+
     @Override
     public double clip(double val) {
         if (val > getUpperBound()) {
@@ -34,7 +34,6 @@ import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
 import org.simbrain.util.stats.distributions.UniformRealDistribution;
-import smile.math.matrix.Matrix;
 
 /**
  * <b>LinearNeuron</b> is a standard linear neuron.
@@ -94,13 +93,12 @@ public class LinearRule extends NeuronUpdateRule implements DifferentiableUpdate
     @Override
     public void apply(Layer arr, MatrixDataHolder data) {
         var array = (NeuronArray) arr;
-        // TODO: Implement using matrix operations
-        double[] vals = new double[array.size()];
-        for (int i = 0; i < vals.length ; i++) {
-            vals[i] = linearRule(array.getInputs().col(0)[i],
-                    ((BiasedMatrixData)data).getBiases()[i]);
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        double[] biases = ((BiasedMatrixData) data).getBiases();
+        for (int i = 0; i < array.size(); i++) {
+            activations.set(i, 0, linearRule(inputs.get(i, 0), biases[i]));
         }
-        array.setActivations(new Matrix(vals));
     }
 
     @Override
@@ -124,6 +122,19 @@ public class LinearRule extends NeuronUpdateRule implements DifferentiableUpdate
         return new BiasedMatrixData(size);
     }
 
+    /**
+     * Subclasses that only override the scalar rule don't have an array kernel.
+     */
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == LinearRule.class;
+    }
+
+    @Override
+    public boolean updatesNeuronsIndependently() {
+        return getClass() == LinearRule.class;
+    }
+
     @Override
     public ScalarDataHolder createScalarData() {
         return new BiasedScalarData();
@@ -32,7 +32,6 @@ import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
 import org.simbrain.util.stats.distributions.UniformRealDistribution;
-import smile.math.matrix.Matrix;
 
 /**
  * <b>NakaRushtonNeuron</b> is a firing-rate based neuron which is intended to
@@ -157,15 +156,13 @@ public class NakaRushtonRule extends NeuronUpdateRule implements BoundedUpdateRu
     @Override
     public void apply(Layer arr, MatrixDataHolder data) {
         var array = (NeuronArray) arr;
-        double[] vals = new double[array.size()];
-        for (int i = 0; i < vals.length ; i++) {
-            vals[i] = nakaRushtonRule(
-                    array.getInputs().col(0)[i],
-                    array.getActivations().col(0)[i],
-                    array.getNetwork().getTimeStep(),
-                    ((NakaMatrixData)data).getA()[i]);
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        double timeStep = array.getNetwork().getTimeStep();
+        double[] a = ((NakaMatrixData) data).getA();
+        for (int i = 0; i < array.size(); i++) {
+            activations.set(i, 0, nakaRushtonRule(inputs.get(i, 0), activations.get(i, 0), timeStep, a[i]));
         }
-        array.setActivations(new Matrix(vals));
     }
 
     @Override
@@ -208,6 +205,16 @@ public class NakaRushtonRule extends NeuronUpdateRule implements BoundedUpdateRu
         return new NakaMatrixData(size);
     }
 
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == NakaRushtonRule.class;
+    }
+
+    @Override
+    public boolean updatesNeuronsIndependently() {
+        return getClass() == NakaRushtonRule.class;
+    }
+
     @Override
     public ScalarDataHolder createScalarData() {
         return new NakaScalarData();
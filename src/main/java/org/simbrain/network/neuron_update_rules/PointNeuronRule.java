@@ -26,7 +26,6 @@ import org.simbrain.network.neuron_update_rules.interfaces.BiasedUpdateRule;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.math.SimbrainMath;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 /**
@@ -36,16 +35,6 @@ import java.util.Random;
  */
 public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRule {
 
-    /**
-     * Excitatory inputs for connected Synapses.
-     */
-    private ArrayList<Synapse> excitatoryInputs = new ArrayList<Synapse>();
-
-    /**
-     * Inhibitory inputs for connected Synapses.
-     */
-    private ArrayList<Synapse> inhibitoryInputs = new ArrayList<Synapse>();
-
     /**
      * Time average constant for updating the net current field. (p. 43-44)
      */
@@ -232,44 +221,6 @@ public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRul
 
     }
 
-    public void init(Neuron neuron) {
-        setInputLists(neuron);
-    }
-
-    /**
-     * Update the lists of excitatory and inhibitory currents based on synapse
-     * values.
-     *
-     * @param neuron the neuron to set the input list for
-     */
-    private void setInputLists(Neuron neuron) {
-        excitatoryInputs.clear();
-        inhibitoryInputs.clear();
-
-        for (Synapse synapse : neuron.getFanIn()) {
-            addSynapseToList(synapse);
-        }
-    }
-
-    /**
-     * Adds a synapse to the appropriate internal list.
-     *
-     * @param synapse synapse to add.
-     */
-    private void addSynapseToList(Synapse synapse) {
-        if (excitatoryInputs.contains(synapse)) {
-            excitatoryInputs.remove(synapse);
-        }
-        if (inhibitoryInputs.contains(synapse)) {
-            inhibitoryInputs.remove(synapse);
-        }
-        if (synapse.getStrength() > 0) {
-            excitatoryInputs.add(synapse);
-        } else {
-            inhibitoryInputs.add(synapse);
-        }
-    }
-
     @Override
     public TimeType getTimeType() {
         return TimeType.DISCRETE;
@@ -295,21 +246,35 @@ public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRul
         leakCurrent = 0;
         inhibitoryCurrent = 0;
         netCurrent = 0;
-        setInputLists(neuron); // Temporary hack to allow input lists to be
-        // updated by pressing "clear"
     }
 
     @Override
     public void apply(Neuron neuron, ScalarDataHolder data) {
 
+        // Net input (source activations times weights) from excitatory and inhibitory sources, summed in one pass
+        // over the neuron's fan-in partitioned by sign
+        // Will not work with spiking, or negative activations?
+        Synapse[] fanIn = neuron.getSignedFanIn();
+        int numExcitatory = neuron.getNumExcitatoryFanIn();
+        double excitatoryInputs = 0;
+        double inhibitoryInputs = 0;
+        for (int i = 0; i < fanIn.length; i++) {
+            double input = fanIn[i].getSource().getActivation() * fanIn[i].getStrength();
+            if (i < numExcitatory) {
+                excitatoryInputs += input;
+            } else {
+                inhibitoryInputs += input;
+            }
+        }
+
         // Calculate the excitatory conductance (p. 44, eq. 2.16)
-        excitatoryConductance = (1 - netTimeConstant) * excitatoryConductance + netTimeConstant * (getExcitatoryInputs());
+        excitatoryConductance = (1 - netTimeConstant) * excitatoryConductance + netTimeConstant * excitatoryInputs;
 
         // Calculate the excitatory current (p. 37 equation 2.5)
         excitatoryCurrent = excitatoryConductance * excitatoryMaxConductance * (membranePotential - excitatoryReversal);
 
         // Calculate the excitatory conductance using time averaging constant.
-        inhibitoryConductance = (1 - netTimeConstant) * inhibitoryConductance + netTimeConstant * (getInhibitoryInputs());
+        inhibitoryConductance = (1 - netTimeConstant) * inhibitoryConductance + netTimeConstant * inhibitoryInputs;
 
         // Calculate the inhibitory current.
         inhibitoryCurrent = inhibitoryConductance * inhibitoryMaxConductance * (membranePotential - inhibitoryReversal);
@@ -405,44 +370,6 @@ public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRul
     // System.out.println("output:" + neuron.getActivation());
     // }
 
-    /**
-     * Returns net input to this neuron (source activations times weights), from
-     * excitatory sources only.
-     *
-     * @return net input
-     */
-    private double getExcitatoryInputs() {
-
-        double retVal = 0;
-        if (excitatoryInputs.size() > 0) {
-            for (Synapse synapse : excitatoryInputs) {
-                Neuron source = synapse.getSource();
-                // Will not work with spiking, or negative activations?
-                retVal += source.getActivation() * synapse.getStrength();
-            }
-        }
-        return retVal;
-    }
-
-    /**
-     * Returns net input to this neuron (source activations times weights), from
-     * inhibitory sources only.
-     *
-     * @return net input
-     */
-    private double getInhibitoryInputs() {
-
-        double retVal = 0;
-        if (inhibitoryInputs.size() > 0) {
-            for (Synapse synapse : inhibitoryInputs) {
-                Neuron source = synapse.getSource();
-                // Will not work with spiking, or negative activations?
-                retVal += source.getActivation() * synapse.getStrength();
-            }
-        }
-        return retVal;
-    }
-
     /**
      * Returns the positive component of a number.
      *
@@ -562,10 +489,6 @@ public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRul
         this.refractoryPotential = refractoryPotential;
     }
 
-    public void setExcitatoryInputs(ArrayList<Synapse> excitatoryInputs) {
-        this.excitatoryInputs = excitatoryInputs;
-    }
-
     public double getInhibitoryReversal() {
         return inhibitoryReversal;
     }
@@ -614,34 +537,6 @@ public class PointNeuronRule extends NeuronUpdateRule implements BiasedUpdateRul
         this.bias = bias;
     }
 
-    // TODO
-    // public void synapseAdded(NetworkEvent<Synapse> networkEvent) {
-    //     Synapse synapse = networkEvent.getObject();
-    //     if (synapse.getTarget().getUpdateRule() == this) {
-    //         addSynapseToList(synapse);
-    //     }
-    // }
-    //
-    // public void synapseChanged(NetworkEvent<Synapse> networkEvent) {
-    //     Synapse synapse = networkEvent.getObject();
-    //     if (synapse.getTarget().getUpdateRule() == this) {
-    //         addSynapseToList(synapse);
-    //     }
-    // }
-    //
-    // public void synapseRemoved(NetworkEvent<Synapse> networkEvent) {
-    //     Synapse synapse = networkEvent.getObject();
-    //     if (synapse.getTarget().getUpdateRule() == this) {
-    //         if (excitatoryInputs.contains(synapse)) {
-    //             excitatoryInputs.remove(synapse);
-    //         }
-    //         if (inhibitoryInputs.contains(synapse)) {
-    //             inhibitoryInputs.remove(synapse);
-    //         }
-    //     }
-    // }
-
-
     @Override
     public String getName() {
         return "Point Neuron";
@@ -29,7 +29,6 @@ import org.simbrain.network.util.SpikingMatrixData;
 import org.simbrain.util.UserParameter;
 import org.simbrain.util.stats.ProbabilityDistribution;
 import org.simbrain.util.stats.distributions.UniformRealDistribution;
-import smile.math.matrix.Matrix;
 
 import java.util.Random;
 
@@ -70,18 +69,28 @@ public class SpikingThresholdRule extends SpikingNeuronUpdateRule implements Noi
     @Override
     public void apply(Layer arr, MatrixDataHolder data) {
         var array = (NeuronArray) arr;
-        // TODO: Implement using matrix operations
-        double[] vals = new double[array.size()];
-        for (int i = 0; i < vals.length; i++) {
-            if (spikingThresholdRule(array.getInputs().col(0)[i])) {
-                ((SpikingMatrixData) data).setHasSpiked(i, true, array.getNetwork().getTime());
-                vals[i] = 1;
-            } else {
-                ((SpikingMatrixData) data).setHasSpiked(i, false, array.getNetwork().getTime());
-                vals[i] = 0;
-            }
+        var inputs = array.getInputs();
+        var activations = array.getActivations();
+        var spikeData = (SpikingMatrixData) data;
+        double time = array.getNetwork().getTime();
+        for (int i = 0; i < array.size(); i++) {
+            boolean spiked = spikingThresholdRule(inputs.get(i, 0));
+            spikeData.setHasSpiked(i, spiked, time);
+            activations.set(i, 0, spiked ? 1 : 0);
         }
-        array.setActivations(new Matrix(vals));
+    }
+
+    /**
+     * Subclasses that only override the scalar rule don't have an array kernel.
+     */
+    @Override
+    public boolean hasArrayKernel() {
+        return getClass() == SpikingThresholdRule.class;
+    }
+
+    @Override
+    public boolean updatesNeuronsIndependently() {
+        return getClass() == SpikingThresholdRule.class;
     }
 
     @Override
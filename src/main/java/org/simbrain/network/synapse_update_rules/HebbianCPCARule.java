@@ -18,8 +18,12 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
+import org.simbrain.network.util.RankOneUpdateData;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 
@@ -58,6 +62,10 @@ public class HebbianCPCARule extends SynapseUpdateRule {
     @UserParameter(label = "Lambda", description = "Sigmomid Function", minimumValue = -1, maximumValue = 10, increment = .1, order = 1)
     private double lambda;
 
+    @UserParameter(label = "Update every", description = "Number of steps over which weight matrix changes are "
+            + "accumulated before being applied", minimumValue = 1, order = 10)
+    private int batchSize = 1;
+
     @Override
     public void init(Synapse synapse) {
     }
@@ -74,6 +82,7 @@ public class HebbianCPCARule extends SynapseUpdateRule {
         learningRule.setM(getM());
         learningRule.setTheta(getTheta());
         learningRule.setLambda(getLambda());
+        learningRule.setBatchSize(getBatchSize());
         return learningRule;
     }
 
@@ -94,6 +103,25 @@ public class HebbianCPCARule extends SynapseUpdateRule {
         synapse.setStrength(synapse.getStrength() + deltaW);
     }
 
+    /**
+     * Weight matrix version of equation 4.12: dW = learningRate * (y x^T - diag(y) W).
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof RankOneUpdateData)) {
+            return;
+        }
+        double[] input = connector.getSource().getOutputs().col(0);
+        double[] output = connector.getTarget().getOutputs().col(0);
+        ((RankOneUpdateData) data).accumulate(((WeightMatrix) connector).getWeightMatrix(), learningRate, batchSize,
+                output, input, output);
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new RankOneUpdateData(rows, cols);
+    }
+
     /**
      * Sigmoidal Function (see equation 4.23 in O'Reilly and Munakata).
      *
@@ -136,4 +164,12 @@ public class HebbianCPCARule extends SynapseUpdateRule {
         this.lambda = lambda;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
 }
@@ -22,6 +22,7 @@ import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
 import org.simbrain.network.matrix.NeuronArray;
+import org.simbrain.network.matrix.SparseWeightMatrix;
 import org.simbrain.network.matrix.WeightMatrix;
 import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
@@ -62,6 +63,19 @@ public class HebbianRule extends SynapseUpdateRule {
             Matrix tar = ((NeuronArray)connector.getTarget()).getActivations();
             // weights += Learning rate * outer-product(src,tar)
             wm.add(src.mt(tar).mul(learningRate));
+        } else if (connector instanceof SparseWeightMatrix) {
+            // Only update existing connections
+            SparseWeightMatrix swm = (SparseWeightMatrix) connector;
+            double[] src = connector.getSource().getOutputs().col(0);
+            double[] tar = connector.getTarget().getOutputs().col(0);
+            int[] rowPointers = swm.getRowPointers();
+            int[] columns = swm.getColumnIndices();
+            double[] values = swm.getValues();
+            for (int i = 0; i < swm.getNumRows(); i++) {
+                for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    values[k] += learningRate * src[columns[k]] * tar[i];
+                }
+            }
         }
     }
 
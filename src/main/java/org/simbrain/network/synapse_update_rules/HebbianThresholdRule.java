@@ -18,8 +18,12 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
+import org.simbrain.network.util.ThresholdRankOneUpdateData;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 
@@ -53,6 +57,10 @@ public class HebbianThresholdRule extends SynapseUpdateRule {
     @UserParameter(label = "Sliding Threshold", description = "Use sliding output threshold for Hebb threshold rule", order = 1)
     private boolean useSlidingOutputThreshold = false;
 
+    @UserParameter(label = "Update every", description = "Number of steps over which weight matrix changes are "
+            + "accumulated before being applied", minimumValue = 1, order = 10)
+    private int batchSize = 1;
+
     @Override
     public void init(Synapse synapse) {
     }
@@ -69,6 +77,7 @@ public class HebbianThresholdRule extends SynapseUpdateRule {
         h.setOutputThreshold(this.getOutputThreshold());
         h.setOutputThresholdMomentum(this.getOutputThresholdMomentum());
         h.setUseSlidingOutputThreshold(this.getUseSlidingOutputThreshold());
+        h.setBatchSize(getBatchSize());
         return h;
     }
 
@@ -85,6 +94,37 @@ public class HebbianThresholdRule extends SynapseUpdateRule {
         synapse.setStrength(synapse.clip(strength));
     }
 
+    /**
+     * Weight matrix version: dW = learningRate * (y * (y - theta)) x^T, a rank-1 update. Each target neuron has its own
+     * threshold theta, which slides towards y^2 once per update if sliding thresholds are used.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof ThresholdRankOneUpdateData)) {
+            return;
+        }
+        var thresholdData = (ThresholdRankOneUpdateData) data;
+        double[] thresholds = thresholdData.getThresholds();
+        double[] input = connector.getSource().getOutputs().col(0);
+        double[] output = connector.getTarget().getOutputs().col(0);
+        double[] post = new double[output.length];
+        for (int i = 0; i < output.length; i++) {
+            if (useSlidingOutputThreshold) {
+                thresholds[i] += outputThresholdMomentum * ((output[i] * output[i]) - thresholds[i]);
+            } else {
+                thresholds[i] = outputThreshold;
+            }
+            post[i] = output[i] * (output[i] - thresholds[i]);
+        }
+        thresholdData.accumulate(((WeightMatrix) connector).getWeightMatrix(), learningRate, batchSize, post, input,
+                null);
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new ThresholdRankOneUpdateData(rows, cols, outputThreshold);
+    }
+
     public double getLearningRate() {
         return learningRate;
     }
@@ -116,4 +156,13 @@ public class HebbianThresholdRule extends SynapseUpdateRule {
     public void setOutputThresholdMomentum(final double outputThresholdMomentum) {
         this.outputThresholdMomentum = outputThresholdMomentum;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
 }
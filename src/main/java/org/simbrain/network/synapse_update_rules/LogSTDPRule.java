@@ -136,6 +136,34 @@ public class LogSTDPRule extends STDPRule {
     }
 
 
+    /**
+     * Weight dependent, noisy potentiation used by the weight matrix version (see {@link STDPRule}).
+     */
+    @Override
+    protected double ltpAmplitude(double weight) {
+        return w_plus * Math.exp(-Math.abs(weight) / (smallWtThreshold * ltpMod)) * (1 + dist.sampleDouble());
+    }
+
+    /**
+     * Weight dependent, noisy depression used by the weight matrix version (see {@link STDPRule}).
+     */
+    @Override
+    protected double ltdAmplitude(double weight) {
+        return logLtdTerm(Math.abs(weight)) * (1 + dist.sampleDouble());
+    }
+
+    /**
+     * LTD is linear in the weight below the small weight threshold and logarithmic above it.
+     */
+    private double logLtdTerm(double wt) {
+        if (wt <= smallWtThreshold) {
+            return w_minus * wt / smallWtThreshold;
+        } else {
+            double numerator = Math.log(1 + (logSaturation * ((wt / smallWtThreshold) - 1)));
+            return w_minus * (1 + (numerator / logSaturation));
+        }
+    }
+
     /**
      * @param s
      * @return
@@ -165,14 +193,7 @@ public class LogSTDPRule extends STDPRule {
      * @return
      */
     private double calcW_minusTerm(Synapse s) {
-        double wt = Math.abs(s.getStrength());
-        if (wt <= smallWtThreshold) {
-            W_minus = w_minus * wt / smallWtThreshold;
-        } else {
-
-            double numerator = Math.log(1 + (logSaturation * ((wt / smallWtThreshold) - 1)));
-            W_minus = w_minus * (1 + (numerator / logSaturation));
-        }
+        W_minus = logLtdTerm(Math.abs(s.getStrength()));
         // if (s.getStrength() < 0) {
         // if (s.getStrength() >= s.getUpperBound()) {
         // W_minus = 0;
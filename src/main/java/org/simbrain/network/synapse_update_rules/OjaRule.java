@@ -18,8 +18,12 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
+import org.simbrain.network.util.RankOneUpdateData;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 
@@ -42,6 +46,10 @@ public class OjaRule extends SynapseUpdateRule {
     @UserParameter(label = "Normalize to", description = "Normalization factor for Oja rule", increment = .1, order = 1)
     private double normalizationFactor = 1;
 
+    @UserParameter(label = "Update every", description = "Number of steps over which weight matrix changes are "
+            + "accumulated before being applied", minimumValue = 1, order = 10)
+    private int batchSize = 1;
+
     @Override
     public void init(Synapse synapse) {
     }
@@ -56,6 +64,7 @@ public class OjaRule extends SynapseUpdateRule {
         OjaRule os = new OjaRule();
         os.setNormalizationFactor(this.getNormalizationFactor());
         os.setLearningRate(getLearningRate());
+        os.setBatchSize(getBatchSize());
         return os;
     }
 
@@ -69,6 +78,30 @@ public class OjaRule extends SynapseUpdateRule {
         synapse.setStrength(synapse.clip(strength));
     }
 
+    /**
+     * Weight matrix version: dW = learningRate * (y x^T - diag(y^2) W / normalizationFactor), applied as a rank-1
+     * update and a row scaling.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof RankOneUpdateData)) {
+            return;
+        }
+        double[] input = connector.getSource().getOutputs().col(0);
+        double[] output = connector.getTarget().getOutputs().col(0);
+        double[] decay = new double[output.length];
+        for (int i = 0; i < output.length; i++) {
+            decay[i] = output[i] * output[i] / normalizationFactor;
+        }
+        ((RankOneUpdateData) data).accumulate(((WeightMatrix) connector).getWeightMatrix(), learningRate, batchSize,
+                output, input, decay);
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new RankOneUpdateData(rows, cols);
+    }
+
     public double getLearningRate() {
         return learningRate;
     }
@@ -85,4 +118,12 @@ public class OjaRule extends SynapseUpdateRule {
         this.normalizationFactor = normalizationFactor;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
 }
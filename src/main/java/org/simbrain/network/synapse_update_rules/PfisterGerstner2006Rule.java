@@ -18,10 +18,15 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
+import org.simbrain.network.util.SpikeTraceMatrixData;
 import org.simbrain.util.UserParameter;
+import smile.math.matrix.Matrix;
 
 /**
  * Implementation of the model described by Pfister, J-P, Gerstner, W: Triplets
@@ -126,6 +131,71 @@ public class PfisterGerstner2006Rule extends SynapseUpdateRule implements Clonea
         }
     }
 
+    /**
+     * Weight matrix version. Traces are kept per neuron (r1 and r2 per source neuron, o1 and o2 per target neuron),
+     * and only the columns of source neurons and rows of target neurons that spiked are updated.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof SpikeTraceMatrixData)) {
+            return;
+        }
+        int[] preSpikes = STDPRule.spikeIndices(connector.getSource());
+        int[] postSpikes = STDPRule.spikeIndices(connector.getTarget());
+        if (preSpikes == null || postSpikes == null) {
+            return;
+        }
+        var traces = (SpikeTraceMatrixData) data;
+        Matrix weights = ((WeightMatrix) connector).getWeightMatrix();
+        final double timeStep = connector.getSource().getNetwork().getTimeStep();
+        double[] r1 = traces.getPreTraces();
+        double[] r2 = traces.getSlowPreTraces();
+        double[] o1 = traces.getPostTraces();
+        double[] o2 = traces.getSlowPostTraces();
+
+        // Need current values of the slow traces for the strength updates below
+        double[] r2p = new double[preSpikes.length];
+        for (int k = 0; k < preSpikes.length; k++) {
+            r2p[k] = r2[preSpikes[k]];
+        }
+        double[] o2p = new double[postSpikes.length];
+        for (int k = 0; k < postSpikes.length; k++) {
+            o2p[k] = o2[postSpikes[k]];
+        }
+
+        // Update trace values
+        STDPRule.updateTraces(r1, preSpikes, 1 - timeStep / tauPlus);
+        STDPRule.updateTraces(r2, preSpikes, 1 - timeStep / tauX);
+        STDPRule.updateTraces(o1, postSpikes, 1 - timeStep / tauNeg);
+        STDPRule.updateTraces(o2, postSpikes, 1 - timeStep / tauY);
+
+        // Depress the columns of source neurons that spiked
+        for (int k = 0; k < preSpikes.length; k++) {
+            int j = preSpikes[k];
+            double amplitude = a2N + a3N * r2p[k];
+            for (int i = 0; i < o1.length; i++) {
+                if (o1[i] != 0) {
+                    weights.set(i, j, weights.get(i, j) - o1[i] * amplitude);
+                }
+            }
+        }
+        // Potentiate the rows of target neurons that spiked
+        for (int k = 0; k < postSpikes.length; k++) {
+            int i = postSpikes[k];
+            double amplitude = a2P + a3P * o2p[k];
+            for (int j = 0; j < r1.length; j++) {
+                if (r1[j] != 0) {
+                    weights.set(i, j, weights.get(i, j) + r1[j] * amplitude);
+                }
+            }
+        }
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new SpikeTraceMatrixData(rows, cols);
+    }
+
     /**
      * @return Decay rate for r1 trace.
      */
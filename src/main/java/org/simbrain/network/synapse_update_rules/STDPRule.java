@@ -18,10 +18,18 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
+import org.simbrain.network.core.Layer;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.NeuronArray;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
+import org.simbrain.network.util.SpikeTraceMatrixData;
+import org.simbrain.network.util.SpikingMatrixData;
 import org.simbrain.util.UserParameter;
+import smile.math.matrix.Matrix;
 
 /**
  * <b>STDPSynapse</b> models spike time dependent plasticity.
@@ -31,6 +39,9 @@ import org.simbrain.util.UserParameter;
  * Drew on: Jean-Philippe Thivierge and Paul Cisek (2008), Journal of
  * Neuroscience. Nonperiodic Synchronization in Heterogeneous Networks of
  * Spiking Neurons. Also drew on the Scholarpedia article.
+ * <p>
+ * The weight matrix version uses pre and post synaptic traces (one per neuron) in place of last spike times, so that
+ * only the rows of target neurons and the columns of source neurons that spiked are updated.
  */
 public class STDPRule extends SynapseUpdateRule {
 
@@ -107,6 +118,7 @@ public class STDPRule extends SynapseUpdateRule {
         duplicateSynapse.setW_plus(this.getW_plus());
         duplicateSynapse.setLearningRate(this.getLearningRate());
         duplicateSynapse.setHebbian(hebbian);
+        duplicateSynapse.setContinuous(continuous);
         return duplicateSynapse;
     }
 
@@ -148,6 +160,144 @@ public class STDPRule extends SynapseUpdateRule {
         }
     }
 
+    /**
+     * Trace-based version for weight matrices between spiking neuron arrays. When a target neuron spikes its row is
+     * potentiated in proportion to the pre-synaptic traces, and when a source neuron spikes its column is depressed in
+     * proportion to the post-synaptic traces. Traces are set to 1 when a neuron spikes and decay with time constants
+     * tau plus (pre) and tau minus (post), which gives the same exponential window as the synapse version. In the
+     * anti-Hebbian case the windows are swapped as in the synapse version: a source spike potentiates its column in
+     * proportion to post-synaptic traces that decay with tau plus, and a target spike depresses its row in proportion
+     * to pre-synaptic traces that decay with tau minus.
+     * <p>
+     * With smooth STDP each pairing sets the derivative of the weight instead of changing it, and every weight then
+     * changes by its derivative each time step until the next pairing.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof SpikeTraceMatrixData)) {
+            return;
+        }
+        int[] preSpikes = spikeIndices(connector.getSource());
+        int[] postSpikes = spikeIndices(connector.getTarget());
+        if (preSpikes == null || postSpikes == null) {
+            return; // STDP requires spiking neuron arrays
+        }
+        var traces = (SpikeTraceMatrixData) data;
+        Matrix weights = ((WeightMatrix) connector).getWeightMatrix();
+        double timeStep = connector.getSource().getNetwork().getTimeStep();
+        double[] pre = traces.getPreTraces();
+        double[] post = traces.getPostTraces();
+        double rate = learningRate * timeStep;
+        double[] derivatives = continuous ? traces.weightDerivatives() : null;
+        int cols = pre.length;
+
+        // Traces decay before use, so that a trace set one step ago reflects a spike time difference of one time step
+        decayTraces(pre, Math.exp(-timeStep / (hebbian ? tau_plus : tau_minus)));
+        decayTraces(post, Math.exp(-timeStep / (hebbian ? tau_minus : tau_plus)));
+
+        // Rows of target neurons that spiked: LTP if Hebbian, LTD otherwise
+        for (int i : postSpikes) {
+            for (int j = 0; j < pre.length; j++) {
+                if (pre[j] != 0) {
+                    double w = weights.get(i, j);
+                    double amplitude = hebbian ? ltpAmplitude(w) : -ltdAmplitude(w);
+                    if (derivatives != null) {
+                        derivatives[i * cols + j] = learningRate * amplitude * pre[j];
+                    } else {
+                        weights.set(i, j, applyChange(w, rate * amplitude * pre[j]));
+                    }
+                }
+            }
+        }
+        // Columns of source neurons that spiked: LTD if Hebbian, LTP otherwise
+        for (int j : preSpikes) {
+            for (int i = 0; i < post.length; i++) {
+                if (post[i] != 0) {
+                    double w = weights.get(i, j);
+                    double amplitude = hebbian ? -ltdAmplitude(w) : ltpAmplitude(w);
+                    if (derivatives != null) {
+                        derivatives[i * cols + j] = learningRate * amplitude * post[i];
+                    } else {
+                        weights.set(i, j, applyChange(w, rate * amplitude * post[i]));
+                    }
+                }
+            }
+        }
+
+        if (derivatives != null) {
+            for (int i = 0; i < post.length; i++) {
+                for (int j = 0; j < cols; j++) {
+                    double derivative = derivatives[i * cols + j];
+                    if (derivative != 0) {
+                        weights.set(i, j, applyChange(weights.get(i, j), derivative * timeStep));
+                    }
+                }
+            }
+        }
+
+        updateTraces(pre, preSpikes, 1);
+        updateTraces(post, postSpikes, 1);
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new SpikeTraceMatrixData(rows, cols);
+    }
+
+    /**
+     * Amplitude of potentiation of a weight. Overridden by weight-dependent rules.
+     */
+    protected double ltpAmplitude(double weight) {
+        return W_plus;
+    }
+
+    /**
+     * Amplitude of depression of a weight. Overridden by weight-dependent rules.
+     */
+    protected double ltdAmplitude(double weight) {
+        return W_minus;
+    }
+
+    /**
+     * Apply a change to a weight. Changes to negative weights are applied to their magnitude.
+     */
+    private static double applyChange(double weight, double delta) {
+        return weight < 0 ? weight - delta : weight + delta;
+    }
+
+    /**
+     * Decay traces by a factor and set the traces of neurons that spiked to 1.
+     */
+    static void updateTraces(double[] traces, int[] spikes, double decay) {
+        decayTraces(traces, decay);
+        for (int k : spikes) {
+            traces[k] = 1;
+        }
+    }
+
+    /**
+     * Decay traces by a factor.
+     */
+    static void decayTraces(double[] traces, double decay) {
+        if (decay == 1) {
+            return;
+        }
+        for (int k = 0; k < traces.length; k++) {
+            traces[k] *= decay;
+        }
+    }
+
+    /**
+     * Returns the indices of the neurons of a layer that spiked, or null if the layer is not an array of spiking
+     * neurons.
+     */
+    static int[] spikeIndices(Layer layer) {
+        if (layer instanceof NeuronArray && ((NeuronArray) layer).getDataHolder() instanceof SpikingMatrixData) {
+            return ((SpikingMatrixData) ((NeuronArray) layer).getDataHolder()).getSpikeIndices();
+        }
+        return null;
+    }
+
     public double getTau_plus() {
         return tau_plus;
     }
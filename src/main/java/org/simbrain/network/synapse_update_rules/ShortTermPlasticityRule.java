@@ -18,10 +18,14 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.SpikingNeuronUpdateRule;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
 import org.simbrain.network.util.ScalarDataHolder;
+import smile.math.matrix.Matrix;
 import org.simbrain.util.UserParameter;
 
 /**
@@ -164,6 +168,41 @@ public class ShortTermPlasticityRule extends SynapseUpdateRule {
         synapse.setStrength(synapse.clip(strength));
     }
 
+    /**
+     * Weight matrix version. A column is activated if its source neuron spiked (or, for non-spiking sources, if its
+     * activation is above the firing threshold). Weight matrices have no bounds, so depression pulls activated weights
+     * towards 0 and facilitation towards twice the baseline strength. Other weights relax towards the baseline, so
+     * unlike the trace-based rules every weight changes each step.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix)) {
+            return;
+        }
+        Matrix weights = ((WeightMatrix) connector).getWeightMatrix();
+        int[] spikes = STDPRule.spikeIndices(connector.getSource());
+        Matrix outputs = connector.getSource().getOutputs();
+        double target = plasticityType == STD ? 0 : 2 * baseLineStrength;
+        int nextSpike = 0; // Spike indices are in increasing order
+        for (int j = 0; j < weights.ncols(); j++) {
+            boolean active;
+            if (spikes != null) {
+                active = nextSpike < spikes.length && spikes[nextSpike] == j;
+                if (active) {
+                    nextSpike++;
+                }
+            } else {
+                active = outputs.get(j, 0) > firingThreshold;
+            }
+            double towards = active ? target : baseLineStrength;
+            double rate = active ? bumpRate : decayRate;
+            for (int i = 0; i < weights.nrows(); i++) {
+                double w = weights.get(i, j);
+                weights.set(i, j, w - rate * (w - towards));
+            }
+        }
+    }
+
     public double getBaseLineStrength() {
         return baseLineStrength;
     }
@@ -18,8 +18,12 @@
  */
 package org.simbrain.network.synapse_update_rules;
 
+import org.simbrain.network.core.Connector;
 import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseUpdateRule;
+import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.util.MatrixDataHolder;
+import org.simbrain.network.util.RankOneUpdateData;
 import org.simbrain.network.util.ScalarDataHolder;
 import org.simbrain.util.UserParameter;
 
@@ -35,6 +39,10 @@ public class SubtractiveNormalizationRule extends SynapseUpdateRule {
     @UserParameter(label = "Learning rate", description = "Momentum", increment = .1, order = 1)
     private double learningRate;
 
+    @UserParameter(label = "Update every", description = "Number of steps over which weight matrix changes are "
+            + "accumulated before being applied", minimumValue = 1, order = 10)
+    private int batchSize = 1;
+
     @Override
     public void init(Synapse synapse) {
     }
@@ -48,6 +56,7 @@ public class SubtractiveNormalizationRule extends SynapseUpdateRule {
     public SynapseUpdateRule deepCopy() {
         SubtractiveNormalizationRule sns = new SubtractiveNormalizationRule();
         sns.setLearningRate(getLearningRate());
+        sns.setBatchSize(getBatchSize());
         return sns;
     }
 
@@ -62,6 +71,33 @@ public class SubtractiveNormalizationRule extends SynapseUpdateRule {
 
     }
 
+    /**
+     * Weight matrix version: dW = learningRate * y (x - mean(x))^T, a rank-1 update.
+     */
+    @Override
+    public void apply(Connector connector, MatrixDataHolder data) {
+        if (!(connector instanceof WeightMatrix) || !(data instanceof RankOneUpdateData)) {
+            return;
+        }
+        double[] input = connector.getSource().getOutputs().col(0);
+        double[] output = connector.getTarget().getOutputs().col(0);
+        double averageInput = 0;
+        for (double x : input) {
+            averageInput += x;
+        }
+        averageInput /= Math.max(input.length, 1);
+        for (int j = 0; j < input.length; j++) {
+            input[j] -= averageInput;
+        }
+        ((RankOneUpdateData) data).accumulate(((WeightMatrix) connector).getWeightMatrix(), learningRate, batchSize,
+                output, input, null);
+    }
+
+    @Override
+    public MatrixDataHolder createMatrixData(int rows, int cols) {
+        return new RankOneUpdateData(rows, cols);
+    }
+
     public double getLearningRate() {
         return learningRate;
     }
@@ -69,4 +105,13 @@ public class SubtractiveNormalizationRule extends SynapseUpdateRule {
     public void setLearningRate(final double momentum) {
         this.learningRate = momentum;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
 }
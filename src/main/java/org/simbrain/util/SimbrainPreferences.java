@@ -66,6 +66,7 @@ public class SimbrainPreferences {
         DEFAULT_MAP.put("workspaceScriptDirectory", "." + FS + "scripts" + FS + "scriptMenu");
         DEFAULT_MAP.put("mapDirectory", "." + FS + "simulations" + FS + "worlds" + FS +
                         "tilemaps");
+        DEFAULT_MAP.put("workspaceUseSimulationThread", false);
         DEFAULT_MAP.put("imagesDirectory", System.getProperty("user.home"));
         DEFAULT_MAP.put("networkBackgroundColor", Color.WHITE.getRGB());
         DEFAULT_MAP.put("networkLineColor", Color.BLACK.getRGB());
@@ -30,6 +30,7 @@ import org.simbrain.custom_sims.Simulation;
 import org.simbrain.util.ResourceManager;
 import org.simbrain.util.SFileChooser;
 import org.simbrain.util.StandardDialog;
+import org.simbrain.util.SimbrainPreferences;
 import org.simbrain.util.Utils;
 import org.simbrain.util.genericframe.GenericFrame;
 import org.simbrain.util.genericframe.GenericJFrame;
@@ -290,6 +291,10 @@ public class SimbrainDesktop {
         });
 
         workspace.getUpdater().addUpdaterListener(updaterListener);
+        // Gui nodes are still updated directly from model events, so running on the simulation thread is opt-in
+        // when a desktop is attached
+        workspace.getUpdater().setDesktopAttached(true);
+        workspace.getUpdater().setUseSimulationThread(SimbrainPreferences.getBoolean("workspaceUseSimulationThread"));
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         workspaceBounds = new Rectangle(WORKSPACE_INSET, WORKSPACE_INSET, screenSize.width - (WORKSPACE_INSET * 2), screenSize.height - (WORKSPACE_INSET * 2));
 
@@ -219,7 +219,7 @@ val linkedNeuronList = newSim {
                 async(Dispatchers.Default) { Neuron(network) }
             }.awaitAll()
 
-            neurons.forEach { network.addNetworkModel(it) }
+            network.addNetworkModels(neurons)
             val (first) = neurons
             first.activation = 1.0
 
@@ -1,5 +1,6 @@
 package org.simbrain.network
 
+import org.simbrain.network.core.Network
 import org.simbrain.network.events.NetworkModelEvents
 import org.simbrain.util.UserParameter
 import org.simbrain.workspace.Consumable
@@ -15,6 +16,13 @@ abstract class NetworkModel {
      */
     // TODO: Would be nice if this were final
     open var id: String? = null
+        set(id) {
+            val oldId = field
+            field = id
+            if (oldId != id) {
+                owningNetwork()?.idChanged(this, oldId)
+            }
+        }
 
     /**
      * Optional string description of model object.
@@ -29,9 +37,16 @@ abstract class NetworkModel {
             if (this.label == null) {
                 field = ""
             }
+            owningNetwork()?.labelChanged()
             events.fireLabelChange(oldLabel!!, this.label!!)
         }
 
+    /**
+     * The network this model belongs to, which is told when its id or label changes so that lookups by id and label
+     * stay up to date. Null if the model does not know its network yet.
+     */
+    protected open fun owningNetwork(): Network? = null
+
     /**
      * First pass of updating. Generally a "weighted input".
      */
@@ -100,4 +115,5 @@ abstract class NetworkModel {
      * Override to provide a means of clamping and unclamping a model.
      */
     open fun toggleClamping() {}
-}
\ No newline at end of file
+
+}
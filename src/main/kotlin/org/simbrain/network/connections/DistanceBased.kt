@@ -22,10 +22,10 @@ import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.Synapse
 import org.simbrain.network.util.SimnetUtils.getEuclideanDist
 import org.simbrain.util.UserParameter
-import org.simbrain.util.cartesianProduct
 import org.simbrain.util.decayfunctions.DecayFunction
 import org.simbrain.util.decayfunctions.ExponentialDecayFunction
 import org.simbrain.util.propertyeditor.EditableObject
+import org.simbrain.util.stats.SplittableRandomGenerator
 
 class DistanceBased (
 
@@ -75,19 +75,18 @@ class DistanceBased (
     }
 }
 
+/**
+ * Connect source to target neurons with a probability given by a decay function of their distance. Only targets
+ * within the decay function's cutoff distance of a source are considered.
+ */
+@JvmOverloads
 fun connectRadial (
     source: List<Neuron>,
     target: List<Neuron>,
-    decay: DecayFunction
+    decay: DecayFunction,
+    random: SplittableRandomGenerator = SplittableRandomGenerator()
 ): List<Synapse> {
-    val syns = ArrayList<Synapse>()
-    (source cartesianProduct target).forEach{ (src, tar) ->
-        if (src != tar) {
-            val p = decay.getScalingFactor(getEuclideanDist(src, tar))
-            if (Math.random() < p) {
-                syns.add(Synapse(src, tar))
-            }
-        }
-    }
-    return syns
+    return connectWithinRadius(source, target, decay.cutoffDistance, random, { src, tar, rand ->
+        src != tar && rand.nextDouble() < decay.getScalingFactor(getEuclideanDist(src, tar))
+    })
 }
@@ -20,6 +20,7 @@ package org.simbrain.network.connections
 import org.simbrain.network.core.Network
 import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.Synapse
+import org.simbrain.network.util.SimnetUtils
 import org.simbrain.util.UserParameter
 import org.simbrain.util.propertyeditor.EditableObject
 import org.simbrain.util.stats.ProbabilityDistribution
@@ -142,9 +143,13 @@ fun connectFixedDegreeInRadius(
     allowSelfConnection: Boolean = false
 ): List<Synapse> {
     val syns = ArrayList<Synapse>()
-    src.forEach { n -> syns.addAll(n.connectToN(n.getNeuronsInRadius(tar, radius),
-        degree, direction,
-        allowSelfConnection)) }
+    val grid = NeuronGrid(tar, radius)
+    src.forEach { n ->
+        val inRadius = grid.indicesWithin(n.x, n.y, radius)
+            .map { tar[it] }
+            .filter { SimnetUtils.getEuclideanDist(n, it) < radius }
+        syns.addAll(n.connectToN(inRadius, degree, direction, allowSelfConnection))
+    }
     return syns
 }
 
@@ -0,0 +1,135 @@
+package org.simbrain.network.connections
+
+import org.simbrain.network.core.Neuron
+import org.simbrain.network.core.Synapse
+import org.simbrain.util.stats.SplittableRandomGenerator
+import java.util.stream.Collectors
+import java.util.stream.IntStream
+import kotlin.math.floor
+
+/**
+ * Uniform grid over the (x, y) locations of a list of neurons, used to find the neurons within a radius of a point
+ * without scanning the whole list. With cells as wide as the query radius a query only visits 3 x 3 cells, so
+ * distance-based connection strategies do work proportional to the number of nearby pairs rather than to the number
+ * of all pairs. Locations are read when the grid is built.
+ *
+ * @param neurons the neurons to index
+ * @param cellSize width of the grid cells. Typically the largest radius that will be queried.
+ */
+class NeuronGrid(val neurons: List<Neuron>, cellSize: Double) {
+
+    private val xs = DoubleArray(neurons.size) { neurons[it].x }
+
+    private val ys = DoubleArray(neurons.size) { neurons[it].y }
+
+    /**
+     * Width of a cell. Infinite if the whole plane is one cell.
+     */
+    private val cellSize = if (cellSize > 0 && cellSize.isFinite()) cellSize else Double.POSITIVE_INFINITY
+
+    /**
+     * Indices of the neurons in each non-empty cell, in increasing order.
+     */
+    private val cells = HashMap<Long, IntArray>()
+
+    init {
+        val lists = HashMap<Long, ArrayList<Int>>()
+        for (i in neurons.indices) {
+            lists.getOrPut(key(cell(xs[i]), cell(ys[i]))) { ArrayList() }.add(i)
+        }
+        lists.forEach { (key, list) -> cells[key] = list.toIntArray() }
+    }
+
+    private fun cell(coordinate: Double): Int =
+        if (cellSize.isInfinite()) 0 else floor(coordinate / cellSize).toInt()
+
+    private fun key(cx: Int, cy: Int) = (cx.toLong() shl 32) or (cy.toLong() and 0xffffffffL)
+
+    /**
+     * Returns the indices of the neurons whose (x, y) distance from a point is at most the radius, in increasing
+     * order.
+     */
+    fun indicesWithin(x: Double, y: Double, radius: Double): IntArray {
+        if (radius.isInfinite()) {
+            return IntArray(neurons.size) { it }
+        }
+        var result = IntArray(16)
+        var size = 0
+        val r2 = radius * radius
+        for (cx in cell(x - radius)..cell(x + radius)) {
+            for (cy in cell(y - radius)..cell(y + radius)) {
+                val members = cells[key(cx, cy)] ?: continue
+                for (i in members) {
+                    val dx = xs[i] - x
+                    val dy = ys[i] - y
+                    if (dx * dx + dy * dy <= r2) {
+                        if (size == result.size) {
+                            result = result.copyOf(size * 2)
+                        }
+                        result[size++] = i
+                    }
+                }
+            }
+        }
+        result = result.copyOf(size)
+        result.sort()
+        return result
+    }
+}
+
+/**
+ * Number of source neurons handled by each parallel chunk in [connectWithinRadius].
+ */
+private const val SOURCES_PER_CHUNK = 256
+
+/**
+ * Connect each source neuron to target neurons within a radius, as chosen by a rule. Candidate targets are found
+ * using a [NeuronGrid]. Sources are processed in parallel chunks, and chunk i draws its random numbers from stream i
+ * of the provided generator, so for a given seed the same synapses are made however many cores are used. Synapses
+ * are created on the calling thread, in source order and then target order.
+ *
+ * @param radius only targets within this (x, y) distance of a source are considered. Infinite to consider all.
+ * @param random generator whose streams are used by the chunks
+ * @param connect whether to connect a source to a candidate target, given a random number generator
+ * @param makeSynapse creates the synapse for a chosen pair
+ */
+fun connectWithinRadius(
+    source: List<Neuron>,
+    target: List<Neuron>,
+    radius: Double,
+    random: SplittableRandomGenerator = SplittableRandomGenerator(),
+    connect: (src: Neuron, tar: Neuron, random: SplittableRandomGenerator) -> Boolean,
+    makeSynapse: (src: Neuron, tar: Neuron) -> Synapse = { src, tar -> Synapse(src, tar) }
+): List<Synapse> {
+    if (source.isEmpty() || target.isEmpty() || !(radius >= 0)) {
+        return ArrayList()
+    }
+    val grid = NeuronGrid(target, radius)
+    val numChunks = (source.size + SOURCES_PER_CHUNK - 1) / SOURCES_PER_CHUNK
+    // Each chunk returns its chosen pairs as (source index, target index) in a flat array
+    val chunks: List<IntArray> = IntStream.range(0, numChunks).parallel().mapToObj { c ->
+        val chunkRandom = random.stream(c.toLong())
+        var pairs = IntArray(64)
+        var size = 0
+        for (s in c * SOURCES_PER_CHUNK until minOf(source.size, (c + 1) * SOURCES_PER_CHUNK)) {
+            val src = source[s]
+            for (t in grid.indicesWithin(src.x, src.y, radius)) {
+                if (connect(src, target[t], chunkRandom)) {
+                    if (size + 2 > pairs.size) {
+                        pairs = pairs.copyOf(pairs.size * 2)
+                    }
+                    pairs[size++] = s
+                    pairs[size++] = t
+                }
+            }
+        }
+        pairs.copyOf(size)
+    }.collect(Collectors.toList())
+    val synapses = ArrayList<Synapse>(chunks.sumOf { it.size / 2 })
+    for (pairs in chunks) {
+        for (k in pairs.indices step 2) {
+            synapses.add(makeSynapse(source[pairs[k]], target[pairs[k + 1]]))
+        }
+    }
+    return synapses
+}
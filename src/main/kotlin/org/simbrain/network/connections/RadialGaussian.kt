@@ -22,9 +22,11 @@ import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.Synapse
 import org.simbrain.util.SimbrainConstants.Polarity
 import org.simbrain.util.UserParameter
+import org.simbrain.util.decayfunctions.NEGLIGIBLE_SCALING_FACTOR
 import org.simbrain.util.propertyeditor.EditableObject
-import org.simbrain.util.stats.distributions.UniformRealDistribution
-import java.util.concurrent.Callable
+import org.simbrain.util.stats.SplittableRandomGenerator
+import kotlin.math.ln
+import kotlin.math.sqrt
 
 const val DEFAULT_DIST_CONST: Double = 0.25
 
@@ -157,54 +159,6 @@ class RadialGaussian(
         }
     }
 
-    private inner class ConnectorService constructor(
-        private val srcColl: Collection<Neuron>,
-        private val targColl: Collection<Neuron>?,
-        private val loose: Boolean,
-    ) : Callable<Collection<Synapse>> {
-        var rand: UniformRealDistribution = UniformRealDistribution(0.0, 1.0);
-        @Throws(Exception::class)
-        public override fun call(): Collection<Synapse> {
-            // Attempting to pre-allocate... assumes that connection density
-            // will be less than #src * #tar * 0.2 or 20% connectivity
-            val synapses: MutableList<Synapse> =
-                ArrayList(Math.ceil(srcColl.size * targColl!!.size * 0.2 * 0.75).toInt())
-            for (src: Neuron in srcColl) {
-                for (tar: Neuron in targColl) {
-                    val randVal: Double = rand.sampleDouble()
-                    var probability: Double
-                    if (src.getPolarity() === Polarity.EXCITATORY) {
-                        if (tar.getPolarity() === Polarity.EXCITATORY) {
-                            probability = calcConnectProb(src, tar, eeDistConst, lambda)
-                        } else if (tar.getPolarity() === Polarity.INHIBITORY) {
-                            probability = calcConnectProb(src, tar, eiDistConst, lambda)
-                        } else {
-                            probability = calcConnectProb(src, tar, distConst, lambda)
-                        }
-                    } else if (src.getPolarity() === Polarity.INHIBITORY) {
-                        if (tar.getPolarity() === Polarity.EXCITATORY) {
-                            probability = calcConnectProb(src, tar, ieDistConst, lambda)
-                        } else if (tar.getPolarity() === Polarity.INHIBITORY) {
-                            probability = calcConnectProb(src, tar, iiDistConst, lambda)
-                        } else {
-                            probability = calcConnectProb(src, tar, distConst, lambda)
-                        }
-                    } else {
-                        probability = calcConnectProb(src, tar, distConst, lambda)
-                    }
-                    if (randVal < probability) {
-                        val s: Synapse = Synapse(src, tar)
-                        synapses.add(s)
-                        if (loose) {
-                            src.getNetwork().addNetworkModel(s)
-                        }
-                    }
-                }
-            }
-            return synapses
-        }
-    }
-
     // inner class DensityEstimator constructor() : Runnable {
     //     var densityEsitmate: Double = 0.0
     //         private set
@@ -261,6 +215,7 @@ class RadialGaussian(
     }
 }
 
+@JvmOverloads
 fun connectRadialPolarized(
     source: List<Neuron>,
     target: List<Neuron>,
@@ -269,47 +224,35 @@ fun connectRadialPolarized(
     ieDistConst: Double = DEFAULT_IE_CONST,
     iiDistConst: Double = DEFAULT_II_CONST,
     distConst: Double = DEFAULT_DIST_CONST,
-    lambda: Double = DEFAULT_LAMBDA
+    lambda: Double = DEFAULT_LAMBDA,
+    random: SplittableRandomGenerator = SplittableRandomGenerator()
 ): List<Synapse> {
-    // Pre-allocating assuming that if one is using this as a connector
-    // then they are probably not going to have greater than 25%
-    // connectivity
-    val synapses: MutableList<Synapse> = ArrayList(source!!.size * target!!.size / 4)
-    for (src: Neuron in source) {
-        for (tar: Neuron in target) {
-            val randVal: Double = Math.random()
-            var probability: Double
-            if (src.getPolarity() === Polarity.EXCITATORY) {
-                if (tar.getPolarity() === Polarity.EXCITATORY) {
-                    probability = calcConnectProb(src, tar, eeDistConst, lambda)
-                } else if (tar.getPolarity() === Polarity.INHIBITORY) {
-                    probability = calcConnectProb(src, tar, eiDistConst, lambda)
-                } else {
-                    probability = calcConnectProb(src, tar, distConst, lambda)
+    val maxConst = maxOf(eeDistConst, eiDistConst, ieDistConst, iiDistConst, distConst)
+    return connectWithinRadius(source, target, gaussianCutoff(maxConst, lambda), random,
+        connect = { src, tar, rand ->
+            val probability = if (src.polarity === Polarity.EXCITATORY) {
+                when (tar.polarity) {
+                    Polarity.EXCITATORY -> calcConnectProb(src, tar, eeDistConst, lambda)
+                    Polarity.INHIBITORY -> calcConnectProb(src, tar, eiDistConst, lambda)
+                    else -> calcConnectProb(src, tar, distConst, lambda)
                 }
-            } else if (src.getPolarity() === Polarity.INHIBITORY) {
-                if (tar.getPolarity() === Polarity.EXCITATORY) {
-                    probability = calcConnectProb(src, tar, ieDistConst, lambda)
-                } else if (tar.getPolarity() === Polarity.INHIBITORY) {
-                    probability = calcConnectProb(src, tar, iiDistConst, lambda)
-                } else {
-                    probability = calcConnectProb(src, tar, distConst, lambda)
+            } else if (src.polarity === Polarity.INHIBITORY) {
+                when (tar.polarity) {
+                    Polarity.EXCITATORY -> calcConnectProb(src, tar, ieDistConst, lambda)
+                    Polarity.INHIBITORY -> calcConnectProb(src, tar, iiDistConst, lambda)
+                    else -> calcConnectProb(src, tar, distConst, lambda)
                 }
             } else {
-                probability = calcConnectProb(src, tar, distConst, lambda)
+                calcConnectProb(src, tar, distConst, lambda)
             }
-            if (randVal < probability) {
-                val s = Synapse(src, tar)
-                if (src.polarity === Polarity.INHIBITORY) {
-                    s.forceSetStrength(-1.0)
-                } else {
-                    s.forceSetStrength(1.0)
-                }
-                synapses.add(s)
+            rand.nextDouble() < probability
+        },
+        makeSynapse = { src, tar ->
+            Synapse(src, tar).also {
+                it.forceSetStrength(if (src.polarity === Polarity.INHIBITORY) -1.0 else 1.0)
             }
         }
-    }
-    return synapses
+    )
 }
 
 /**
@@ -317,27 +260,30 @@ fun connectRadialPolarized(
  * polarity.
  * @param lambda average connection distance.
  */
+@JvmOverloads
 fun connectRadialNoPolarity(
     source: List<Neuron>,
     target: List<Neuron>,
     distConst: Double,
-    lambda: Double
+    lambda: Double,
+    random: SplittableRandomGenerator = SplittableRandomGenerator()
 ): List<Synapse> {
-    // Pre-allocating assuming that if one is using this as a connector
-    // then they are probably not going to have greater than 25%
-    // connectivity
-    val synapses: MutableList<Synapse> = ArrayList(source.size * target.size / 4)
-    for (src: Neuron in source) {
-        for (tar: Neuron in target) {
-            val randVal: Double = Math.random()
-            val probability: Double = calcConnectProb(src, tar, distConst, lambda)
-            if (randVal < probability) {
-                val s = Synapse(src, tar)
-                synapses.add(s)
-            }
-        }
+    return connectWithinRadius(source, target, gaussianCutoff(distConst, lambda), random, { src, tar, rand ->
+        rand.nextDouble() < calcConnectProb(src, tar, distConst, lambda)
+    })
+}
+
+/**
+ * Distance beyond which [calcConnectProb] is below [NEGLIGIBLE_SCALING_FACTOR] for connection constants up to
+ * maxConst. Only the x, y distance is used by the index, which never exceeds the full distance, so nothing within
+ * the cutoff is missed.
+ */
+private fun gaussianCutoff(maxConst: Double, lambda: Double): Double {
+    return if (maxConst <= NEGLIGIBLE_SCALING_FACTOR) {
+        0.0
+    } else {
+        lambda * sqrt(ln(maxConst / NEGLIGIBLE_SCALING_FACTOR))
     }
-    return synapses
 }
 
 /**
@@ -24,6 +24,7 @@ import org.simbrain.network.util.SimnetUtils
 import org.simbrain.util.UserParameter
 import org.simbrain.util.propertyeditor.EditableObject
 import org.simbrain.util.stats.ProbabilityDistribution
+import org.simbrain.util.stats.SplittableRandomGenerator
 import org.simbrain.util.stats.distributions.NormalDistribution
 
 /**
@@ -150,17 +151,27 @@ class RadialProbabilistic(
 
 }
 
+/**
+ * Connect each source neuron to target neurons within a radius with a given probability. Targets are found using a
+ * [NeuronGrid], so only nearby pairs are examined. Strengths are sampled from the randomizer and signed by the target's
+ * polarity.
+ */
+@JvmOverloads
 fun connectProbabilistically(
     src: List<Neuron>,
     tar: List<Neuron>,
     prob: Double,
     radius: Double,
     allowSelfConnection: Boolean = false,
-    randomizer: ProbabilityDistribution = NormalDistribution(0.0, 1.0)
+    randomizer: ProbabilityDistribution = NormalDistribution(0.0, 1.0),
+    random: SplittableRandomGenerator = SplittableRandomGenerator()
 ): List<Synapse> {
-    val syns = ArrayList<Synapse>()
-    src.forEach { n -> syns.addAll(n.connectProbabilistically(tar, prob, radius)) }
-    return syns
+    return connectWithinRadius(src, tar, radius, random,
+        connect = { s, t, rand ->
+            (allowSelfConnection || s != t) && SimnetUtils.getEuclideanDist(s, t) < radius && rand.nextDouble() < prob
+        },
+        makeSynapse = { s, t -> Synapse(s, t, t.polarity.value(randomizer.sampleDouble())) }
+    )
 }
 
 /**
@@ -38,12 +38,13 @@ abstract class ArrayLayer(
         return inputs.size().toInt()
     }
 
+    /**
+     * Incoming connectors add their outputs directly to [inputs].
+     */
     override fun updateInputs() {
-        val wtdInputs = Matrix(inputSize(), 1)
         for (c in incomingConnectors) {
-            wtdInputs.add(c.output)
+            c.addOutputTo(inputs)
         }
-        addInputs(wtdInputs)
     }
 
     override fun addInputs(newInputs: Matrix) {
@@ -0,0 +1,277 @@
+package org.simbrain.network.core
+
+import org.simbrain.network.NetworkModel
+import org.simbrain.network.neuron_update_rules.LinearRule
+import org.simbrain.network.spikeresponders.NonResponder
+import org.simbrain.network.updaterules.IzhikevichRule
+import org.simbrain.network.updaterules.IzhikevichScalarData
+import org.simbrain.network.util.BiasedScalarData
+import java.util.*
+
+/**
+ * Structure-of-arrays "compiled" representation of the free (loose) neurons and synapses of a [Network], used by
+ * [org.simbrain.network.update_actions.CompiledUpdate].
+ *
+ * Free neurons whose update rule has an array kernel (currently [LinearRule] and [IzhikevichRule]) are compiled.
+ * Their incoming "connectionist" synapses (enabled, no spike responder, no delay) are packed into a primitive CSR
+ * graph (one row per target neuron) so that weighted inputs are computed without pointer chasing or virtual calls.
+ * Per-neuron state (e.g. Izhikevich recovery) stays in each neuron's data holder, as with the scalar rules. All other
+ * synapses and neurons are updated through the normal object api.
+ *
+ * Activations, spikes and inputs are still read from and written to the [Neuron] objects each update, so that the
+ * gui, couplings and scripts see the same state as with [Network.bufferedUpdate]. Strength changes on compiled
+ * synapses are written through to the weight array. Structural changes (adding or removing models, changing update
+ * rules, spike responders, delays...) invalidate the compiled representation, which is rebuilt on the next update.
+ *
+ * @param freeNeurons the free neurons of the network
+ * @param nonAsyncModels models updated sequentially by the buffered update; those that are not compiled here are
+ * updated through the object api.
+ */
+class CompiledNetwork(freeNeurons: Collection<Neuron>, nonAsyncModels: Collection<NetworkModel>) {
+
+    /**
+     * Kernel types. One per compiled neuron.
+     */
+    private companion object {
+        const val LINEAR: Byte = 0
+        const val IZHIKEVICH: Byte = 1
+
+        /**
+         * Only neurons whose rule's [NeuronUpdateRule.hasArrayKernel] is true are compiled. It is true for the exact
+         * rule classes only, so subclasses like [org.simbrain.network.neuron_update_rules.ProductRule] are updated
+         * through the object api.
+         */
+        fun kernelFor(neuron: Neuron): Byte? {
+            val rule = neuron.updateRule
+            return when {
+                !rule.hasArrayKernel() -> null
+                rule is IzhikevichRule && neuron.dataHolder is IzhikevichScalarData -> IZHIKEVICH
+                rule is LinearRule -> LINEAR
+                else -> null
+            }
+        }
+    }
+
+    /**
+     * Compiled neurons, indexed from 0 to n-1.
+     */
+    private val neurons: Array<Neuron>
+
+    /**
+     * Neurons that are not compiled but that are the source of compiled synapses. Indexed from n to n+m-1.
+     */
+    private val externalSources: Array<Neuron>
+
+    /**
+     * The kernel used to update each compiled neuron.
+     */
+    private val kernels: ByteArray
+
+    /**
+     * Activations of compiled neurons followed by activations of external sources.
+     */
+    private val activations: DoubleArray
+
+    /**
+     * CSR row pointers. Synapses feeding compiled neuron i are rowPointers[i] until rowPointers[i+1].
+     */
+    private val rowPointers: IntArray
+
+    /**
+     * CSR column indices: the (activation) index of the source of each compiled synapse.
+     */
+    private val sources: IntArray
+
+    /**
+     * Strengths of compiled synapses.
+     */
+    private val weights: DoubleArray
+
+    /**
+     * Post synaptic responses of compiled synapses, computed in [updateInputs].
+     */
+    private val psrs: DoubleArray
+
+    /**
+     * Compiled synapses, in CSR order.
+     */
+    private val synapses: Array<Synapse>
+
+    /**
+     * Row pointers for synapses feeding compiled neurons that must be updated through the object api.
+     */
+    private val fallbackRowPointers: IntArray
+
+    /**
+     * Synapses that feed compiled neurons but that can't be compiled (spike responders, delays, disabled synapses).
+     */
+    private val fallbackSynapses: Array<Synapse>
+
+    /**
+     * Models updated through the object api.
+     */
+    val uncompiledModels: List<NetworkModel>
+
+    init {
+        val compiled = freeNeurons.filter { kernelFor(it) != null }
+        neurons = compiled.toTypedArray()
+        kernels = ByteArray(neurons.size) { kernelFor(neurons[it])!! }
+
+        val indices = IdentityHashMap<Neuron, Int>()
+        neurons.forEachIndexed { i, neuron -> indices[neuron] = i }
+        val external = ArrayList<Neuron>()
+
+        rowPointers = IntArray(neurons.size + 1)
+        fallbackRowPointers = IntArray(neurons.size + 1)
+        val sourceList = ArrayList<Int>()
+        val synapseList = ArrayList<Synapse>()
+        val fallbackList = ArrayList<Synapse>()
+        neurons.forEachIndexed { i, neuron ->
+            for (synapse in neuron.fanInUnsafe) {
+                if (synapse.isEnabled && synapse.spikeResponder is NonResponder && synapse.delay == 0) {
+                    sourceList.add(indices.getOrPut(synapse.source) {
+                        external.add(synapse.source)
+                        neurons.size + external.size - 1
+                    })
+                    synapseList.add(synapse)
+                } else {
+                    fallbackList.add(synapse)
+                }
+            }
+            rowPointers[i + 1] = synapseList.size
+            fallbackRowPointers[i + 1] = fallbackList.size
+        }
+        externalSources = external.toTypedArray()
+        activations = DoubleArray(neurons.size + externalSources.size)
+        sources = sourceList.toIntArray()
+        synapses = synapseList.toTypedArray()
+        weights = DoubleArray(synapses.size) { synapses[it].strength }
+        psrs = DoubleArray(synapses.size) { synapses[it].psr }
+        fallbackSynapses = fallbackList.toTypedArray()
+        synapses.forEachIndexed { k, synapse -> synapse.attachCompiled(this, k) }
+
+        val compiledSet = Collections.newSetFromMap(IdentityHashMap<NetworkModel, Boolean>())
+        compiledSet.addAll(neurons)
+        uncompiledModels = nonAsyncModels.filter { it !in compiledSet }
+    }
+
+    /**
+     * Number of compiled neurons.
+     */
+    val numNeurons get() = neurons.size
+
+    /**
+     * Number of compiled synapses.
+     */
+    val numSynapses get() = synapses.size
+
+    /**
+     * Compute weighted inputs to all compiled neurons and add them to the neurons' inputs.
+     */
+    fun updateInputs() {
+        for (i in neurons.indices) {
+            activations[i] = neurons[i].activation
+        }
+        for (j in externalSources.indices) {
+            activations[neurons.size + j] = externalSources[j].activation
+        }
+        for (i in neurons.indices) {
+            var sum = 0.0
+            for (k in rowPointers[i] until rowPointers[i + 1]) {
+                val psr = weights[k] * activations[sources[k]]
+                psrs[k] = psr
+                sum += psr
+            }
+            for (k in fallbackRowPointers[i] until fallbackRowPointers[i + 1]) {
+                val synapse = fallbackSynapses[k]
+                synapse.updateOutput()
+                sum += synapse.psr
+            }
+            neurons[i].addInputValue(sum)
+        }
+    }
+
+    /**
+     * Apply each compiled neuron's kernel. Same semantics as [Neuron.update].
+     */
+    fun update() {
+        for (i in neurons.indices) {
+            val neuron = neurons[i]
+            if (neuron.isClamped) {
+                if (neuron.isSpike) {
+                    neuron.isSpike = false
+                }
+                continue
+            }
+            when (kernels[i]) {
+                LINEAR -> updateLinear(neuron)
+                IZHIKEVICH -> updateIzhikevich(i, neuron)
+            }
+            neuron.clearInput()
+        }
+    }
+
+    private fun updateLinear(neuron: Neuron) {
+        if (neuron.isSpike) {
+            neuron.isSpike = false
+        }
+        val rule = neuron.updateRule as LinearRule
+        neuron.activation = rule.linearRule(neuron.input, (neuron.dataHolder as BiasedScalarData).bias)
+    }
+
+    private fun updateIzhikevich(i: Int, neuron: Neuron) {
+        val rule = neuron.updateRule as IzhikevichRule
+        val timeStep = neuron.network.timeStep
+        val activation = activations[i]
+        var inputs = neuron.input + rule.getiBg()
+        if (rule.getAddNoise()) {
+            inputs += rule.getNoiseGenerator().sampleDouble()
+        }
+        val data = neuron.dataHolder as IzhikevichScalarData
+        var u = data.recovery
+        u += timeStep * (rule.a * (rule.b * activation - u))
+        var v = activation + timeStep * (.04 * (activation * activation) + 5 * activation + 140 - u + inputs)
+        val spiked = v >= rule.threshold
+        if (spiked) {
+            v = rule.c
+            u += rule.d
+        }
+        data.recovery = u
+        // Only touch the spike state when it changes or a new spike occurs
+        if (spiked || neuron.isSpike) {
+            neuron.isSpike = spiked
+        }
+        neuron.activation = v
+    }
+
+    /**
+     * Strength of a compiled synapse changed.
+     */
+    fun setWeight(index: Int, strength: Double) {
+        weights[index] = strength
+    }
+
+    /**
+     * Post synaptic response of a compiled synapse.
+     */
+    fun getPsr(index: Int) = psrs[index]
+
+    /**
+     * Set the post synaptic response of a compiled synapse.
+     */
+    fun setPsr(index: Int, psr: Double) {
+        psrs[index] = psr
+    }
+
+    /**
+     * Write compiled state back to the model objects and detach from them. Called when the compiled representation is
+     * invalidated.
+     */
+    fun release() {
+        synapses.forEachIndexed { k, synapse ->
+            synapse.detachCompiled()
+            synapse.psr = psrs[k]
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.simbrain.network.core
+
+/**
+ * Network-level timing wheel for synaptic delays. Delayed post synaptic responses are scheduled for a future tick and
+ * handed back to their [Receiver] when that tick comes due, so memory and work scale with the number of responses in
+ * flight rather than with the number of delayed synapses. Used by [Synapse] and by [org.simbrain.network.matrix.WeightMatrix]
+ * delay matrices.
+ *
+ * The wheel is advanced once per network update by [Network.update], after all update actions have run. Responses
+ * scheduled during tick t with delay d are delivered when the wheel advances to tick t + d, i.e. before the update in
+ * which they are used. Zero responses need not be scheduled.
+ *
+ * The wheel grows to accommodate the largest delay scheduled. Scheduling is synchronized, so that delayed synapses
+ * can be updated from parallel update actions.
+ */
+class DelayWheel {
+
+    /**
+     * Receives delayed responses when they come due.
+     */
+    fun interface Receiver {
+        /**
+         * Called when a delayed response comes due.
+         *
+         * @param index the index passed to [schedule], e.g. a row of a weight matrix
+         * @param value the response
+         * @param tick the current tick of the wheel
+         */
+        fun receiveDelayed(index: Int, value: Double, tick: Long)
+    }
+
+    /**
+     * Current tick. Incremented by [advance].
+     */
+    var tick = 0L
+        private set
+
+    private var slots = Array(16) { Slot() }
+
+    private var mask = slots.size - 1
+
+    /**
+     * Total number of responses in flight.
+     */
+    var size = 0
+        private set
+
+    /**
+     * Schedule a response to be delivered after delay ticks.
+     */
+    @Synchronized
+    fun schedule(receiver: Receiver, index: Int, value: Double, delay: Int) {
+        require(delay > 0) { "Delay must be positive" }
+        if (delay >= slots.size) {
+            grow(delay)
+        }
+        slots[((tick + delay) and mask.toLong()).toInt()].add(receiver, index, value)
+        size++
+    }
+
+    /**
+     * Advance one tick and deliver responses that are due.
+     */
+    @Synchronized
+    fun advance() {
+        tick++
+        val slot = slots[(tick and mask.toLong()).toInt()]
+        for (k in 0 until slot.size) {
+            slot.receivers[k]!!.receiveDelayed(slot.indices[k], slot.values[k], tick)
+        }
+        size -= slot.size
+        slot.clear()
+    }
+
+    /**
+     * Remove all responses in flight to a receiver.
+     */
+    @Synchronized
+    fun cancel(receiver: Receiver) {
+        if (size == 0) {
+            return
+        }
+        for (slot in slots) {
+            size -= slot.removeAll(receiver)
+        }
+    }
+
+    /**
+     * Grow the wheel so that it has more slots than the delay, re-filing responses in flight.
+     */
+    private fun grow(delay: Int) {
+        val oldSlots = slots
+        val oldMask = mask
+        slots = Array(Integer.highestOneBit(delay) shl 1) { Slot() }
+        mask = slots.size - 1
+        for ((s, slot) in oldSlots.withIndex()) {
+            val due = tick + ((s - tick) and oldMask.toLong())
+            val newSlot = slots[(due and mask.toLong()).toInt()]
+            for (k in 0 until slot.size) {
+                newSlot.add(slot.receivers[k]!!, slot.indices[k], slot.values[k])
+            }
+        }
+    }
+
+    /**
+     * Responses due at one tick, in parallel growable arrays.
+     */
+    private class Slot {
+        var receivers = arrayOfNulls<Receiver>(4)
+        var indices = IntArray(4)
+        var values = DoubleArray(4)
+        var size = 0
+
+        fun add(receiver: Receiver, index: Int, value: Double) {
+            if (size == values.size) {
+                receivers = receivers.copyOf(size * 2)
+                indices = indices.copyOf(size * 2)
+                values = values.copyOf(size * 2)
+            }
+            receivers[size] = receiver
+            indices[size] = index
+            values[size] = value
+            size++
+        }
+
+        fun clear() {
+            receivers.fill(null, 0, size)
+            size = 0
+        }
+
+        /**
+         * Remove all entries for a receiver and return the number removed.
+         */
+        fun removeAll(receiver: Receiver): Int {
+            var kept = 0
+            for (k in 0 until size) {
+                if (receivers[k] !== receiver) {
+                    receivers[kept] = receivers[k]
+                    indices[kept] = indices[k]
+                    values[kept] = values[k]
+                    kept++
+                }
+            }
+            receivers.fill(null, kept, size)
+            val removed = size - kept
+            size = kept
+            return removed
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.simbrain.network.groups.SynapseGroup
 import org.simbrain.network.matrix.NeuronArray
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.neuron_update_rules.LinearRule
+import org.simbrain.network.neuron_update_rules.interfaces.NoisyUpdateRule
 import org.simbrain.util.*
 import org.simbrain.util.math.SimbrainMath
 import org.simbrain.util.stats.ProbabilityDistribution
@@ -24,6 +25,7 @@ import org.simbrain.workspace.updater.PerformanceMonitor
 import org.simbrain.workspace.updater.UpdateAction
 import java.awt.geom.Point2D
 import java.util.concurrent.atomic.AtomicBoolean
+import java.util.stream.IntStream
 import kotlin.math.abs
 import kotlin.math.ceil
 import kotlin.math.ln
@@ -179,6 +181,61 @@ class Network {
      */
     var oneOffRun = false
 
+    /**
+     * Structure-of-arrays representation of free neurons and synapses used by [compiledBufferedUpdate]. Created
+     * lazily and discarded whenever the structure of the network changes.
+     */
+    @Transient
+    private var compiledModels: CompiledNetwork? = null
+
+    /**
+     * Incremented whenever models are added to or removed from the network, or neurons to or from its groups, so that
+     * cached lists of models can be invalidated. See [structureChanged].
+     */
+    @Transient
+    var structureVersion = 0L
+        private set
+
+    /**
+     * Incremented whenever synapses change in a way that could change how neurons are coupled: synapses added or
+     * removed, their strengths changed, or anything else that invalidates the compiled representation. Lets models
+     * cache an analysis of their coupling (see [org.simbrain.network.neurongroups.KuramotoGroup]).
+     */
+    @Transient
+    var couplingVersion = 0L
+        private set
+
+    /**
+     * Incremented whenever the label of a model of this network changes, so that indexes of models by label can tell
+     * when they are out of date. See [labelChanged].
+     */
+    @Transient
+    var labelVersion = 0L
+        private set
+
+    /**
+     * Flat neurons by lower case label, for [getNeuronByLabel], and the [structureVersion] and [labelVersion] it was
+     * built at.
+     */
+    @Transient
+    private var neuronLabelIndex: HashMap<String, Neuron>? = null
+
+    @Transient
+    private var neuronLabelIndexVersions: Pair<Long, Long>? = null
+
+    /**
+     * Models queued by [addNetworkModel] while a [bulkAdd] runs, or null outside of one.
+     */
+    @Transient
+    private var pendingModels: ArrayList<NetworkModel>? = null
+
+    /**
+     * Delivers delayed post synaptic responses. Responses in flight are not saved with the network.
+     */
+    @Transient
+    private var _delayWheel: DelayWheel? = null
+    val delayWheel: DelayWheel get() = _delayWheel ?: DelayWheel().also { _delayWheel = it }
+
     /**
      * Initialize the network.
      */
@@ -222,6 +279,7 @@ class Network {
             }
         }
 
+        _delayWheel?.advance()
         updateTime()
         events.fireUpdateTimeDisplay(false)
         iterCount++
@@ -296,6 +354,127 @@ class Network {
         networkModels.getNonAsyncModels().forEach { it.update() }
     }
 
+    /**
+     * Same as [asyncBufferedUpdate] but free neurons and synapses that can be are updated using a [CompiledNetwork].
+     * Called by [org.simbrain.network.update_actions.CompiledUpdate].
+     */
+    suspend fun compiledBufferedUpdate() = coroutineScope {
+        val compiled = compiledModels
+            ?: CompiledNetwork(networkModels.get<Neuron>(), networkModels.getNonAsyncModels())
+                .also { compiledModels = it }
+        networkModels.getAsyncModels().map { async { it.updateInputs() } }.awaitAll()
+        compiled.updateInputs()
+        compiled.uncompiledModels.forEach { it.updateInputs() }
+        networkModels.getAsyncModels().map { async { it.update() } }.awaitAll()
+        compiled.update()
+        compiled.uncompiledModels.forEach { it.update() }
+    }
+
+    /**
+     * Same as [asyncBufferedUpdate] but the inputs of the provided free neurons are computed in parallel, in chunks of
+     * [chunkSize] on the common fork-join pool. Neurons are then updated in list order, except that each run of
+     * consecutive neurons whose rule only touches the neuron's own state (see [updatesInParallel]) is updated in
+     * parallel, with listeners notified on the calling thread once the run is done. Other neurons, including those
+     * whose rule reads other neurons or keeps state in the (shared) rule, and all synapses, are updated on the calling
+     * thread, so the result is the same as a buffered update whatever the
+     * number of threads. Called by [org.simbrain.network.update_actions.ConcurrentBufferedUpdate].
+     */
+    suspend fun concurrentBufferedUpdate(neurons: Array<Neuron>, synapses: Array<Synapse>, chunkSize: Int) =
+        coroutineScope {
+            val otherModels = networkModels.getNonAsyncModels().filter { it !is Neuron && it !is Synapse }
+            networkModels.getAsyncModels().map { async { it.updateInputs() } }.awaitAll()
+            forEachInChunks(0, neurons.size, chunkSize) { neurons[it].updateInputs() }
+            otherModels.forEach { it.updateInputs() }
+            networkModels.getAsyncModels().map { async { it.update() } }.awaitAll()
+            var start = 0
+            while (start < neurons.size) {
+                var end = start
+                while (end < neurons.size && neurons[end].updatesInParallel()) {
+                    end++
+                }
+                if (end - start > chunkSize) {
+                    forEachInChunks(start, end, chunkSize) { neurons[it].updateDeferringEvents() }
+                    for (i in start until end) {
+                        neurons[i].fireDeferredEvents()
+                    }
+                } else {
+                    for (i in start until end) {
+                        neurons[i].update()
+                    }
+                }
+                if (end < neurons.size) {
+                    neurons[end].update()
+                }
+                start = end + 1
+            }
+            synapses.forEach { it.update() }
+            otherModels.forEach { it.update() }
+        }
+
+    /**
+     * True if the neuron's new state depends only on its own input, activation and data, so that it can be updated
+     * on any thread, in any order: the rule opts in with [NeuronUpdateRule.updatesNeuronsIndependently] and does not
+     * draw noise from a shared generator.
+     */
+    private fun Neuron.updatesInParallel(): Boolean {
+        val rule = updateRule
+        return rule.updatesNeuronsIndependently() && !(rule is NoisyUpdateRule && rule.addNoise)
+    }
+
+    /**
+     * Apply an action to the indices from until to in parallel, in contiguous chunks of chunkSize indices.
+     */
+    private inline fun forEachInChunks(from: Int, to: Int, chunkSize: Int, crossinline action: (Int) -> Unit) {
+        val numChunks = (to - from + chunkSize - 1) / chunkSize
+        IntStream.range(0, numChunks).parallel().forEach { chunk ->
+            val end = minOf(to, from + (chunk + 1) * chunkSize)
+            for (i in from + chunk * chunkSize until end) {
+                action(i)
+            }
+        }
+    }
+
+    /**
+     * Record a change to the structure of the network: models added or removed, or neurons added to or removed from a
+     * group. Cached lists of models compare [structureVersion] to notice these.
+     */
+    fun structureChanged() {
+        structureVersion++
+        invalidateCompiledModels()
+    }
+
+    /**
+     * Release the compiled representation of free neurons and synapses, if any. Called when models are added or
+     * removed, or when synapses or neurons change in a way that affects how they are compiled. Scripts that change
+     * update rule parameters directly do not need to call this, since kernels read parameters from the rules.
+     */
+    fun invalidateCompiledModels() {
+        couplingVersion++
+        compiledModels?.release()
+        compiledModels = null
+    }
+
+    /**
+     * Record a change to the strength of a synapse. See [couplingVersion].
+     */
+    fun strengthChanged() {
+        couplingVersion++
+    }
+
+    /**
+     * Record a change to the label of a model. See [labelVersion].
+     */
+    fun labelChanged() {
+        labelVersion++
+    }
+
+    /**
+     * Record a change to the id of a model, so that [getFreeNeuron] and similar lookups find it by its new id.
+     */
+    fun idChanged(model: NetworkModel, oldId: String?) {
+        networkModels.idChanged(model, oldId)
+    }
+
     /**
      * Set the activation level of all neurons to zero.
      */
@@ -309,9 +488,7 @@ class Network {
      * @param id id to search for.
      * @return neuron with that id, null otherwise
      */
-    fun getFreeNeuron(id: String?): Neuron? = networkModels.get<Neuron>().firstOrNull {
-        it.id.equals(id, ignoreCase = true)
-    }
+    fun getFreeNeuron(id: String?): Neuron? = networkModels.getById(Neuron::class.java, id)
 
     /**
      * Find a synapse with a given string id.
@@ -319,9 +496,7 @@ class Network {
      * @param id id to search for.
      * @return synapse with that id, null otherwise
      */
-    fun getFreeSynapse(id: String?): Synapse? = networkModels.get<Synapse>().firstOrNull {
-        it.id.equals(id, ignoreCase = true)
-    }
+    fun getFreeSynapse(id: String?): Synapse? = networkModels.getById(Synapse::class.java, id)
 
     /**
      * Create "flat" list of neurons, which includes the top-level neurons plus all group neurons.
@@ -382,20 +557,80 @@ class Network {
 
     /**
      * Add a new [NetworkModel]. All network models MUST be added using this method.
+     *
+     * Inside [bulkAdd] the model is queued and only added (and given an id) when the outermost bulk add finishes.
      */
     fun addNetworkModel(model: NetworkModel) {
+        val pending = pendingModels
+        if (pending != null) {
+            pending.add(model)
+            return
+        }
         if (model.shouldAdd()) {
-            model.id = idManager.getAndIncrementId(model.javaClass)
-            networkModels.add(model)
-            model.events.onDeleted{
-                networkModels.remove(it)
-                events.fireModelRemoved(it)
-            }
+            insert(model)
+            structureChanged()
             events.fireModelAdded(model)
             if (model is Neuron) updatePriorityList()
         }
     }
 
+    /**
+     * Assign an id to a model, put it in [networkModels] and remove it from there when it is deleted.
+     */
+    private fun insert(model: NetworkModel) {
+        model.id = idManager.getAndIncrementId(model.javaClass)
+        networkModels.add(model)
+        // Neurons and synapses report their deletion directly, so that their events are only created when needed
+        if (model !is Neuron && model !is Synapse) {
+            model.events.onDeleted { modelDeleted(it) }
+        }
+    }
+
+    /**
+     * Remove a deleted model from the network. Called by [Neuron.delete] and [Synapse.delete], and for other models
+     * when they fire their deleted event.
+     */
+    fun modelDeleted(model: NetworkModel) {
+        if (networkModels.remove(model)) {
+            structureChanged()
+            events.fireModelRemoved(model)
+        }
+    }
+
+    /**
+     * Add many models at once. Models added with [addNetworkModel] or [addNetworkModels] while the block runs are
+     * queued, and when it finishes they are given ids and added in order, the neuron priority list is rebuilt once,
+     * and a single [NetworkEvents.fireModelsAdded] event is fired instead of one event per model. Calls may be
+     * nested, in which case everything is added when the outermost call finishes. Queued models do not have ids until
+     * then.
+     */
+    fun <T> bulkAdd(block: () -> T): T {
+        if (pendingModels != null) {
+            return block()
+        }
+        val pending = ArrayList<NetworkModel>()
+        pendingModels = pending
+        val result = try {
+            block()
+        } finally {
+            pendingModels = null
+        }
+        val added = ArrayList<NetworkModel>(pending.size)
+        for (model in pending) {
+            // Checked one at a time, since e.g. a neuron collection should not be added twice in one batch
+            if (model.shouldAdd()) {
+                insert(model)
+                added.add(model)
+            }
+        }
+        if (added.isNotEmpty()) {
+            structureChanged()
+            events.fireModelsAdded(added)
+            if (added.any { it is Neuron }) updatePriorityList()
+        }
+        return result
+    }
+
     /**
      * Create a [NeuronCollection] from a provided list of neurons
      */
@@ -432,14 +667,22 @@ class Network {
         }
     }
 
+    /**
+     * Returns a deep copy of this network. The network is copied directly by [NetworkCopier] when possible, and
+     * otherwise by way of its xml rep.
+     *
+     * @return the copied network.
+     */
+    fun copy(): Network = NetworkCopier.copy(this) ?: xmlCopy()
+
     /**
      * Returns a copy of this network based on its xml rep.
      *
      * @return the copied network.
      */
-    fun copy(): Network {
-        val xmlRepresentation = getNetworkXStream().toXML(this)
-        return getNetworkXStream().fromXML(xmlRepresentation) as Network
+    fun xmlCopy(): Network {
+        val xstream = getNetworkXStream()
+        return xstream.fromXML(xstream.toXML(this)) as Network
     }
 
     /**
@@ -543,8 +786,13 @@ class Network {
      * @param label label of neuron to search for
      * @return matched Neuron, if any
      */
-    fun getNeuronByLabel(label: String): Neuron? = flatNeuronList.firstOrNull {
-        it.label.equals(label, ignoreCase = true)
+    fun getNeuronByLabel(label: String): Neuron? {
+        val index = neuronLabelIndex.takeIf { neuronLabelIndexVersions == (structureVersion to labelVersion) } ?: HashMap<String, Neuron>().also { index ->
+            flatNeuronList.forEach { n -> n.label?.let { index.putIfAbsent(it.lowercase(), n) } }
+            neuronLabelIndex = index
+            neuronLabelIndexVersions = structureVersion to labelVersion
+        }
+        return index[label.lowercase()]
     }
 
     /**
@@ -554,9 +802,11 @@ class Network {
      * @param label label of NeuronGroup to search for
      * @return matched NeuronGroup, if any
      */
-    fun getNeuronGroupByLabel(label: String): NeuronGroup? = flatNeuronGroupList.firstOrNull {
-        it.label.equals(label, ignoreCase = true)
-    }
+    fun getNeuronGroupByLabel(label: String): NeuronGroup? =
+        networkModels.getByLabel(NeuronGroup::class.java, label, labelVersion)
+            ?: networkModels.get<Subnetwork>().firstNotNullOfOrNull {
+                it.modelList.getByLabel(NeuronGroup::class.java, label, labelVersion)
+            }
 
     /**
      * Forward to [NetworkUpdateManager.addAction]
@@ -573,12 +823,12 @@ class Network {
     }
 
     /**
-     * Adds a list of network elements to this network. Used in copy / paste.
+     * Adds a list of network elements to this network, as one [bulkAdd]. Used in copy / paste.
      *
      * @param toAdd list of objects to add.
      */
     fun addNetworkModels(toAdd: List<NetworkModel>) {
-        toAdd.forEach { addNetworkModel(it) }
+        bulkAdd { toAdd.forEach { addNetworkModel(it) } }
     }
 
     /**
@@ -587,7 +837,7 @@ class Network {
      * Ex: addNetworkModels(synapse1, synapse2, neuron1, neuron2, ...)
      */
     fun addNetworkModels(vararg toAdd: NetworkModel) {
-        toAdd.forEach { addNetworkModel(it) }
+        bulkAdd { toAdd.forEach { addNetworkModel(it) } }
     }
 
     /**
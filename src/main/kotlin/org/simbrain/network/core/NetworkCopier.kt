@@ -0,0 +1,211 @@
+package org.simbrain.network.core
+
+import com.thoughtworks.xstream.XStream
+import com.thoughtworks.xstream.converters.Converter
+import com.thoughtworks.xstream.converters.SingleValueConverter
+import com.thoughtworks.xstream.converters.collections.CollectionConverter
+import com.thoughtworks.xstream.converters.collections.MapConverter
+import com.thoughtworks.xstream.converters.enums.EnumConverter
+import com.thoughtworks.xstream.converters.extended.ColorConverter
+import com.thoughtworks.xstream.converters.extended.FontConverter
+import com.thoughtworks.xstream.converters.reflection.ReflectionConverter
+import com.thoughtworks.xstream.converters.reflection.SerializableConverter
+import org.simbrain.network.NetworkModel
+import org.simbrain.network.matrix.WeightMatrix
+import smile.math.matrix.Matrix
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.Serializable
+import java.lang.reflect.Method
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Deep copies a [Network] object by object, with the same result as writing it to xml with [getNetworkXStream] and
+ * reading it back, but without producing and parsing the text.
+ *
+ * The copy follows the xml path's rules: it copies the fields xstream would write (so transient fields are left
+ * unset), copies collections and maps element by element, calls readResolve where xstream would (which is where the
+ * copied network runs postOpenInit on its models), and uses an identity map so shared and cyclic references are
+ * preserved. Objects that need a converter this class does not mirror stop the copy, and [copy] returns null so the
+ * caller can use the xml path instead.
+ *
+ * Weight matrix weights are not copied. The copy shares them with the original until either changes them; see
+ * [WeightMatrix.shareWeights].
+ */
+class NetworkCopier private constructor() {
+
+    /**
+     * Original objects to their copies.
+     */
+    private val copies = IdentityHashMap<Any, Any?>()
+
+    /**
+     * Thrown when an object can only be copied using the xml path.
+     */
+    private class UnsupportedCopyException(type: Class<*>) : RuntimeException(type.name)
+
+    private fun copyObject(original: Any?): Any? {
+        if (original == null) {
+            return null
+        }
+        if (copies.containsKey(original)) {
+            return copies[original]
+        }
+        val type = original.javaClass
+        return when {
+            original is String || original is Number && type.name.startsWith("java.lang.") ||
+                    original is Boolean || original is Char || original is Enum<*> || original is Class<*> -> original
+            type.isSynthetic && type.name.contains("\$\$Lambda") -> {
+                // Xstream only keeps serializable lambdas
+                if (original is Serializable) throw UnsupportedCopyException(type) else null
+            }
+            type.isArray -> copyArray(original)
+            original is Matrix -> original.clone().also { copies[original] = it }
+            original is AtomicBoolean -> AtomicBoolean(original.get()).also { copies[original] = it }
+            original is AtomicInteger -> AtomicInteger(original.get()).also { copies[original] = it }
+            original is AtomicLong -> AtomicLong(original.get()).also { copies[original] = it }
+            original is NetworkModelList -> copyModelList(original)
+            else -> copyByConverter(original, converterFor(type))
+        }
+    }
+
+    private fun copyArray(original: Any): Any {
+        val copy = when (original) {
+            is DoubleArray -> original.copyOf()
+            is IntArray -> original.copyOf()
+            is BooleanArray -> original.copyOf()
+            is FloatArray -> original.copyOf()
+            is LongArray -> original.copyOf()
+            is ByteArray -> original.copyOf()
+            is ShortArray -> original.copyOf()
+            is CharArray -> original.copyOf()
+            else -> {
+                val length = java.lang.reflect.Array.getLength(original)
+                val array = java.lang.reflect.Array.newInstance(original.javaClass.componentType, length)
+                copies[original] = array
+                for (i in 0 until length) {
+                    java.lang.reflect.Array.set(array, i, copyObject(java.lang.reflect.Array.get(original, i)))
+                }
+                array
+            }
+        }
+        copies[original] = copy
+        return copy
+    }
+
+    /**
+     * Mirrors [NetworkModelListConverter], which writes models in reconstruction order and puts them back with
+     * [NetworkModelList.putUnsafe].
+     */
+    private fun copyModelList(original: NetworkModelList): NetworkModelList {
+        val copy = NetworkModelList()
+        copies[original] = copy
+        for (model in original.allInReconstructionOrder) {
+            copy.putUnsafe(model.javaClass, copyObject(model) as NetworkModel)
+        }
+        return copy
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun copyByConverter(original: Any, converter: Converter): Any? {
+        val type = original.javaClass
+        return when {
+            converter is EnumConverter || converter is ColorConverter || converter is FontConverter -> original
+            converter is SingleValueConverter -> converter.fromString(converter.toString(original))
+                .also { copies[original] = it }
+            converter.javaClass == CollectionConverter::class.java -> {
+                val copy = type.getDeclaredConstructor().newInstance() as MutableCollection<Any?>
+                copies[original] = copy
+                (original as Collection<*>).forEach { copy.add(copyObject(it)) }
+                copy
+            }
+            converter.javaClass == MapConverter::class.java -> {
+                val copy = type.getDeclaredConstructor().newInstance() as MutableMap<Any?, Any?>
+                copies[original] = copy
+                (original as Map<*, *>).forEach { (key, value) -> copy[copyObject(key)] = copyObject(value) }
+                copy
+            }
+            converter is SerializableConverter && original is Serializable -> serializationCopy(original)
+            converter.javaClass == ReflectionConverter::class.java -> copyFields(original)
+            else -> throw UnsupportedCopyException(type)
+        }
+    }
+
+    /**
+     * Copy the serializable fields of an object into a new instance created without a constructor, as xstream does,
+     * then call readResolve.
+     */
+    private fun copyFields(original: Any): Any? {
+        val copy = reflectionProvider.newInstance(original.javaClass)
+        copies[original] = copy
+        var sharedWeights = false
+        reflectionProvider.visitSerializableFields(original) { name, _, definedIn, value ->
+            if (mapper.shouldSerializeMember(definedIn, name)) {
+                if (original is WeightMatrix && definedIn == WeightMatrix::class.java && name == "weightMatrix") {
+                    sharedWeights = true
+                } else {
+                    reflectionProvider.writeField(copy, name, copyObject(value), definedIn)
+                }
+            }
+        }
+        if (sharedWeights) {
+            (copy as WeightMatrix).shareWeights(original as WeightMatrix)
+        }
+        val resolved = readResolveMethod(original.javaClass)?.invoke(copy) ?: copy
+        copies[original] = resolved
+        return resolved
+    }
+
+    private fun serializationCopy(original: Serializable): Any {
+        val bytes = ByteArrayOutputStream()
+        ObjectOutputStream(bytes).use { it.writeObject(original) }
+        return ObjectInputStream(ByteArrayInputStream(bytes.toByteArray())).use { it.readObject() }
+            .also { copies[original] = it }
+    }
+
+    companion object {
+
+        /**
+         * Only used to look up converters and fields, so one instance is shared by all copies.
+         */
+        private val xstream: XStream by lazy { getNetworkXStream() }
+
+        private val reflectionProvider get() = xstream.reflectionProvider
+
+        private val mapper get() = xstream.mapper
+
+        private val converters = ConcurrentHashMap<Class<*>, Converter>()
+
+        private val readResolveMethods = ConcurrentHashMap<Class<*>, Optional<Method>>()
+
+        private fun converterFor(type: Class<*>) =
+            converters.getOrPut(type) { xstream.converterLookup.lookupConverterForType(type) }
+
+        /**
+         * The readResolve method xstream would call on an instance of a type, if any.
+         */
+        private fun readResolveMethod(type: Class<*>): Method? = readResolveMethods.getOrPut(type) {
+            generateSequence(type) { it.superclass }
+                .mapNotNull { cls -> cls.declaredMethods.firstOrNull { it.name == "readResolve" && it.parameterCount == 0 } }
+                .firstOrNull()
+                ?.also { it.isAccessible = true }
+                .let { Optional.ofNullable(it) }
+        }.orElse(null)
+
+        /**
+         * Returns a deep copy of a network, or null if it contains objects that must be copied using xml.
+         */
+        @JvmStatic
+        fun copy(network: Network): Network? = try {
+            NetworkCopier().copyObject(network) as Network
+        } catch (e: UnsupportedCopyException) {
+            null
+        }
+    }
+}
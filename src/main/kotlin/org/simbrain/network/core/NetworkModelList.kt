@@ -26,20 +26,35 @@ class NetworkModelList {
 
     private val shouldAsync: HashMap<Boolean, LinkedHashSet<NetworkModel>> = HashMap()
 
-    @Suppress("UNCHECKED_CAST")
+    /**
+     * For each model type, the first model with each (lower case) id. Created on first lookup, kept up to date as
+     * models are added or change id (see [idChanged]), and discarded when a model of that type is removed.
+     */
+    private val idIndex = HashMap<Class<*>, HashMap<String, NetworkModel>>()
+
+    /**
+     * Like [idIndex] but for labels. Also discarded when any label in the network changes; see
+     * [Network.labelVersion].
+     */
+    private val labelIndex = HashMap<Class<*>, HashMap<String, NetworkModel>>()
+
+    /**
+     * Value of [Network.labelVersion] when [labelIndex] was last valid.
+     */
+    private var labelIndexVersion = -1L
+
+    /**
+     * Cached [all], discarded when models are added or removed.
+     */
+    private var allCache: List<NetworkModel>? = null
+
+    /**
+     * Cached [allInReconstructionOrder], discarded when models are added or removed.
+     */
+    private var reconstructionOrderCache: List<NetworkModel>? = null
+
     fun <T : NetworkModel> put(modelClass: Class<T>, model: T) {
-        if (modelClass in networkModels) {
-            networkModels[modelClass]!!.add(model)
-        } else {
-            val newSet = LinkedHashSet<T>()
-            newSet.add(model)
-            networkModels[modelClass] = newSet as LinkedHashSet<NetworkModel>
-        }
-        if (model is ArrayLayer || model is AbstractNeuronCollection) {
-            shouldAsync.getOrPut(true) { LinkedHashSet() }
-        } else {
-            shouldAsync.getOrPut(false) { LinkedHashSet() }
-        }.add(model)
+        putUnsafe(modelClass, model)
     }
 
     /**
@@ -47,18 +62,19 @@ class NetworkModelList {
      * use with caution.
      */
     fun putUnsafe(modelClass: Class<out NetworkModel>, model: NetworkModel) {
-        if (modelClass in networkModels) {
-            networkModels[modelClass]!!.add(model)
-        } else {
-            val newSet = LinkedHashSet<NetworkModel>()
-            newSet.add(model)
-            networkModels[modelClass] = newSet
+        if (!networkModels.getOrPut(modelClass) { LinkedHashSet() }!!.add(model)) {
+            return
         }
         if (model is ArrayLayer || model is AbstractNeuronCollection) {
             shouldAsync.getOrPut(true) { LinkedHashSet() }
         } else {
             shouldAsync.getOrPut(false) { LinkedHashSet() }
         }.add(model)
+        allCache = null
+        reconstructionOrderCache = null
+        model.id?.let { idIndex[modelClass]?.putIfAbsent(it.lowercase(), model) }
+        // If the label index is out of date this is harmless, since it is cleared on the next lookup
+        model.label?.let { labelIndex[modelClass]?.putIfAbsent(it.lowercase(), model) }
     }
 
     /**
@@ -106,25 +122,89 @@ class NetworkModelList {
         }
     }
 
+    /**
+     * Returns the model of a given type with a given id, ignoring case, or null if there is none.
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun <T : NetworkModel> getById(modelClass: Class<T>, id: String?): T? {
+        if (id == null) {
+            return null
+        }
+        return idIndex.getOrPut(modelClass) { buildIndex(modelClass) { it.id } }[id.lowercase()] as T?
+    }
+
+    /**
+     * Update [idIndex] after the id of a model changed from oldId. Does nothing if the model is not in this list.
+     */
+    fun idChanged(model: NetworkModel, oldId: String?) {
+        val modelClass = modelClassOf(model)
+        val index = idIndex[modelClass] ?: return
+        if (networkModels[modelClass]?.contains(model) != true) {
+            return
+        }
+        if (oldId != null && index[oldId.lowercase()] === model) {
+            // Another model may also have the old id, so the index is rebuilt on the next lookup
+            idIndex.remove(modelClass)
+        } else {
+            model.id?.let { index.putIfAbsent(it.lowercase(), model) }
+        }
+    }
+
+    /**
+     * Returns the first model of a given type with a given label, ignoring case, or null if there is none.
+     * labelVersion is the current [Network.labelVersion] of the network the models belong to.
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun <T : NetworkModel> getByLabel(modelClass: Class<T>, label: String, labelVersion: Long): T? {
+        if (labelIndexVersion != labelVersion) {
+            labelIndex.clear()
+            labelIndexVersion = labelVersion
+        }
+        return labelIndex.getOrPut(modelClass) { buildIndex(modelClass) { it.label } }[label.lowercase()] as T?
+    }
+
+    private fun buildIndex(modelClass: Class<*>, key: (NetworkModel) -> String?): HashMap<String, NetworkModel> {
+        val index = HashMap<String, NetworkModel>()
+        networkModels[modelClass]?.forEach { model -> key(model)?.let { index.putIfAbsent(it.lowercase(), model) } }
+        return index
+    }
+
+    /**
+     * All models as one list. Cached until models are added or removed, so it does not allocate on each access.
+     */
     val all: List<NetworkModel>
-        get() = networkModels.values.flatMap { it?.map { item -> item } ?: listOf() }
+        get() = allCache ?: networkModels.values.flatMap { it?.map { item -> item } ?: listOf() }.also { allCache = it }
 
     /**
      * Returns a list of network models in the order required for proper reconstruction of all network models.
      * For example, neurons must be recreated before synapses since the synapses refer to neurons.
      */
     val allInReconstructionOrder: List<NetworkModel>
-        get() = all.sortedBy { reconstructionOrder(it) }
+        get() = reconstructionOrderCache ?: all.sortedBy { reconstructionOrder(it) }.also {
+            reconstructionOrderCache = it
+        }
 
-    fun remove(model: NetworkModel) {
-        if (model is Subnetwork) {
-            // Forces all subclasses of subnetwork to be grouped with the subnetwork class
-            networkModels[Subnetwork::class.java]?.remove(model)
-        } else {
-            networkModels[model.javaClass]?.remove(model)
+    /**
+     * Remove a model. Returns true if it was in the list.
+     */
+    fun remove(model: NetworkModel): Boolean {
+        val modelClass = modelClassOf(model)
+        val removed = networkModels[modelClass]?.remove(model) == true
+        if (removed) {
+            allCache = null
+            reconstructionOrderCache = null
+            idIndex.remove(modelClass)
+            labelIndex.remove(modelClass)
         }
+        shouldAsync.values.forEach { it.remove(model) }
+        return removed
     }
 
+    /**
+     * The class a model is filed under. Subclasses of subnetwork are grouped with the subnetwork class.
+     */
+    private fun modelClassOf(model: NetworkModel) = if (model is Subnetwork) Subnetwork::class.java else model.javaClass
+
     fun getAsyncModels() = shouldAsync[true] ?: LinkedHashSet()
     fun getNonAsyncModels() = shouldAsync[false] ?: LinkedHashSet()
 
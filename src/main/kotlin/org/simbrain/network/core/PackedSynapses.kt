@@ -0,0 +1,154 @@
+package org.simbrain.network.core
+
+import java.util.*
+
+/**
+ * Strengths of the synapses of a compact [SynapseGroup2], packed into primitive arrays. Rows correspond to target
+ * neurons and columns to source neurons. Dense projections are stored as a full row-major array; sparse ones in
+ * compressed sparse row (CSR) form. The format is chosen by density when packing.
+ *
+ * @param rows number of target neurons
+ * @param cols number of source neurons
+ */
+class PackedSynapses private constructor(val rows: Int, val cols: Int) {
+
+    /**
+     * CSR row pointers, or null if dense. Entries of row i are rowPointers[i] until rowPointers[i+1].
+     */
+    private var rowPointers: IntArray? = null
+
+    /**
+     * CSR column index of each entry, or null if dense.
+     */
+    private var columnIndices: IntArray? = null
+
+    /**
+     * Strengths: row-major rows x cols array if dense, otherwise one per CSR entry.
+     */
+    var values = DoubleArray(0)
+        private set
+
+    /**
+     * For dense storage with missing connections, whether each entry is a synapse. Null if every entry is.
+     */
+    private var present: BooleanArray? = null
+
+    val isDense get() = rowPointers == null
+
+    /**
+     * Number of synapses. Counted when packing.
+     */
+    var size = 0
+        private set
+
+    /**
+     * Add the weighted inputs to each target, given the activations of the sources.
+     */
+    fun addWeightedInputs(sourceActivations: DoubleArray, targetInputs: DoubleArray) {
+        val rowPointers = rowPointers
+        if (rowPointers == null) {
+            for (i in 0 until rows) {
+                val offset = i * cols
+                var sum = 0.0
+                for (j in 0 until cols) {
+                    sum += values[offset + j] * sourceActivations[j]
+                }
+                targetInputs[i] += sum
+            }
+        } else {
+            val columnIndices = columnIndices!!
+            for (i in 0 until rows) {
+                var sum = 0.0
+                for (k in rowPointers[i] until rowPointers[i + 1]) {
+                    sum += values[k] * sourceActivations[columnIndices[k]]
+                }
+                targetInputs[i] += sum
+            }
+        }
+    }
+
+    /**
+     * Calls the action with the row, column and index into [values] of each synapse.
+     */
+    fun forEachEntry(action: (row: Int, col: Int, index: Int) -> Unit) {
+        val rowPointers = rowPointers
+        if (rowPointers == null) {
+            val present = present
+            for (i in 0 until rows) {
+                for (j in 0 until cols) {
+                    val index = i * cols + j
+                    if (present == null || present[index]) {
+                        action(i, j, index)
+                    }
+                }
+            }
+        } else {
+            val columnIndices = columnIndices!!
+            for (i in 0 until rows) {
+                for (k in rowPointers[i] until rowPointers[i + 1]) {
+                    action(i, columnIndices[k], k)
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the strengths as a source x target array, zero where there is no synapse, as in
+     * [org.simbrain.network.util.SimnetUtils.getWeights].
+     */
+    fun toSourceTargetArray(): Array<DoubleArray> {
+        val result = Array(cols) { DoubleArray(rows) }
+        forEachEntry { i, j, k -> result[j][i] = values[k] }
+        return result
+    }
+
+    companion object {
+
+        /**
+         * Projections with at least this fraction of possible connections are stored densely.
+         */
+        const val DENSE_THRESHOLD = 0.5
+
+        /**
+         * Pack the strengths of synapses connecting source neurons to target neurons.
+         */
+        @JvmStatic
+        fun pack(sources: List<Neuron>, targets: List<Neuron>, synapses: List<Synapse>): PackedSynapses {
+            val sourceIndices = IdentityHashMap<Neuron, Int>()
+            sources.forEachIndexed { j, n -> sourceIndices[n] = j }
+            val targetIndices = IdentityHashMap<Neuron, Int>()
+            targets.forEachIndexed { i, n -> targetIndices[n] = i }
+            val packed = PackedSynapses(targets.size, sources.size)
+            val possible = targets.size.toLong() * sources.size
+            if (possible > 0 && synapses.size >= DENSE_THRESHOLD * possible) {
+                packed.values = DoubleArray(targets.size * sources.size)
+                val present = BooleanArray(packed.values.size)
+                for (s in synapses) {
+                    val index = targetIndices[s.target]!! * sources.size + sourceIndices[s.source]!!
+                    packed.values[index] = s.strength
+                    present[index] = true
+                }
+                if (synapses.size < present.size) {
+                    packed.present = present
+                }
+                packed.size = synapses.size
+            } else {
+                val sorted = synapses.sortedWith(
+                    compareBy({ targetIndices[it.target]!! }, { sourceIndices[it.source]!! })
+                )
+                val rowPointers = IntArray(targets.size + 1)
+                for (s in sorted) {
+                    rowPointers[targetIndices[s.target]!! + 1]++
+                }
+                for (i in 0 until targets.size) {
+                    rowPointers[i + 1] += rowPointers[i]
+                }
+                packed.rowPointers = rowPointers
+                packed.columnIndices = IntArray(sorted.size) { sourceIndices[sorted[it].source]!! }
+                packed.values = DoubleArray(sorted.size) { sorted[it].strength }
+                packed.size = sorted.size
+            }
+            return packed
+        }
+    }
+}
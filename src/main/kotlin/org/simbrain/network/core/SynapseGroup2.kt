@@ -7,11 +7,14 @@ import org.simbrain.network.connections.ConnectionStrategy
 import org.simbrain.network.events.SynapseGroup2Events
 import org.simbrain.network.groups.AbstractNeuronCollection
 import org.simbrain.network.gui.nodes.SynapseNode
+import org.simbrain.network.spikeresponders.NonResponder
+import org.simbrain.network.synapse_update_rules.StaticSynapseRule
 import org.simbrain.network.util.SimnetUtils
 import org.simbrain.util.stats.ProbabilityDistribution
 import org.simbrain.util.stats.distributions.UniformRealDistribution
 import org.simbrain.workspace.AttributeContainer
 import smile.math.matrix.Matrix
+import java.util.*
 
 /**
  * Lightweight collection of synapses
@@ -20,10 +23,51 @@ class SynapseGroup2 @JvmOverloads constructor(
     val source: AbstractNeuronCollection,
     val target: AbstractNeuronCollection,
     connection: ConnectionStrategy = AllToAll(),
+    /**
+     * The synapse objects. Empty in compact mode; call [expand] first to work with individual synapses.
+     */
     val synapses: MutableList<Synapse> = connection.connectNeurons(source.network, source.neuronList, target
         .neuronList, false).toMutableList()
 ) : NetworkModel(), AttributeContainer {
 
+    /**
+     * Packed strengths in compact mode, null otherwise. See [compact].
+     */
+    private var packed: PackedSynapses? = null
+
+    /**
+     * Source neurons when the group was packed, indexed by packed column. The source collection may change while the
+     * group is compact, so the packed strengths are always read against these.
+     */
+    private var packedSources: Array<Neuron>? = null
+
+    /**
+     * Target neurons when the group was packed, indexed by packed row.
+     */
+    private var packedTargets: Array<Neuron>? = null
+
+    /**
+     * Synapse that parameters (bounds, increment, etc.) are copied from when synapses are materialized.
+     */
+    private var packedTemplate: Synapse? = null
+
+    /**
+     * Scratch array of source activations used in compact mode.
+     */
+    @Transient
+    private var sourceActivations: DoubleArray? = null
+
+    /**
+     * Scratch array of weighted inputs used in compact mode.
+     */
+    @Transient
+    private var targetInputs: DoubleArray? = null
+
+    /**
+     * True if strengths are packed into a matrix rather than held by synapse objects.
+     */
+    val isCompact get() = packed != null
+
     var connectionSelector: ConnectionSelector = ConnectionSelector(connection)
 
     // TODO: When passing in synapses check all source are in source and all target are in target
@@ -56,7 +100,11 @@ class SynapseGroup2 @JvmOverloads constructor(
     var displaySynapses = false
         set(value) {
             field = value
-            this.synapses.forEach { it.isVisible = value }
+            if (value) {
+                // Displayed synapses need synapse objects
+                expand()
+            }
+            synapses.forEach { it.isVisible = value }
             events.fireVisibilityChange()
         }
 
@@ -78,19 +126,22 @@ class SynapseGroup2 @JvmOverloads constructor(
     }
 
     override fun delete() {
-        this.synapses.forEach { it.delete() }
+        releasePacked()
+        synapses.forEach { it.delete() }
         target.removeIncomingSg(this)
         source.removeOutgoingSg(this)
         events.fireDeleted()
     }
 
     fun addSynapse(syn: Synapse) {
+        expand()
         syn.isVisible = displaySynapses
         this.synapses.add(syn)
         events.fireSynapseAdded(syn)
     }
 
     fun removeSynapse(syn: Synapse) {
+        expand()
         this.synapses.remove(syn)
         events.fireSynapseRemoved(syn)
     }
@@ -99,17 +150,146 @@ class SynapseGroup2 @JvmOverloads constructor(
         return source == target
     }
 
+    /**
+     * In compact mode, weighted inputs are computed from the packed strengths and added to the targets.
+     */
+    override fun updateInputs() {
+        val packed = packed ?: return
+        val sources = packedSources!!
+        val targets = packedTargets!!
+        if (!packedNeuronsCurrent(sources, targets)) {
+            // Neurons were added to or removed from the source or target. The synapses now in fan-ins are used instead.
+            expand()
+            return
+        }
+        val activations = sourceActivations?.takeIf { it.size == sources.size }
+            ?: DoubleArray(sources.size).also { sourceActivations = it }
+        val inputs = targetInputs?.takeIf { it.size == targets.size }
+            ?: DoubleArray(targets.size).also { targetInputs = it }
+        for (j in sources.indices) {
+            activations[j] = sources[j].activation
+        }
+        inputs.fill(0.0)
+        packed.addWeightedInputs(activations, inputs)
+        for (i in targets.indices) {
+            targets[i].addInputValue(inputs[i])
+        }
+    }
+
+    /**
+     * True if the source and target collections still hold the neurons the group was packed with, in the same order.
+     */
+    private fun packedNeuronsCurrent(sources: Array<Neuron>, targets: Array<Neuron>): Boolean {
+        val currentSources = source.neuronList
+        val currentTargets = target.neuronList
+        return currentSources.size == sources.size && currentTargets.size == targets.size &&
+                sources.indices.all { currentSources[it] === sources[it] } &&
+                targets.indices.all { currentTargets[it] === targets[it] }
+    }
+
     override fun update() {
-        this.synapses.forEach { it.update() }
+        // Compact groups only hold static synapses
+        synapses.forEach { it.update() }
     }
 
-    fun size(): Int = this.synapses.size
+    fun size(): Int = packed?.size ?: synapses.size
 
     override fun randomize() {
-        this.synapses.forEach { it.randomize() }
+        val packed = packed
+        if (packed == null) {
+            synapses.forEach { it.randomize() }
+        } else {
+            val template = packedTemplate!!
+            val values = packed.values
+            packed.forEachEntry { _, _, k -> values[k] = template.randomStrength() }
+        }
+    }
+
+    /**
+     * Pack the strengths of this group's synapses into a primitive matrix, dense or sparse depending on density, and
+     * release the synapse objects. Weighted inputs are then computed by a matrix kernel in [updateInputs]. Synapse
+     * objects are materialized again by [expand], which is called when synapses are displayed, added or removed, and
+     * when neurons are added to or removed from the source or target. Scripts that need the synapse objects of a
+     * compact group call [expand] themselves.
+     *
+     * Only groups of enabled, static synapses without spike responders or delays, with common bounds and increments,
+     * can be compacted.
+     *
+     * @return true if the group is in compact mode
+     */
+    fun compact(): Boolean {
+        if (packed != null) {
+            return true
+        }
+        val template = synapses.firstOrNull()
+        if (template == null || !synapses.all { canPack(it, template) }) {
+            return false
+        }
+        packed = PackedSynapses.pack(source.neuronList, target.neuronList, synapses)
+        packedSources = source.neuronList.toTypedArray()
+        packedTargets = target.neuronList.toTypedArray()
+        packedTemplate = template
+        for (s in synapses) {
+            s.source.removeEfferent(s)
+            s.target.removeAfferent(s)
+            events.fireSynapseRemoved(s)
+        }
+        synapses.clear()
+        events.fireSynapseListChanged()
+        return true
+    }
+
+    private fun canPack(s: Synapse, template: Synapse) = s.isEnabled && s.learningRule is StaticSynapseRule &&
+            s.spikeResponder is NonResponder && s.delay == 0 && s.upperBound == template.upperBound &&
+            s.lowerBound == template.lowerBound && s.increment == template.increment
+
+    /**
+     * Leave compact mode, creating a synapse object for each packed strength. Strengths of neurons that are no longer
+     * in the source or target are dropped. Does nothing if the group is not compact.
+     */
+    fun expand() {
+        if (packed == null) {
+            return
+        }
+        val currentSources = Collections.newSetFromMap(IdentityHashMap<Neuron, Boolean>())
+            .apply { addAll(source.neuronList) }
+        val currentTargets = Collections.newSetFromMap(IdentityHashMap<Neuron, Boolean>())
+            .apply { addAll(target.neuronList) }
+        val expanded = packedSynapses({ it.takeIf { it in currentSources } }, { it.takeIf { it in currentTargets } })
+        releasePacked()
+        expanded.forEach { addSynapse(it) }
+        events.fireSynapseListChanged()
+    }
+
+    /**
+     * Create synapse objects for the packed strengths, with the source and target of each mapped by the provided
+     * functions. Strengths whose source or target maps to null are skipped.
+     */
+    private fun packedSynapses(mapSource: (Neuron) -> Neuron?, mapTarget: (Neuron) -> Neuron?): List<Synapse> {
+        val packed = packed!!
+        val template = packedTemplate!!
+        val sources = packedSources!!
+        val targets = packedTargets!!
+        val result = ArrayList<Synapse>(packed.size)
+        packed.forEachEntry { i, j, k ->
+            val src = mapSource(sources[j])
+            val tar = mapTarget(targets[i])
+            if (src != null && tar != null) {
+                result.add(Synapse(src.network, src, tar, template).apply { forceSetStrength(packed.values[k]) })
+            }
+        }
+        return result
+    }
+
+    private fun releasePacked() {
+        packed = null
+        packedTemplate = null
+        packedSources = null
+        packedTargets = null
     }
 
     override fun toggleClamping() {
+        expand()
         this.synapses.forEach { it.toggleClamping() }
     }
 
@@ -117,11 +297,13 @@ class SynapseGroup2 @JvmOverloads constructor(
         if (events == null) {
             events = SynapseGroup2Events(this)
         }
-        this.synapses.forEach { it.postOpenInit() }
+        synapses.forEach { it.postOpenInit() }
     }
 
     override var id: String? = super<NetworkModel>.id
 
+    override fun owningNetwork(): Network = source.network
+
     override fun toString(): String {
         return ("$id  with ${size()} synapse(s) from $source.id to $target.id")
     }
@@ -138,14 +320,19 @@ class SynapseGroup2 @JvmOverloads constructor(
             .zip(src.neuronList + tar.neuronList)
             .toMap()
 
-        val syns = this.synapses.map{
-                Synapse(it.parentNetwork, mapping[it.source], mapping[it.target], it )
+        val syns = if (isCompact) {
+            packedSynapses({ mapping[it] }, { mapping[it] }).toMutableList()
+        } else {
+            this.synapses.map {
+                Synapse(it.parentNetwork, mapping[it.source], mapping[it.target], it)
             }.toMutableList()
+        }
 
         return SynapseGroup2(src, tar, connectionSelector.cs.copy(), syns)
     }
 
     fun applyConnectionStrategy() {
+        releasePacked()
         synapses.toList().forEach { removeSynapse(it) }
         val syns = connectionSelector.cs.connectNeurons(
             source.network,
@@ -158,10 +345,10 @@ class SynapseGroup2 @JvmOverloads constructor(
     }
 
     fun getWeightMatrixArray(): Array<DoubleArray> {
-        return SimnetUtils.getWeights(source.neuronList, target.neuronList);
+        return packed?.toSourceTargetArray() ?: SimnetUtils.getWeights(source.neuronList, target.neuronList);
     }
 
     fun getWeightMatrix(): Matrix {
-        return Matrix(SimnetUtils.getWeights(source.neuronList, target.neuronList));
+        return Matrix(getWeightMatrixArray());
     }
 }
\ No newline at end of file
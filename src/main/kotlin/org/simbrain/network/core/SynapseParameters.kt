@@ -0,0 +1,46 @@
+package org.simbrain.network.core
+
+/**
+ * Parameters of a [Synapse] that are usually the same for many synapses: its increment, strength bounds and delay.
+ * Blocks are immutable and shared, so synapses with default values, or made from the same template, point to one block
+ * rather than each carrying the values. Setting a value on a synapse gives it a different block.
+ */
+class SynapseParameters(
+    val increment: Double,
+    val upperBound: Double,
+    val lowerBound: Double,
+    val delay: Int
+) {
+
+    /**
+     * The block most recently derived from this one. When the same value is set on many synapses that share a block,
+     * as when editing a selection of synapses, they go on sharing the derived block.
+     */
+    @Transient
+    private var lastDerived: SynapseParameters? = null
+
+    fun withIncrement(increment: Double) = derive(increment, upperBound, lowerBound, delay)
+
+    fun withUpperBound(upperBound: Double) = derive(increment, upperBound, lowerBound, delay)
+
+    fun withLowerBound(lowerBound: Double) = derive(increment, upperBound, lowerBound, delay)
+
+    fun withDelay(delay: Int) = derive(increment, upperBound, lowerBound, delay)
+
+    private fun derive(increment: Double, upperBound: Double, lowerBound: Double, delay: Int): SynapseParameters {
+        if (matches(increment, upperBound, lowerBound, delay)) {
+            return this
+        }
+        val last = lastDerived
+        if (last != null && last.matches(increment, upperBound, lowerBound, delay)) {
+            return last
+        }
+        return SynapseParameters(increment, upperBound, lowerBound, delay).also { lastDerived = it }
+    }
+
+    private fun matches(increment: Double, upperBound: Double, lowerBound: Double, delay: Int) =
+        this.increment.toRawBits() == increment.toRawBits() &&
+                this.upperBound.toRawBits() == upperBound.toRawBits() &&
+                this.lowerBound.toRawBits() == lowerBound.toRawBits() &&
+                this.delay == delay
+}
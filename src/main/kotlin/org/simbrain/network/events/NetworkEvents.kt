@@ -17,6 +17,10 @@ class NetworkEvents(network: Network) : Event(PropertyChangeSupport(network)) {
     fun onModelAdded(handler: Consumer<NetworkModel>) = "Added".itemAddedEvent(handler)
     fun fireModelAdded(model: NetworkModel) = "Added"(new = model)
 
+    // Fired instead of "Added" when several models are added in one Network.bulkAdd.
+    fun onModelsAdded(handler: Consumer<List<NetworkModel>>) = "ModelsAdded".itemAddedEvent(handler)
+    fun fireModelsAdded(models: List<NetworkModel>) = "ModelsAdded"(new = models)
+
     // Forwards the model.onDeleted event, so that we don't have to register the onDeleted event on every model.
     fun onModelRemoved(handler: Consumer<NetworkModel>) = "Removed".itemAddedEvent(handler)
     fun fireModelRemoved(model: NetworkModel) = "Removed"(new = model)
@@ -1,10 +1,9 @@
 package org.simbrain.network.events
 
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.GlobalScope
-import kotlinx.coroutines.launch
 import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.NeuronUpdateRule
+import org.simbrain.util.DoubleChangeEvent
+import org.simbrain.util.DoubleChangeListener
 import org.simbrain.util.Event
 import java.util.function.BiConsumer
 import java.util.function.Consumer
@@ -14,10 +13,13 @@ import java.util.function.Consumer
  */
 class NeuronEvents(val neuron: Neuron) : LocationEvents(neuron) {
 
-    fun onActivationChange(handler: BiConsumer<Double, Double>) = GlobalScope.launch(Dispatchers.Main) {
-        "ActivationChange".itemChangedEvent(handler)
-    }
-    fun fireActivationChange(old: Double, new: Double) = "ActivationChange"(old = old, new = new)
+    /**
+     * Activation changes are fired every update for every neuron, so they use a primitive listener registry.
+     */
+    private val activationChange = DoubleChangeEvent()
+
+    fun onActivationChange(handler: DoubleChangeListener) = activationChange.addListener(handler)
+    fun fireActivationChange(old: Double, new: Double) = activationChange.fire(old, new)
 
     fun onSpiked(handler: Consumer<Boolean>) = "Spiked".itemAddedEvent(handler)
     fun fireSpiked(spiked: Boolean ) = "Spiked"(new = spiked)
@@ -622,7 +622,12 @@ class NetworkPanel constructor(val networkComponent: NetworkComponent) : JPanel(
         val src = filterSelectedSourceModels(AbstractNeuronCollection::class.java)
         val tar = filterSelectedModels(AbstractNeuronCollection::class.java)
         if (src.isNotEmpty() && tar.isNotEmpty()) {
-            network.addNetworkModel(SynapseGroup2(src.first(), tar.first()))
+            val sg = SynapseGroup2(src.first(), tar.first())
+            // Groups too large to display their synapses keep their strengths packed until they are displayed
+            if (!sg.displaySynapses) {
+                sg.compact()
+            }
+            network.addNetworkModel(sg)
             return true;
         }
         return false
@@ -673,12 +678,14 @@ class NetworkPanel constructor(val networkComponent: NetworkComponent) : JPanel(
 
     private fun initEventHandlers() {
         val event = network.events
-        event.onModelAdded {
-            createNode(it)
-            if (it is LocatableModel && it.shouldBePlaced) {
-                placementManager.placeObject(it)
+        fun addModel(model: NetworkModel) {
+            createNode(model)
+            if (model is LocatableModel && model.shouldBePlaced) {
+                placementManager.placeObject(model)
             }
         }
+        event.onModelAdded { addModel(it) }
+        event.onModelsAdded { models -> models.forEach { addModel(it) } }
         event.onModelRemoved {
             zoomToFitPage()
         }
@@ -134,7 +134,7 @@ class NeuronNode(net: NetworkPanel?, val neuron: Neuron) : ScreenElement(net), P
         // Handle events
         val events = neuron.events
         events.onDeleted { n: NetworkModel? -> removeFromParent() }
-        events.onActivationChange { o: kotlin.Double?, n: kotlin.Double? ->
+        events.onActivationChange { _, _ ->
             updateColor()
             updateText()
         }
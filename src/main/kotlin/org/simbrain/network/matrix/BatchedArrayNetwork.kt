@@ -0,0 +1,184 @@
+package org.simbrain.network.matrix
+
+import org.simbrain.network.core.Layer
+import org.simbrain.network.spikeresponders.NonResponder
+import org.simbrain.network.synapse_update_rules.StaticSynapseRule
+import org.simbrain.network.util.MatrixDataHolder
+import smile.math.blas.Transpose
+import smile.math.matrix.Matrix
+import java.util.*
+
+/**
+ * Runs a number of independent trials of a network of [NeuronArray]s and [WeightMatrix]s at once, e.g. for parameter
+ * sweeps over inputs or initial conditions.
+ *
+ * Each array's state is held as an n x B matrix, one column per trial, so the inputs a weight matrix sends to its target
+ * in all B trials are computed by a single matrix-matrix product rather than B matrix-vector products. Update rules are
+ * then applied one trial at a time using each rule's array kernel, with a separate copy of the rule's data (recovery
+ * variables, spike state, etc.) for each trial. All inputs are computed from the previous state before any array is
+ * updated, and rules that read their source arrays directly (e.g. Kuramoto) also see the previous state of those
+ * arrays, whatever order the arrays are given in.
+ *
+ * Weight matrices must be "connectionist" (no spike responder, delays or learning rule) and connect arrays in the
+ * batch. The arrays themselves are used as scratch space while their rules are applied, and are restored after each
+ * step, so the network is left as it was.
+ *
+ * @param arrays the arrays to simulate
+ * @param weightMatrices the weight matrices connecting them
+ * @param batchSize number of trials
+ */
+class BatchedArrayNetwork(
+    arrays: List<NeuronArray>,
+    weightMatrices: List<WeightMatrix>,
+    val batchSize: Int
+) {
+
+    private val arrays = arrays.toTypedArray()
+
+    private val weightMatrices = weightMatrices.toTypedArray()
+
+    /**
+     * Index of each array in [arrays].
+     */
+    private val indices = IdentityHashMap<NeuronArray, Int>()
+
+    /**
+     * For each weight matrix, the indices of its source and target arrays.
+     */
+    private val sourceIndices: IntArray
+
+    private val targetIndices: IntArray
+
+    /**
+     * Activations of each array, one column per trial.
+     */
+    private val activations: Array<Matrix>
+
+    /**
+     * Inputs of each array, one column per trial. External inputs are added here between steps.
+     */
+    private val inputs: Array<Matrix>
+
+    /**
+     * Rule data of each array, one copy per trial.
+     */
+    private val dataHolders: Array<Array<MatrixDataHolder>>
+
+    /**
+     * New activations of each array in the trial being updated, held until every array of the trial is updated.
+     */
+    private val newActivations: Array<Matrix>
+
+    init {
+        require(batchSize > 0) { "Batch size must be positive" }
+        this.arrays.forEachIndexed { i, array -> indices[array] = i }
+        sourceIndices = IntArray(this.weightMatrices.size) { indexOf(this.weightMatrices[it].source) }
+        targetIndices = IntArray(this.weightMatrices.size) { indexOf(this.weightMatrices[it].target) }
+        for (wm in this.weightMatrices) {
+            require(wm.spikeResponder is NonResponder && wm.delays == null && wm.prototypeRule is StaticSynapseRule) {
+                "$wm has a spike responder, delays or learning rule, which batched updates don't support"
+            }
+        }
+        activations = Array(this.arrays.size) { i ->
+            val column = this.arrays[i].activations
+            Matrix(column.nrows(), batchSize).also { m ->
+                for (b in 0 until batchSize) {
+                    for (k in 0 until column.nrows()) {
+                        m[k, b] = column[k, 0]
+                    }
+                }
+            }
+        }
+        inputs = Array(this.arrays.size) { Matrix(this.arrays[it].size(), batchSize) }
+        dataHolders = Array(this.arrays.size) { i ->
+            Array(batchSize) { this.arrays[i].dataHolder.copy() }
+        }
+        newActivations = Array(this.arrays.size) { Matrix(this.arrays[it].size(), 1) }
+    }
+
+    private fun indexOf(layer: Layer) = (layer as? NeuronArray)?.let { indices[it] }
+        ?: throw IllegalArgumentException("$layer is not one of the batched neuron arrays")
+
+    /**
+     * Activations of an array in all trials, one column per trial. Live view: changes are seen by the next [update].
+     */
+    fun getActivations(array: NeuronArray) = activations[indexOf(array)]
+
+    /**
+     * Activations of an array in one trial.
+     */
+    fun getActivations(array: NeuronArray, trial: Int): DoubleArray = activations[indexOf(array)].col(trial)
+
+    /**
+     * Set the activations of an array in one trial.
+     */
+    fun setActivations(array: NeuronArray, trial: Int, values: DoubleArray) {
+        val m = activations[indexOf(array)]
+        for (k in values.indices) {
+            m[k, trial] = values[k]
+        }
+    }
+
+    /**
+     * Add external inputs to an array in one trial. Like [NeuronArray.addInputs], they are used by the next [update].
+     */
+    fun addInputs(array: NeuronArray, trial: Int, values: DoubleArray) {
+        val m = inputs[indexOf(array)]
+        for (k in values.indices) {
+            m[k, trial] = m[k, trial] + values[k]
+        }
+    }
+
+    /**
+     * Rule data of an array in one trial.
+     */
+    fun getDataHolder(array: NeuronArray, trial: Int) = dataHolders[indexOf(array)][trial]
+
+    /**
+     * Advance all trials one time step.
+     */
+    fun update() {
+        // One matrix-matrix product per weight matrix, accumulated directly into the target's inputs
+        for (k in weightMatrices.indices) {
+            inputs[targetIndices[k]].mm(
+                Transpose.NO_TRANSPOSE, weightMatrices[k].weightMatrixForReading,
+                Transpose.NO_TRANSPOSE, activations[sourceIndices[k]],
+                1.0, 1.0
+            )
+        }
+        val savedInputs = Array(arrays.size) { arrays[it].inputs.col(0) }
+        val savedActivations = Array(arrays.size) { arrays[it].activations.col(0) }
+        for (b in 0 until batchSize) {
+            // Load the whole trial first, since some rules (e.g. Kuramoto) read their source arrays directly
+            for (i in arrays.indices) {
+                copyColumn(inputs[i], b, arrays[i].inputs, 0)
+                copyColumn(activations[i], b, arrays[i].activations, 0)
+            }
+            // Each array is restored to its previous state after its rule is applied, so arrays updated later in the
+            // trial don't see the new state
+            for (i in arrays.indices) {
+                if (!arrays[i].isClamped) {
+                    arrays[i].updateRule.apply(arrays[i], dataHolders[i][b])
+                    copyColumn(arrays[i].activations, 0, newActivations[i], 0)
+                    copyColumn(activations[i], b, arrays[i].activations, 0)
+                }
+            }
+            for (i in arrays.indices) {
+                if (!arrays[i].isClamped) {
+                    copyColumn(newActivations[i], 0, activations[i], b)
+                }
+            }
+        }
+        for (i in arrays.indices) {
+            savedInputs[i].forEachIndexed { k, value -> arrays[i].inputs[k, 0] = value }
+            savedActivations[i].forEachIndexed { k, value -> arrays[i].activations[k, 0] = value }
+            inputs[i].mul(0.0)
+        }
+    }
+
+    private fun copyColumn(from: Matrix, fromColumn: Int, to: Matrix, toColumn: Int) {
+        for (k in 0 until from.nrows()) {
+            to[k, toColumn] = from[k, fromColumn]
+        }
+    }
+}
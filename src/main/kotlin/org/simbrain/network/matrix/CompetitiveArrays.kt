@@ -0,0 +1,452 @@
+package org.simbrain.network.matrix
+
+import org.simbrain.network.core.Network
+import org.simbrain.network.subnetworks.CompetitiveGroup
+import org.simbrain.network.subnetworks.SOMGroup
+import org.simbrain.util.UserParameter
+import org.simbrain.util.argmax
+import org.simbrain.util.topK
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sqrt
+import kotlin.random.Random
+
+/*
+ * Array versions of the competitive neuron groups ([org.simbrain.network.subnetworks.WinnerTakeAll],
+ * [org.simbrain.network.subnetworks.KWTA], [CompetitiveGroup] and [SOMGroup]). Inputs arrive through incoming
+ * [WeightMatrix]s, which compute them with one matrix-vector product each, so a winner is found with a single pass over
+ * an array rather than by summing each neuron's fan-in, and learning changes rows of the incoming weight matrices in
+ * place.
+ */
+
+/**
+ * Copies the summed inputs of an array into a buffer, reusing it if it is the right size.
+ */
+private fun NeuronArray.inputsInto(buffer: DoubleArray?): DoubleArray {
+    val result = if (buffer != null && buffer.size == size()) buffer else DoubleArray(size())
+    for (i in result.indices) {
+        result[i] = inputs[i, 0]
+    }
+    return result
+}
+
+/**
+ * Copies the activations of an array into a buffer, reusing it if it is the right size.
+ */
+private fun NeuronArray.activationsInto(buffer: DoubleArray?): DoubleArray {
+    val result = if (buffer != null && buffer.size == size()) buffer else DoubleArray(size())
+    for (i in result.indices) {
+        result[i] = activations[i, 0]
+    }
+    return result
+}
+
+/**
+ * Sets the winners to one value and everything else to another.
+ */
+private fun NeuronArray.setWinners(winners: IntArray, winValue: Double, loseValue: Double) {
+    for (i in 0 until size()) {
+        activations[i, 0] = loseValue
+    }
+    for (i in winners) {
+        activations[i, 0] = winValue
+    }
+}
+
+/**
+ * Clear inputs and notify listeners, as at the end of [NeuronArray.update].
+ */
+private fun NeuronArray.finishUpdate() {
+    inputs.mul(0.0)
+    events.fireUpdated()
+}
+
+private val NeuronArray.incomingWeightMatrices get() = incomingConnectors.filterIsInstance<WeightMatrix>()
+
+/**
+ * The unit with the greatest input takes on the win value, and all others the lose value. Ties are broken at random.
+ */
+class WinnerTakeAllArray(net: Network, size: Int) : NeuronArray(net, size) {
+
+    @UserParameter(label = "Win value", order = 50)
+    var winValue = 1.0
+
+    @UserParameter(label = "Lose value", order = 60)
+    var loseValue = 0.0
+
+    /**
+     * If true, sometimes set the winner randomly.
+     */
+    @UserParameter(label = "Random winner", order = 70)
+    var useRandom = false
+
+    /**
+     * Probability of setting the winner randomly, when useRandom is true.
+     */
+    @UserParameter(label = "Random prob", condtionalEnablingWidget = "Random winner", order = 80)
+    var randomProb = .1
+
+    /**
+     * Index of the most recent winner, or -1 before the first update.
+     */
+    var winner = -1
+        private set
+
+    @Transient
+    private var buffer: DoubleArray? = null
+
+    override fun update() {
+        if (isClamped) {
+            return
+        }
+        val values = inputsInto(buffer).also { buffer = it }
+        winner = values.argmax(Random)
+        if (useRandom && Random.nextDouble() < randomProb) {
+            winner = Random.nextInt(size())
+        }
+        setWinners(intArrayOf(winner), winValue, loseValue)
+        finishUpdate()
+    }
+
+    override fun deepCopy(newParent: Network) = WinnerTakeAllArray(newParent, size()).also {
+        copyStateTo(it)
+        it.winValue = winValue
+        it.loseValue = loseValue
+        it.useRandom = useRandom
+        it.randomProb = randomProb
+    }
+
+    override val name: String
+        get() = "Winner Take All Array"
+}
+
+/**
+ * The k units with the greatest inputs take on the win value, and all others the lose value. Winners are found by
+ * quickselect, in time linear in the size of the array. Of units with equal inputs, those with lower indices win.
+ */
+class KWTAArray(net: Network, size: Int) : NeuronArray(net, size) {
+
+    /**
+     * Number of winners.
+     */
+    @UserParameter(label = "k", description = "Number of winners", minimumValue = 1.0, order = 40)
+    var k = 1
+
+    @UserParameter(label = "Win value", order = 50)
+    var winValue = 1.0
+
+    @UserParameter(label = "Lose value", order = 60)
+    var loseValue = 0.0
+
+    /**
+     * Indices of the most recent winners, in increasing order.
+     */
+    var winners = IntArray(0)
+        private set
+
+    @Transient
+    private var buffer: DoubleArray? = null
+
+    override fun update() {
+        if (isClamped) {
+            return
+        }
+        val values = inputsInto(buffer).also { buffer = it }
+        winners = values.topK(k)
+        setWinners(winners, winValue, loseValue)
+        finishUpdate()
+    }
+
+    override fun deepCopy(newParent: Network) = KWTAArray(newParent, size()).also {
+        copyStateTo(it)
+        it.k = k
+        it.winValue = winValue
+        it.loseValue = loseValue
+    }
+
+    override val name: String
+        get() = "K Winner Take All Array"
+}
+
+/**
+ * Competitive learning on the weight matrices coming in to this array, as in [CompetitiveGroup]. The array's update
+ * rule is applied, the unit with the highest activation wins, and the winner's row of each incoming weight matrix is
+ * moved towards that matrix's source activations.
+ */
+class CompetitiveArray(net: Network, size: Int) : NeuronArray(net, size) {
+
+    @UserParameter(label = "Update method", order = 30)
+    var updateMethod = CompetitiveGroup.DEFAULT_UPDATE_METHOD
+
+    @UserParameter(label = "Learning rate", order = 40)
+    var learningRate = CompetitiveGroup.DEFAULT_LEARNING_RATE
+
+    @UserParameter(label = "Winner Value", order = 50)
+    var winValue = CompetitiveGroup.DEFAULT_WIN_VALUE
+
+    @UserParameter(label = "Lose Value", order = 60)
+    var loseValue = CompetitiveGroup.DEFAULT_LOSE_VALUE
+
+    @UserParameter(label = "Normalize inputs", order = 70)
+    var normalizeInputs = CompetitiveGroup.DEFAULT_NORM_INPUTS
+
+    @UserParameter(label = "Use Leaky learning", order = 80)
+    var useLeakyLearning = CompetitiveGroup.DEFAULT_USE_LEAKY
+
+    @UserParameter(label = "Leaky learning rate", condtionalEnablingWidget = "Use Leaky learning", order = 90)
+    var leakyLearningRate = CompetitiveGroup.DEFAULT_LEAKY_RATE
+
+    /**
+     * Percentage by which to decay weights on each update for Alvarez-Squire update.
+     */
+    @UserParameter(label = "Decay percent", order = 100)
+    var synapseDecayPercent = CompetitiveGroup.DEFAULT_DECAY_PERCENT
+
+    /**
+     * Index of the most recent winner, or -1 before the first update.
+     */
+    var winner = -1
+        private set
+
+    @Transient
+    private var buffer: DoubleArray? = null
+
+    override fun update() {
+        if (isClamped) {
+            return
+        }
+        updateRule.apply(this, dataHolder)
+        val values = activationsInto(buffer).also { buffer = it }
+        winner = values.argmax()
+        setWinners(intArrayOf(winner), winValue, loseValue)
+        incomingWeightMatrices.forEach(::learn)
+        finishUpdate()
+    }
+
+    /**
+     * Update the weights from one source, as in [CompetitiveGroup]. Rows are units of this array and columns are
+     * units of the source.
+     */
+    private fun learn(wm: WeightMatrix) {
+        val w = wm.weightMatrix
+        val x = wm.source.outputs
+        val cols = w.ncols()
+        var sumOfInputs = 0.0
+        for (j in 0 until cols) {
+            sumOfInputs += x[j, 0]
+        }
+        val scale = if (normalizeInputs && sumOfInputs != 0.0) 1 / sumOfInputs else 1.0
+        when (updateMethod) {
+            CompetitiveGroup.UpdateMethod.RUMM_ZIPSER -> for (j in 0 until cols) {
+                w[winner, j] += learningRate * (x[j, 0] * scale - w[winner, j])
+            }
+            CompetitiveGroup.UpdateMethod.ALVAREZ_SQUIRE -> {
+                val averageInput = sumOfInputs / cols
+                for (j in 0 until cols) {
+                    w[winner, j] += learningRate * winValue * (x[j, 0] - averageInput)
+                }
+                w.mul(1 - synapseDecayPercent)
+            }
+        }
+        if (useLeakyLearning) {
+            val rows = w.nrows()
+            for (j in 0 until cols) {
+                val input = x[j, 0] * scale
+                for (i in 0 until rows) {
+                    if (i != winner) {
+                        w[i, j] += leakyLearningRate * (input - w[i, j])
+                    }
+                }
+            }
+        }
+        wm.events.fireUpdated()
+    }
+
+    override fun deepCopy(newParent: Network) = CompetitiveArray(newParent, size()).also {
+        copyStateTo(it)
+        it.updateMethod = updateMethod
+        it.learningRate = learningRate
+        it.winValue = winValue
+        it.loseValue = loseValue
+        it.normalizeInputs = normalizeInputs
+        it.useLeakyLearning = useLeakyLearning
+        it.leakyLearningRate = leakyLearningRate
+        it.synapseDecayPercent = synapseDecayPercent
+    }
+
+    override val name: String
+        get() = "Competitive Array"
+}
+
+/**
+ * A self-organizing map, as in [SOMGroup]. Units are laid out row by row on the square grid used to show the array in
+ * grid mode, and distances between units are measured in grid cells. The winner is the unit whose incoming weights are
+ * closest to the source activations, and the weights of units within the neighborhood of the winner are moved towards
+ * the source activations.
+ */
+class SOMArray(net: Network, size: Int) : NeuronArray(net, size) {
+
+    @UserParameter(label = "Initial alpha", order = 50)
+    var initAlpha = SOMGroup.DEFAULT_ALPHA
+        set(value) {
+            field = value
+            alpha = value
+        }
+
+    @UserParameter(label = "alpha", order = 60)
+    var alpha = SOMGroup.DEFAULT_ALPHA
+
+    /**
+     * Radius of the neighborhood, in grid cells.
+     */
+    @UserParameter(label = "Neighborhood size", order = 70)
+    var neighborhoodSize = DEFAULT_INIT_NSIZE
+
+    @UserParameter(label = "Initial neighborhood size", order = 80)
+    var initNeighborhoodSize = DEFAULT_INIT_NSIZE
+        set(value) {
+            field = value
+            neighborhoodSize = value
+        }
+
+    @UserParameter(label = "Alpha decay rate", order = 90)
+    var alphaDecayRate = SOMGroup.DEFAULT_DECAY_RATE
+
+    @UserParameter(label = "Neighborhood decay rate", order = 100)
+    var neighborhoodDecayAmount = DEFAULT_NEIGHBORHOOD_DECAY_AMOUNT
+
+    /**
+     * Index of the most recent winner, or -1 before the first update.
+     */
+    var winner = -1
+        private set
+
+    @Transient
+    private var scores: DoubleArray? = null
+
+    init {
+        isGridMode = true
+    }
+
+    /**
+     * Number of units in each row of the grid.
+     */
+    val gridWidth get() = max(1, sqrt(size().toDouble()).toInt())
+
+    /**
+     * Resets learning rate and neighborhood size to their initial values.
+     */
+    fun reset() {
+        alpha = initAlpha
+        neighborhoodSize = initNeighborhoodSize
+    }
+
+    override fun update() {
+        if (isClamped) {
+            return
+        }
+        val weightMatrices = incomingWeightMatrices
+        winner = findWinner(weightMatrices)
+        setWinners(intArrayOf(winner), 1.0, 0.0)
+        val neighborhood = neighborhood(winner)
+        for (wm in weightMatrices) {
+            val w = wm.weightMatrix
+            val x = wm.source.outputs
+            for (j in 0 until w.ncols()) {
+                val input = x[j, 0]
+                for (i in neighborhood) {
+                    w[i, j] += alpha * (input - w[i, j])
+                }
+            }
+            wm.events.fireUpdated()
+        }
+        alpha -= alpha * alphaDecayRate
+        neighborhoodSize = max(0.0, neighborhoodSize - neighborhoodDecayAmount)
+        finishUpdate()
+    }
+
+    /**
+     * The unit whose weights are closest to the source activations. The squared distance |w - x|^2 less |x|^2, which
+     * is the same for every unit, is accumulated in one pass over each weight matrix.
+     */
+    private fun findWinner(weightMatrices: List<WeightMatrix>): Int {
+        val n = size()
+        val distances = scores?.takeIf { it.size == n } ?: DoubleArray(n).also { scores = it }
+        distances.fill(0.0)
+        for (wm in weightMatrices) {
+            val w = wm.weightMatrixForReading
+            val x = wm.source.outputs
+            for (j in 0 until w.ncols()) {
+                val twoInputs = 2 * x[j, 0]
+                for (i in 0 until n) {
+                    val weight = w[i, j]
+                    distances[i] += weight * (weight - twoInputs)
+                }
+            }
+        }
+        var best = 0
+        for (i in 1 until n) {
+            if (distances[i] < distances[best]) {
+                best = i
+            }
+        }
+        return best
+    }
+
+    /**
+     * Indices of the units within [neighborhoodSize] grid cells of a unit.
+     */
+    private fun neighborhood(center: Int): IntArray {
+        val n = size()
+        val width = gridWidth
+        val centerRow = center / width
+        val centerCol = center % width
+        val reach = floor(neighborhoodSize).toInt()
+        val radiusSquared = neighborhoodSize * neighborhoodSize
+        var result = IntArray(0)
+        var count = 0
+        for (row in max(0, centerRow - reach)..min((n - 1) / width, centerRow + reach)) {
+            for (col in max(0, centerCol - reach)..min(width - 1, centerCol + reach)) {
+                val i = row * width + col
+                val dr = (row - centerRow).toDouble()
+                val dc = (col - centerCol).toDouble()
+                if (i < n && dr * dr + dc * dc <= radiusSquared) {
+                    if (count == result.size) {
+                        result = result.copyOf(max(16, count * 2))
+                    }
+                    result[count++] = i
+                }
+            }
+        }
+        return result.copyOf(count)
+    }
+
+    override fun deepCopy(newParent: Network) = SOMArray(newParent, size()).also {
+        copyStateTo(it)
+        it.initAlpha = initAlpha
+        it.alpha = alpha
+        it.initNeighborhoodSize = initNeighborhoodSize
+        it.neighborhoodSize = neighborhoodSize
+        it.alphaDecayRate = alphaDecayRate
+        it.neighborhoodDecayAmount = neighborhoodDecayAmount
+    }
+
+    override val name: String
+        get() = "Self Organizing Map Array"
+
+    companion object {
+
+        /**
+         * Default initial neighborhood size, in grid cells. About the same as [SOMGroup.DEFAULT_INIT_NSIZE] pixels in
+         * the default SOM group layout.
+         */
+        const val DEFAULT_INIT_NSIZE = 2.0
+
+        /**
+         * Default amount the neighborhood shrinks on each update, in the same proportion to its initial size as in
+         * [SOMGroup].
+         */
+        const val DEFAULT_NEIGHBORHOOD_DECAY_AMOUNT = .001
+    }
+}
@@ -0,0 +1,134 @@
+package org.simbrain.network.neurongroups
+
+import org.simbrain.network.core.Network
+import org.simbrain.network.core.Neuron
+import org.simbrain.network.groups.NeuronGroup
+import org.simbrain.network.neuron_update_rules.KuramotoRule
+import java.util.*
+import kotlin.math.PI
+import kotlin.math.cos
+import kotlin.math.max
+import kotlin.math.sin
+
+/**
+ * A population of Kuramoto oscillators: a neuron group whose neurons use a [KuramotoRule].
+ *
+ * [KuramotoRule] sums K * sin(theta_j - theta_i) over a neuron's fan-in, so a population coupled all-to-all costs
+ * O(N^2) per update. When the group is coupled to itself all-to-all with a single strength K, and has no other
+ * incoming synapses, the sum equals K * (cos(theta_i) * S - sin(theta_i) * C), where S and C are the sums of the sines
+ * and cosines of all phases in the group (N times the order parameter R e^(i psi)). The group then updates in O(N):
+ * neurons are updated in order as before, and S and C are corrected after each phase change, so the result is the
+ * same as applying the rule to each neuron. Synapse outputs are not computed in this case, since the rule does not
+ * read them. Other couplings use the rule's exact sum over each fan-in.
+ *
+ * Whether the coupling is uniform is checked again only when the network's synapses change (see
+ * [Network.couplingVersion]).
+ */
+class KuramotoGroup(net: Network, val numNeurons: Int) : NeuronGroup(net, numNeurons) {
+
+    /**
+     * Strength of a uniform all-to-all coupling, and the fan-in size of each neuron (which is N-1, or N with a
+     * self connection).
+     */
+    private class UniformCoupling(val strength: Double, val fanInSizes: IntArray)
+
+    /**
+     * The uniform coupling of the group, or null if the coupling is not uniform.
+     */
+    @Transient
+    private var uniformCoupling: UniformCoupling? = null
+
+    /**
+     * The [Network.couplingVersion] at which [uniformCoupling] was computed. Null until it is computed.
+     */
+    @Transient
+    private var analyzedVersion: Long? = null
+
+    init {
+        prototypeRule = KuramotoRule()
+        label = "Kuramoto"
+    }
+
+    /**
+     * True if the group is currently updated using the mean field.
+     */
+    val usesMeanField: Boolean
+        get() = prototypeRule is KuramotoRule && getUniformCoupling() != null
+
+    override fun updateNeurons() {
+        val rule = prototypeRule as? KuramotoRule
+        val coupling = if (rule != null) getUniformCoupling() else null
+        if (rule == null || coupling == null) {
+            super.updateNeurons()
+            return
+        }
+        val timeStep = parentNetwork.timeStep
+        var sinSum = 0.0
+        var cosSum = 0.0
+        for (neuron in neuronList) {
+            sinSum += sin(neuron.activation)
+            cosSum += cos(neuron.activation)
+        }
+        neuronList.forEachIndexed { i, neuron ->
+            val theta = neuron.activation
+            val sinTheta = sin(theta)
+            val cosTheta = cos(theta)
+            val sum = coupling.strength * (cosTheta * sinSum - sinTheta * cosSum)
+            val thetaDot = rule.naturalFrequency + sum / max(coupling.fanInSizes[i], 1)
+            neuron.activation = (theta + timeStep * thetaDot) % (2 * PI)
+            // Clamping and clipping may leave a different phase than the one computed
+            val newTheta = neuron.activation
+            sinSum += sin(newTheta) - sinTheta
+            cosSum += cos(newTheta) - cosTheta
+            neuron.clearInput()
+        }
+    }
+
+    private fun getUniformCoupling(): UniformCoupling? {
+        val version = parentNetwork.couplingVersion
+        if (analyzedVersion != version) {
+            uniformCoupling = analyzeCoupling()
+            analyzedVersion = version
+        }
+        return uniformCoupling
+    }
+
+    /**
+     * Returns the coupling if every neuron's fan-in consists of one synapse from each other neuron in the group,
+     * optionally plus a self connection, all with the same strength. Returns null otherwise.
+     */
+    private fun analyzeCoupling(): UniformCoupling? {
+        val n = neuronList.size
+        val strength = neuronList.firstOrNull()?.fanInUnsafe?.firstOrNull()?.strength ?: return null
+        val indices = IdentityHashMap<Neuron, Int>()
+        neuronList.forEachIndexed { i, neuron -> indices[neuron] = i }
+        // lastSeenBy[j] == i when neuron i has a synapse from neuron j
+        val lastSeenBy = IntArray(n) { -1 }
+        val fanInSizes = IntArray(n)
+        neuronList.forEachIndexed { i, neuron ->
+            val fanIn = neuron.fanInUnsafe
+            for (synapse in fanIn) {
+                val j = indices[synapse.source] ?: return null
+                if (lastSeenBy[j] == i || synapse.strength != strength) {
+                    return null
+                }
+                lastSeenBy[j] = i
+            }
+            val fromOthers = if (lastSeenBy[i] == i) fanIn.size - 1 else fanIn.size
+            if (fromOthers != n - 1) {
+                return null
+            }
+            fanInSizes[i] = fanIn.size
+        }
+        return UniformCoupling(strength, fanInSizes)
+    }
+
+    override fun deepCopy(newParent: Network): NeuronGroup {
+        return KuramotoGroup(newParent, numNeurons).also { it.prototypeRule = prototypeRule.deepCopy() }
+    }
+
+    override fun getTypeDescription(): String? {
+        return "Kuramoto oscillators"
+    }
+
+}
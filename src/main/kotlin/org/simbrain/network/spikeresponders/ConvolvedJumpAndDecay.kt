@@ -3,6 +3,7 @@ package org.simbrain.network.spikeresponders
 import org.simbrain.network.core.Connector
 import org.simbrain.network.core.Synapse
 import org.simbrain.network.matrix.NeuronArray
+import org.simbrain.network.matrix.SparseWeightMatrix
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder
 import org.simbrain.network.util.MatrixDataHolder
@@ -44,24 +45,31 @@ class ConvolvedJumpAndDecay() : SpikeResponder() {
     }
 
     override fun apply(conn: Connector, responderData: MatrixDataHolder) {
-        val wm = conn.let { if (it is WeightMatrix) it else return }
         val na = conn.source.let { if (it is NeuronArray) it else return }
         val spikeData = na.dataHolder.let { if (it is SpikingMatrixData) it else return }
-        if (na.updateRule.isSpikingRule) {
-            for (i in 0 until wm.weightMatrix.nrows()) {
-                for (j in 0 until wm.weightMatrix.ncols()) {
-                    val psr = convolvedJumpAndDecay(
-                        spikeData.spikes[j],
-                        wm.psrMatrix[i, j],
-                        wm.weightMatrix[i, j],
-                        na.network.timeStep
-                    )
-                    wm.psrMatrix.set(i, j, psr)
-                }
+        if (!na.updateRule.isSpikingRule) {
+            return
+        }
+        if (conn is SparseWeightMatrix) {
+            val psrs = conn.psrs
+            val weights = conn.values
+            val columns = conn.columnIndices
+            for (k in psrs.indices) {
+                psrs[k] = convolvedJumpAndDecay(spikeData.spikes[columns[k]], psrs[k], weights[k], na.network.timeStep)
+            }
+        } else if (conn is WeightMatrix) {
+            val data = responderData.let { if (it is DecayingResponseMatrixData) it else return }
+            val decay = 1 - na.network.timeStep / timeConstant
+            data.update(conn.rawPsrMatrix, conn.weightMatrixForReading, spikeData.spikeIndices, decay, baseLine) { psr, weight ->
+                psr + weight
             }
         }
     }
 
+    override fun createMatrixData(rows: Int, cols: Int): MatrixDataHolder {
+        return DecayingResponseMatrixData(rows, cols)
+    }
+
 
     override fun apply(s: Synapse, responderData: ScalarDataHolder) {
         s.psr = convolvedJumpAndDecay(s.source.isSpike, s.psr, s.strength, s.network.timeStep)
@@ -21,12 +21,14 @@ package org.simbrain.network.spikeresponders
 import org.simbrain.network.core.Connector
 import org.simbrain.network.core.Synapse
 import org.simbrain.network.matrix.NeuronArray
+import org.simbrain.network.matrix.SparseWeightMatrix
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder
 import org.simbrain.network.util.MatrixDataHolder
 import org.simbrain.network.util.ScalarDataHolder
 import org.simbrain.network.util.SpikingMatrixData
 import org.simbrain.util.UserParameter
+import smile.math.matrix.Matrix
 
 /**
  * Probabilistic spike responders produces a response with some probability. If a response is produced it is set
@@ -51,19 +53,46 @@ class ProbabilisticResponder : SpikeResponder() {
     }
 
     override fun apply(conn: Connector, responderData: MatrixDataHolder) {
-        val wm = conn.let { if (it is WeightMatrix) it else return }
         val na = conn.source.let { if (it is NeuronArray) it else return }
         val spikeData = na.dataHolder.let { if (it is SpikingMatrixData) it else return }
-        if (na.updateRule.isSpikingRule) {
-            for (i in 0 until wm.weightMatrix.nrows()) {
-                for (j in 0 until wm.weightMatrix.ncols()) {
-                    val psr = probResponder(spikeData.spikes[j]) * wm.weightMatrix[i,j]
-                    wm.psrMatrix.set(i,j,psr)
+        if (!na.updateRule.isSpikingRule) {
+            return
+        }
+        if (conn is SparseWeightMatrix) {
+            val psrs = conn.psrs
+            val weights = conn.values
+            val columns = conn.columnIndices
+            for (k in psrs.indices) {
+                psrs[k] = probResponder(spikeData.spikes[columns[k]]) * weights[k]
+            }
+        } else if (conn is WeightMatrix) {
+            // Only columns that spiked in this or the previous update are non-zero
+            val data = responderData.let { if (it is ProbabilisticMatrixData) it else return }
+            val psrMatrix = conn.rawPsrMatrix
+            val weights = conn.weightMatrixForReading
+            data.init(psrMatrix)
+            for (col in data.previousSpikes) {
+                for (row in 0 until data.rows) {
+                    psrMatrix[row, col] = 0.0
                 }
             }
+            data.rowSums.fill(0.0)
+            val spikeIndices = spikeData.spikeIndices
+            for (col in spikeIndices) {
+                for (row in 0 until data.rows) {
+                    val psr = probResponder(true) * weights[row, col]
+                    psrMatrix[row, col] = psr
+                    data.rowSums[row] += psr
+                }
+            }
+            data.previousSpikes = spikeIndices
         }
     }
 
+    override fun createMatrixData(rows: Int, cols: Int): MatrixDataHolder {
+        return ProbabilisticMatrixData(rows, cols)
+    }
+
     override fun apply(s: Synapse, responderData: ScalarDataHolder) {
         s.psr = probResponder(s.source.isSpike) * s.strength
     }
@@ -86,4 +115,39 @@ class ProbabilisticResponder : SpikeResponder() {
 
     override val name: String
         get() = "Probabilistic"
-}
\ No newline at end of file
+}
+
+/**
+ * Probabilistic response data for weight matrices. Responses only last one update, so only the columns that spiked
+ * in the previous update need to be cleared.
+ */
+class ProbabilisticMatrixData(val rows: Int, val cols: Int) : PsrRowSumData {
+
+    override val rowSums = DoubleArray(rows)
+
+    /**
+     * Columns that spiked in the previous update.
+     */
+    var previousSpikes = IntArray(0)
+
+    /**
+     * False until the psr matrix has been cleared.
+     */
+    private var initialized = false
+
+    /**
+     * Clear the psr matrix the first time an update occurs.
+     */
+    fun init(psrMatrix: Matrix) {
+        if (!initialized) {
+            psrMatrix.mul(0.0)
+            initialized = true
+        }
+    }
+
+    override fun copy() = ProbabilisticMatrixData(rows, cols).also {
+        rowSums.copyInto(it.rowSums)
+        it.previousSpikes = previousSpikes.copyOf()
+        it.initialized = initialized
+    }
+}
@@ -0,0 +1,151 @@
+package org.simbrain.network.spikeresponders
+
+import org.simbrain.network.util.MatrixDataHolder
+import smile.math.matrix.Matrix
+
+/**
+ * Matrix data for event-driven spike responders, which only touch the columns of the psr matrix whose source neurons
+ * spiked (or whose response ended) and keep the row sums of the psr matrix up to date themselves. The cost of an
+ * update is then proportional to the number of spikes rather than to the size of the weight matrix. See
+ * [org.simbrain.network.matrix.WeightMatrix.getOutput].
+ */
+interface PsrRowSumData : MatrixDataHolder {
+
+    /**
+     * Sum of each row of the psr matrix, i.e. the output of the weight matrix.
+     */
+    val rowSums: DoubleArray
+
+    /**
+     * Bring the psr matrix up to date. Only needed for responders that update it lazily.
+     */
+    fun materialize(psrMatrix: Matrix) {}
+}
+
+/**
+ * Data for responders whose responses decay towards a baseline by a constant factor each time step between spikes, like
+ * [JumpAndDecay] and [ConvolvedJumpAndDecay].
+ *
+ * All responses in a column are reset at the same time (when the source neuron spikes) and decay at the same rate, so
+ * the psr matrix is updated lazily: entry (i,j) holds the response at the time column j was last written, and
+ * [columnScales] holds the factor by which it has since decayed towards [baseline]. Row sums are decayed in closed
+ * form, so an update is O(rows * spikes + rows + cols). The psr matrix is brought up to date by [materialize] when it
+ * is read.
+ */
+class DecayingResponseMatrixData(val rows: Int, val cols: Int) : PsrRowSumData {
+
+    override var rowSums = DoubleArray(rows)
+        private set
+
+    /**
+     * Decay of each column of the psr matrix since it was last written.
+     */
+    var columnScales = DoubleArray(cols) { 1.0 }
+        private set
+
+    /**
+     * Baseline responses decay towards.
+     */
+    var baseline = 0.0
+        private set
+
+    /**
+     * False until the row sums have been computed from the psr matrix.
+     */
+    private var initialized = false
+
+    /**
+     * Responses of spiking columns, added to the row sums after decay.
+     */
+    @Transient
+    private var spikeResponses: DoubleArray? = null
+
+    override fun copy() = DecayingResponseMatrixData(rows, cols).also {
+        it.rowSums = rowSums.copyOf()
+        it.columnScales = columnScales.copyOf()
+        it.baseline = baseline
+        it.initialized = initialized
+    }
+
+    /**
+     * Advance the responses one time step.
+     *
+     * @param psrMatrix the (lazily updated) psr matrix
+     * @param weightMatrix the weights
+     * @param spikeIndices columns whose source neuron spiked
+     * @param decay factor by which responses approach baseline in one time step
+     * @param baseline the baseline responses decay towards
+     * @param response the new response of an entry in a spiking column, given its current response and its weight
+     */
+    inline fun update(
+        psrMatrix: Matrix,
+        weightMatrix: Matrix,
+        spikeIndices: IntArray,
+        decay: Double,
+        baseline: Double,
+        response: (psr: Double, weight: Double) -> Double
+    ) {
+        init(psrMatrix, baseline)
+        val spikeResponses = spikeResponses()
+        for (j in spikeIndices) {
+            val scale = columnScales[j]
+            for (i in 0 until rows) {
+                val current = baseline + scale * (psrMatrix[i, j] - baseline)
+                val psr = response(current, weightMatrix[i, j])
+                psrMatrix[i, j] = psr
+                rowSums[i] -= current
+                spikeResponses[i] += psr
+            }
+        }
+        val nonSpikingBaseline = (cols - spikeIndices.size) * baseline
+        for (i in 0 until rows) {
+            rowSums[i] = nonSpikingBaseline + decay * (rowSums[i] - nonSpikingBaseline) + spikeResponses[i]
+        }
+        for (j in 0 until cols) {
+            columnScales[j] *= decay
+        }
+        for (j in spikeIndices) {
+            columnScales[j] = 1.0
+        }
+    }
+
+    /**
+     * Compute row sums the first time an update occurs, or bring the psr matrix up to date if the baseline changed.
+     */
+    fun init(psrMatrix: Matrix, baseline: Double) {
+        if (!initialized || baseline != this.baseline) {
+            materialize(psrMatrix)
+            this.baseline = baseline
+            rowSums = psrMatrix.rowSums()
+            initialized = true
+        }
+    }
+
+    /**
+     * Returns a zeroed scratch array for spike responses.
+     */
+    fun spikeResponses(): DoubleArray {
+        val responses = spikeResponses ?: DoubleArray(rows).also { spikeResponses = it }
+        responses.fill(0.0)
+        return responses
+    }
+
+    /**
+     * Write the current responses to the psr matrix. Also recomputes the row sums, which removes any accumulated
+     * rounding error.
+     */
+    override fun materialize(psrMatrix: Matrix) {
+        for (j in 0 until cols) {
+            val scale = columnScales[j]
+            if (scale != 1.0) {
+                for (i in 0 until rows) {
+                    psrMatrix[i, j] = baseline + scale * (psrMatrix[i, j] - baseline)
+                }
+                columnScales[j] = 1.0
+            }
+        }
+        if (initialized) {
+            rowSums = psrMatrix.rowSums()
+        }
+    }
+}
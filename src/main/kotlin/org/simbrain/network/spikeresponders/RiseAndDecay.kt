@@ -21,6 +21,7 @@ package org.simbrain.network.spikeresponders
 import org.simbrain.network.core.Connector
 import org.simbrain.network.core.Synapse
 import org.simbrain.network.matrix.NeuronArray
+import org.simbrain.network.matrix.SparseWeightMatrix
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder
 import org.simbrain.network.util.MatrixDataHolder
@@ -64,18 +65,37 @@ class RiseAndDecay : SpikeResponder() {
     }
 
     override fun apply(conn: Connector, data: MatrixDataHolder) {
-        val wm = conn.let { if (it is WeightMatrix) it else return }
         val na = conn.source.let { if (it is NeuronArray) it else return }
         val responseData = data.let { if (it is RiseAndDecayMatrixData) it else return }
         val spikeData = na.dataHolder.let { if (it is SpikingMatrixData) it else return }
-        if (na.updateRule.isSpikingRule) {
-            for (i in 0 until wm.weightMatrix.nrows()) {
-                for (j in 0 until wm.weightMatrix.ncols()) {
+        if (!na.updateRule.isSpikingRule) {
+            return
+        }
+        if (conn is SparseWeightMatrix) {
+            // Response data has one column per stored entry
+            val psrs = conn.psrs
+            val weights = conn.values
+            val columns = conn.columnIndices
+            for (k in psrs.indices) {
+                val (psr, recovery) = riseAndDecay(
+                    spikeData.spikes[columns[k]],
+                    psrs[k],
+                    responseData.recoveryMatrix[0, k],
+                    weights[k],
+                    na.network.timeStep
+                )
+                psrs[k] = psr
+                responseData.recoveryMatrix.set(0, k, recovery)
+            }
+        } else if (conn is WeightMatrix) {
+            val wm = conn
+            for (i in 0 until wm.weightMatrixForReading.nrows()) {
+                for (j in 0 until wm.weightMatrixForReading.ncols()) {
                     val (psr, recovery) = riseAndDecay(
                         spikeData.spikes[j],
                         wm.psrMatrix[i, j],
                         responseData.recoveryMatrix[i,j],
-                        wm.weightMatrix[i, j],
+                        wm.weightMatrixForReading[i, j],
                         na.network.timeStep
                     )
                     wm.psrMatrix.set(i, j, psr)
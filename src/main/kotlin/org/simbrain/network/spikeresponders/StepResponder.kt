@@ -21,6 +21,7 @@ package org.simbrain.network.spikeresponders
 import org.simbrain.network.core.Connector
 import org.simbrain.network.core.Synapse
 import org.simbrain.network.matrix.NeuronArray
+import org.simbrain.network.matrix.SparseWeightMatrix
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.synapse_update_rules.spikeresponders.SpikeResponder
 import org.simbrain.network.util.MatrixDataHolder
@@ -53,34 +54,57 @@ class StepResponder(
 ) : SpikeResponder() {
 
     override fun apply(conn: Connector, data: MatrixDataHolder) {
-        val wm = conn.let { if (it is WeightMatrix) it else return }
         val na = conn.source.let { if (it is NeuronArray) it else return }
         val stepResponseData = data.let { if (it is StepMatrixData) it else return }
         val spikeData = na.dataHolder.let { if (it is SpikingMatrixData) it else return }
-        if (na.updateRule.isSpikingRule) {
-            spikeData.spikes.forEachIndexed { col, spiked ->
-                if (spiked) {
-                    for (row in 0 until stepResponseData.counterMatrix.nrows()) {
-                        stepResponseData.counterMatrix.set(row, col, responseDuration.toDouble())
-                        wm.psrMatrix.set(row, col, responseHeight * wm.weightMatrix.get(row, col))
-                    }
+        if (!na.updateRule.isSpikingRule) {
+            return
+        }
+        if (conn is SparseWeightMatrix) {
+            // Counters have one column per stored entry
+            val counters = stepResponseData.counters
+            val psrs = conn.psrs
+            val weights = conn.values
+            val columns = conn.columnIndices
+            for (k in psrs.indices) {
+                if (spikeData.spikes[columns[k]]) {
+                    counters[k] = responseDuration.toDouble()
+                    psrs[k] = responseHeight * weights[k]
                 } else {
-                    for (row in 0 until stepResponseData.counterMatrix.nrows()) {
-                        stepResponseData.counterMatrix.set(row, col, stepResponseData.counterMatrix.get(row, col) - 1)
-                        if (stepResponseData.counterMatrix.get(row, col) < 0) {
-                            stepResponseData.counterMatrix.set(row, col, 0.0)
-                        }
-                    }
+                    counters[k] = maxOf(0.0, counters[k] - 1)
+                }
+                if (counters[k] <= 0) {
+                    psrs[k] = 0.0
                 }
-                for (i in 0 until stepResponseData.counterMatrix.nrows())
-                    for (j in 0 until stepResponseData.counterMatrix.ncols()) {
-                        if (stepResponseData.counterMatrix.get(i, j) <= 0) {
-                            wm.psrMatrix.set(i, j, 0.0)
+            }
+        } else if (conn is WeightMatrix) {
+            // Only columns whose response starts or ends are touched
+            val psrMatrix = conn.rawPsrMatrix
+            val weights = conn.weightMatrixForReading
+            val counters = stepResponseData.counters
+            val rowSums = stepResponseData.rowSums
+            stepResponseData.init(psrMatrix)
+            for (col in counters.indices) {
+                if (counters[col] > 0 && !spikeData.spikes[col]) {
+                    counters[col] -= 1
+                    if (counters[col] <= 0) {
+                        counters[col] = 0.0
+                        for (row in rowSums.indices) {
+                            rowSums[row] -= psrMatrix[row, col]
+                            psrMatrix[row, col] = 0.0
                         }
                     }
+                }
+            }
+            for (col in spikeData.spikeIndices) {
+                counters[col] = maxOf(0, responseDuration).toDouble()
+                for (row in rowSums.indices) {
+                    val psr = if (responseDuration > 0) responseHeight * weights[row, col] else 0.0
+                    rowSums[row] += psr - psrMatrix[row, col]
+                    psrMatrix[row, col] = psr
+                }
             }
         }
-
     }
 
     override fun createMatrixData(rows: Int, cols: Int): MatrixDataHolder {
@@ -134,9 +158,57 @@ class StepResponderData(
     }
 }
 
-class StepMatrixData(val rows: Int, val cols: Int) : MatrixDataHolder {
-    var counterMatrix = Matrix(rows, cols)
+/**
+ * Step response data for weight matrices. All responses in a column start when the source neuron spikes, so one
+ * counter is kept per column, and the row sums of the psr matrix are only updated when a column's response starts or
+ * ends.
+ */
+class StepMatrixData(val rows: Int, val cols: Int) : PsrRowSumData {
+
+    /**
+     * Remaining duration of the response of each column.
+     */
+    var counters = DoubleArray(cols)
+
+    override var rowSums = DoubleArray(rows)
+
+    /**
+     * False until the psr matrix has been cleared and the row sums computed.
+     */
+    private var initialized = false
+
+    /**
+     * The counters as a matrix with the same shape as the weight matrix.
+     */
+    val counterMatrix: Matrix
+        get() = Matrix(rows, cols).also {
+            for (i in 0 until rows) {
+                for (j in 0 until cols) {
+                    it[i, j] = counters[j]
+                }
+            }
+        }
+
+    /**
+     * Clear responses of inactive columns and compute row sums the first time an update occurs.
+     */
+    fun init(psrMatrix: Matrix) {
+        if (!initialized) {
+            for (j in 0 until cols) {
+                if (counters[j] <= 0) {
+                    for (i in 0 until rows) {
+                        psrMatrix[i, j] = 0.0
+                    }
+                }
+            }
+            rowSums = psrMatrix.rowSums()
+            initialized = true
+        }
+    }
+
     override fun copy() = StepMatrixData(rows, cols).also {
-        it.counterMatrix = counterMatrix.clone()
+        it.counters = counters.copyOf()
+        it.rowSums = rowSums.copyOf()
+        it.initialized = initialized
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.simbrain.network.update_actions
+
+import org.simbrain.network.core.Network
+import org.simbrain.workspace.updater.UpdateAction
+
+/**
+ * Buffered update in which loose neurons and synapses are first compiled into primitive arrays (see
+ * [org.simbrain.network.core.CompiledNetwork]). Produces the same results as [BufferedUpdate] but is much faster
+ * for large networks of loose neurons with supported update rules.
+ *
+ * @author jyoshimi
+ */
+class CompiledUpdate(private val network: Network) : UpdateAction("Loose neurons (compiled) and synapses", "Compiled buffered update of loose items") {
+    override suspend fun run() {
+        network.compiledBufferedUpdate()
+    }
+}
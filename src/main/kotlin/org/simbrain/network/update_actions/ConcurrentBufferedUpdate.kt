@@ -0,0 +1,60 @@
+package org.simbrain.network.update_actions
+
+import org.simbrain.network.core.Network
+import org.simbrain.network.core.Neuron
+import org.simbrain.network.core.Synapse
+import org.simbrain.workspace.updater.UpdateAction
+
+/**
+ * Multi-threaded version of [BufferedUpdate] for loose neurons and synapses. Neuron inputs are computed in contiguous
+ * chunks on a fork-join pool before any neuron is updated, and any thread updating a neuron's inputs also updates its
+ * afferent synapses' outputs. Neurons whose rule only touches their own input and state (see
+ * [org.simbrain.network.core.NeuronUpdateRule.updatesNeuronsIndependently]) are then updated in parallel as well,
+ * while neurons whose rule reads other neurons (for example [org.simbrain.network.neuron_update_rules.KuramotoRule])
+ * or keeps state in the rule itself (for example [org.simbrain.network.neuron_update_rules.HodgkinHuxleyRule], which is
+ * shared by all neurons it is set on) and synapses are updated in order on the calling thread.
+ * Activation listeners are always notified on the calling thread. The results are the same as a [BufferedUpdate],
+ * independently of the number of threads; see [Network.concurrentBufferedUpdate].
+ *
+ * @author Zoë Tosi
+ * @author jyoshimi
+ */
+class ConcurrentBufferedUpdate @JvmOverloads constructor(
+    private val network: Network,
+    /**
+     * Number of neurons (or synapses) updated by a single task.
+     */
+    var chunkSize: Int = DEFAULT_CHUNK_SIZE
+) : UpdateAction("Loose neurons (concurrent buffered) and synapses", "Multi-threaded buffered update of loose items") {
+
+    companion object {
+        const val DEFAULT_CHUNK_SIZE = 256
+    }
+
+    /**
+     * Cached array of the network's free neurons.
+     */
+    @Transient
+    private var neurons: Array<Neuron>? = null
+
+    /**
+     * Cached array of the network's free synapses.
+     */
+    @Transient
+    private var synapses: Array<Synapse>? = null
+
+    /**
+     * [Network.structureVersion] when the cached arrays were created.
+     */
+    @Transient
+    private var cachedVersion = -1L
+
+    override suspend fun run() {
+        if (neurons == null || cachedVersion != network.structureVersion) {
+            neurons = network.freeNeurons.toTypedArray()
+            synapses = network.freeSynapses.toTypedArray()
+            cachedVersion = network.structureVersion
+        }
+        network.concurrentBufferedUpdate(neurons!!, synapses!!, chunkSize.coerceAtLeast(1))
+    }
+}
@@ -269,9 +269,10 @@ open class AdExIFRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
 
     override fun apply(na: Layer, data: MatrixDataHolder) {
         if (na is NeuronArray && data is AdexMatrixData) {
+            val excitInputs = DoubleArray(na.size())
+            val inhibInputs = DoubleArray(na.size())
+            na.addSignedInputsTo(excitInputs, inhibInputs)
             for (i in 0 until na.size()) {
-                val excitInputs = na.excitatoryInputs
-                val inhibInputs = na.inhibitoryInputs
                 val (spiked, v, w) = adExRule(
                     na.activations.get(i, 0),
                     data.w.get(i),
@@ -142,6 +142,10 @@ class FitzhughNagumo : SpikingNeuronUpdateRule(), NoisyUpdateRule {
         }
     }
 
+    override fun hasArrayKernel() = javaClass == FitzhughNagumo::class.java
+
+    override fun updatesNeuronsIndependently() = javaClass == FitzhughNagumo::class.java
+
     private fun fitzhughNagumoRule(
         initV: Double,
         initW: Double,
@@ -152,6 +152,13 @@ open class IntegrateAndFireRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
         }
     }
 
+    /**
+     * Subclasses that only override the scalar rule don't have an array kernel.
+     */
+    override fun hasArrayKernel() = javaClass == IntegrateAndFireRule::class.java
+
+    override fun updatesNeuronsIndependently() = javaClass == IntegrateAndFireRule::class.java
+
     override fun apply(n: Neuron, data: ScalarDataHolder) {
         val(spiked, V) = intFireRule(n.network.time, n.lastSpikeTime, n.network.timeStep, n.input, n.activation)
         n.isSpike = spiked
@@ -18,13 +18,19 @@
  */
 package org.simbrain.network.updaterules
 
+import org.simbrain.network.core.Layer
 import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.SpikingNeuronUpdateRule
+import org.simbrain.network.matrix.NeuronArray
 import org.simbrain.network.neuron_update_rules.interfaces.NoisyUpdateRule
+import org.simbrain.network.util.MatrixDataHolder
 import org.simbrain.network.util.ScalarDataHolder
+import org.simbrain.network.util.SpikingMatrixData
+import org.simbrain.network.util.SpikingScalarData
 import org.simbrain.util.UserParameter
 import org.simbrain.util.stats.ProbabilityDistribution
 import org.simbrain.util.stats.distributions.UniformRealDistribution
+import org.simbrain.workspace.Producible
 
 /**
  * **IzhikevichNeuron**. Default values correspond to "tonic spiking". TODO:
@@ -33,11 +39,6 @@ import org.simbrain.util.stats.distributions.UniformRealDistribution
  * faster/cooler. Just a thought.
  */
 class IzhikevichRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
-    /**
-     * Recovery.
-     */
-    private var recovery = 0.0
-
     /**
      * A.
      */
@@ -122,9 +123,6 @@ class IzhikevichRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
      */
     var refractoryPeriod = 0.0 //ms
 
-    //TODO
-    private var timeStep = 0.0
-    private var `val` = 0.0
     override fun deepCopy(): IzhikevichRule {
         val `in` = IzhikevichRule()
         `in`.a = a
@@ -138,24 +136,68 @@ class IzhikevichRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
     }
 
     override fun apply(neuron: Neuron, data: ScalarDataHolder) {
-        timeStep = neuron.network.timeStep
+        if (data !is IzhikevichScalarData) {
+            return
+        }
+        val timeStep = neuron.network.timeStep
         val activation = neuron.activation
-        var inputs = 0.0
-        inputs = neuron.input
+        var inputs = neuron.input
         if (addNoise) {
             inputs += noiseGenerator.sampleDouble()
         }
         inputs += iBg
+        var recovery = data.recovery
         recovery += timeStep * (a * (b * activation - recovery))
-        `val` = activation + timeStep * (.04 * (activation * activation) + 5 * activation + 140 - recovery + inputs)
-        if (`val` >= threshold) {
-            `val` = c
+        var v = activation + timeStep * (.04 * (activation * activation) + 5 * activation + 140 - recovery + inputs)
+        if (v >= threshold) {
+            v = c
             recovery += d
             neuron.isSpike = true
         } else {
             neuron.isSpike = false
         }
-        neuron.activation = `val`
+        data.recovery = recovery
+        neuron.activation = v
+    }
+
+    override fun apply(na: Layer, data: MatrixDataHolder) {
+        if (na is NeuronArray && data is IzhikevichMatrixData) {
+            val timeStep = na.network.timeStep
+            val time = na.network.time
+            val activations = na.activations
+            val inputs = na.inputs
+            for (i in 0 until na.size()) {
+                val activation = activations[i, 0]
+                var input = inputs[i, 0]
+                if (addNoise) {
+                    input += noiseGenerator.sampleDouble()
+                }
+                input += iBg
+                var u = data.recovery[i]
+                u += timeStep * (a * (b * activation - u))
+                var v = activation + timeStep * (.04 * (activation * activation) + 5 * activation + 140 - u + input)
+                val spiked = v >= threshold
+                if (spiked) {
+                    v = c
+                    u += d
+                }
+                data.recovery[i] = u
+                data.setHasSpiked(i, spiked, time)
+                activations[i, 0] = v
+            }
+        }
+    }
+
+    override fun hasArrayKernel() = javaClass == IzhikevichRule::class.java
+
+    override fun updatesNeuronsIndependently() = javaClass == IzhikevichRule::class.java
+
+    override fun createScalarData(): ScalarDataHolder {
+        return IzhikevichScalarData()
+    }
+
+    override fun createMatrixData(size: Int): MatrixDataHolder {
+        return IzhikevichMatrixData(size)
     }
 
     override fun getRandomValue(): Double {
@@ -198,4 +240,23 @@ class IzhikevichRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
     override fun getGraphicalLowerBound(): Double {
         return c
     }
-}
\ No newline at end of file
+}
+
+class IzhikevichScalarData(
+    @UserParameter(label = "Recovery", description = "Recovery variable.")
+    @get:Producible
+    var recovery: Double = 0.0
+) : SpikingScalarData() {
+    override fun copy(): IzhikevichScalarData {
+        return IzhikevichScalarData(recovery)
+    }
+}
+
+class IzhikevichMatrixData(size: Int) : SpikingMatrixData(size) {
+    @get:Producible
+    var recovery = DoubleArray(size)
+    override fun copy() = IzhikevichMatrixData(size).also {
+        commonCopy(it)
+        it.recovery = recovery.copyOf()
+    }
+}
@@ -1,10 +1,14 @@
 package org.simbrain.network.updaterules
 
+import org.simbrain.network.core.Layer
 import org.simbrain.network.core.Neuron
 import org.simbrain.network.core.NeuronUpdateRule
 import org.simbrain.network.core.SpikingNeuronUpdateRule
+import org.simbrain.network.matrix.NeuronArray
 import org.simbrain.network.neuron_update_rules.interfaces.NoisyUpdateRule
+import org.simbrain.network.util.MatrixDataHolder
 import org.simbrain.network.util.MorrisLecarData
+import org.simbrain.network.util.MorrisLecarMatrixData
 import org.simbrain.network.util.ScalarDataHolder
 import org.simbrain.util.UserParameter
 import org.simbrain.util.stats.ProbabilityDistribution
@@ -195,20 +199,46 @@ class MorrisLecarRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
     private var noiseGenerator: ProbabilityDistribution = NormalDistribution(0.0, 1.0)
     override fun apply(neuron: Neuron, dat: ScalarDataHolder) {
         val data = dat as MorrisLecarData
-        val dt = neuron.network.timeStep
-        val i_syn = neuron.input
-        // Under normal circumstances this will cause no change.
-        var vMembrane = neuron.activation
-        val dVdt = dVdt(vMembrane, i_syn, data.w_K)
-        val dWdt = dWdt(vMembrane, data.w_K)
-        val vmFut = vMembrane + dt * dVdt
-        val wKFut = data.w_K + dt * dWdt
-        vMembrane = vMembrane + dt / 2 * (dVdt + dVdt(vmFut, i_syn, data.w_K))
-        data.w_K = data.w_K + dt / 2 * (dWdt + dWdt(vMembrane, wKFut))
+        val (vMembrane, w_K) = morrisLecarRule(neuron.activation, data.w_K, neuron.input, neuron.network.timeStep)
+        data.w_K = w_K
         neuron.isSpike = vMembrane > threshold
         neuron.activation = vMembrane
     }
 
+    override fun apply(array: Layer, dat: MatrixDataHolder) {
+        if (array is NeuronArray && dat is MorrisLecarMatrixData) {
+            val dt = array.network.timeStep
+            val time = array.network.time
+            val activations = array.activations
+            val inputs = array.inputs
+            for (i in 0 until array.size()) {
+                val (vMembrane, w_K) = morrisLecarRule(activations[i, 0], dat.w_K[i], inputs[i, 0], dt)
+                dat.w_K[i] = w_K
+                dat.setHasSpiked(i, vMembrane > threshold, time)
+                activations[i, 0] = vMembrane
+            }
+        }
+    }
+
+    override fun hasArrayKernel() = javaClass == MorrisLecarRule::class.java
+
+    override fun updatesNeuronsIndependently() = javaClass == MorrisLecarRule::class.java
+
+    /**
+     * Advance membrane voltage and the fraction of open potassium channels by one time step (Heun's method).
+     */
+    private fun morrisLecarRule(initV: Double, initW_K: Double, i_syn: Double, dt: Double): Pair<Double, Double> {
+        // Under normal circumstances this will cause no change.
+        var vMembrane = initV
+        val dVdt = dVdt(vMembrane, i_syn, initW_K)
+        val dWdt = dWdt(vMembrane, initW_K)
+        val vmFut = vMembrane + dt * dVdt
+        val wKFut = initW_K + dt * dWdt
+        vMembrane = vMembrane + dt / 2 * (dVdt + dVdt(vmFut, i_syn, initW_K))
+        val w_K = initW_K + dt / 2 * (dWdt + dWdt(vMembrane, wKFut))
+        return Pair(vMembrane, w_K)
+    }
+
     private fun dVdt(vMembrane: Double, i_syn: Double, w_K: Double): Double {
         val i_Ca = g_Ca * membraneFunction(vMembrane) * (vMembrane - vRest_Ca)
         val i_K = g_K * w_K * (vMembrane - vRest_k)
@@ -229,6 +259,10 @@ class MorrisLecarRule : SpikingNeuronUpdateRule(), NoisyUpdateRule {
         return MorrisLecarData()
     }
 
+    override fun createMatrixData(size: Int): MatrixDataHolder {
+        return MorrisLecarMatrixData(size)
+    }
+
     private fun membraneFunction(vMembrane: Double): Double {
         return 0.5 * (1 + Math.tanh((vMembrane - v_m1) / v_m2))
     }
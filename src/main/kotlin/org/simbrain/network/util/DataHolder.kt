@@ -26,6 +26,60 @@ open class SpikingMatrixData(var size: Int) : MatrixDataHolder {
     var spikes = BooleanArray(size) // TODO: Possibly use int Smile array of binary ints for perf
         private set
     var lastSpikeTimes = DoubleArray(size)
+
+    /**
+     * Indices of the neurons that spiked, in no particular order, in the first [numSpikes] entries. Kept up to date
+     * by [setHasSpiked], so that listing spikes costs time proportional to the number of spikes. Built from [spikes]
+     * when first needed.
+     */
+    @Transient
+    private var spikeList: IntArray? = null
+
+    /**
+     * Position of each spiking neuron in [spikeList], so that it can be removed in constant time.
+     */
+    @Transient
+    private var spikePositions: IntArray? = null
+
+    /**
+     * Number of neurons that spiked.
+     */
+    @Transient
+    private var numSpikes = 0
+
+    /**
+     * Sorted copy of the spike list returned by [spikeIndices]. Rebuilt only when spikes change.
+     */
+    @Transient
+    private var spikeIndexCache: IntArray? = null
+
+    /**
+     * Indices of the neurons that spiked, in increasing order. Lets event-driven code (e.g. spike responders) do work
+     * proportional to the number of spikes. The returned array is not modified later and may be retained.
+     */
+    val spikeIndices: IntArray
+        get() = spikeIndexCache ?: spikeList().copyOf(numSpikes).also {
+            it.sort()
+            spikeIndexCache = it
+        }
+
+    private fun spikeList(): IntArray = spikeList ?: run {
+        val list = IntArray(spikes.size)
+        val positions = IntArray(spikes.size)
+        var count = 0
+        for (i in spikes.indices) {
+            if (spikes[i]) {
+                list[count] = i
+                positions[i] = count
+                count++
+            }
+        }
+        spikePositions = positions
+        numSpikes = count
+        spikeList = list
+        list
+    }
+
     override fun copy() = SpikingMatrixData(size).also {
         it.spikes = spikes.copyOf()
         it.lastSpikeTimes = lastSpikeTimes.copyOf()
@@ -34,10 +88,28 @@ open class SpikingMatrixData(var size: Int) : MatrixDataHolder {
     fun commonCopy(toCopy: SpikingMatrixData) {
         toCopy.spikes = spikes.copyOf()
         toCopy.lastSpikeTimes = lastSpikeTimes.copyOf()
+        toCopy.spikeList = null
+        toCopy.spikeIndexCache = null
     }
 
     fun setHasSpiked(i: Int, hasSpiked: Boolean, networkTime: Double) {
-        spikes[i] = hasSpiked
+        if (spikes[i] != hasSpiked) {
+            spikes[i] = hasSpiked
+            spikeIndexCache = null
+            val list = spikeList
+            val positions = spikePositions
+            if (list != null && positions != null) {
+                if (hasSpiked) {
+                    list[numSpikes] = i
+                    positions[i] = numSpikes
+                    numSpikes++
+                } else {
+                    val last = list[--numSpikes]
+                    list[positions[i]] = last
+                    positions[last] = positions[i]
+                }
+            }
+        }
         if (hasSpiked) {
             lastSpikeTimes[i] = networkTime
         }
@@ -59,9 +131,17 @@ interface ScalarDataHolder : CopyableObject {
     override fun copy(): ScalarDataHolder
 }
 
+/**
+ * Holds no data, so a single instance is shared by everything that needs one.
+ */
 class EmptyScalarData : ScalarDataHolder {
     override fun copy(): EmptyScalarData {
-        return EmptyScalarData()
+        return INSTANCE
+    }
+
+    companion object {
+        @JvmField
+        val INSTANCE = EmptyScalarData()
     }
 }
 
@@ -130,3 +210,57 @@ class MorrisLecarData(
     }
 }
 
+class MorrisLecarMatrixData(size: Int) : SpikingMatrixData(size) {
+    /**
+     * Fraction of open potassium channels.
+     */
+    var w_K = DoubleArray(size)
+    override fun copy() = MorrisLecarMatrixData(size).also {
+        commonCopy(it)
+        it.w_K = w_K.copyOf()
+    }
+}
+
+/**
+ * Gating variables of Hodgkin-Huxley neurons.
+ */
+class HodgkinHuxleyMatrixData(val size: Int, initN: Double = 0.0, initM: Double = 0.0, initH: Double = 0.0) :
+    MatrixDataHolder {
+    var n = DoubleArray(size) { initN }
+    var m = DoubleArray(size) { initM }
+    var h = DoubleArray(size) { initH }
+    override fun copy() = HodgkinHuxleyMatrixData(size).also {
+        it.n = n.copyOf()
+        it.m = m.copyOf()
+        it.h = h.copyOf()
+    }
+}
+
+/**
+ * Per-neuron spike traces for trace-based learning rules on weight matrices: one pre-synaptic trace per source neuron
+ * (column) and one post-synaptic trace per target neuron (row). The slow traces are only used by triplet rules.
+ */
+class SpikeTraceMatrixData(val rows: Int, val cols: Int) : MatrixDataHolder {
+    var preTraces = DoubleArray(cols)
+    var postTraces = DoubleArray(rows)
+    var slowPreTraces = DoubleArray(cols)
+    var slowPostTraces = DoubleArray(rows)
+
+    /**
+     * Row-major derivative of each weight, used by smooth STDP. Null until first needed.
+     */
+    private var derivatives: DoubleArray? = null
+
+    /**
+     * Returns the row-major derivative of each weight, allocating it the first time.
+     */
+    fun weightDerivatives() = derivatives ?: DoubleArray(rows * cols).also { derivatives = it }
+
+    override fun copy() = SpikeTraceMatrixData(rows, cols).also {
+        it.preTraces = preTraces.copyOf()
+        it.postTraces = postTraces.copyOf()
+        it.slowPreTraces = slowPreTraces.copyOf()
+        it.slowPostTraces = slowPostTraces.copyOf()
+        it.derivatives = derivatives?.copyOf()
+    }
+}
@@ -0,0 +1,121 @@
+package org.simbrain.network.util
+
+import smile.math.matrix.Matrix
+
+/**
+ * Data for rate-based learning rules on weight matrices whose weight change has the form
+ *
+ * dW_ij = learningRate * (a_i * b_j - c_i * W_ij)
+ *
+ * i.e. an outer product of a post-synaptic vector a and a pre-synaptic vector b, minus a row scaling of the weights.
+ * Hebbian, Oja, CPCA and BCM style rules all have this form.
+ *
+ * Terms are accumulated for a number of steps and then applied together, as a minibatch: the decay terms use the
+ * weights at the start of the batch. With a batch size of 1 this is the usual online update. Either way the weights are
+ * visited in a single column-major pass per update.
+ */
+open class RankOneUpdateData(val rows: Int, val cols: Int) : MatrixDataHolder {
+
+    /**
+     * Post-synaptic vectors of the current batch, one after another.
+     */
+    private var postTerms = DoubleArray(0)
+
+    /**
+     * Pre-synaptic vectors of the current batch, one after another.
+     */
+    private var preTerms = DoubleArray(0)
+
+    /**
+     * Sum of the decay coefficients of each row over the current batch.
+     */
+    private var decaySums = DoubleArray(rows)
+
+    /**
+     * Number of steps accumulated in the current batch.
+     */
+    var count = 0
+        private set
+
+    override fun copy() = RankOneUpdateData(rows, cols).also { copyTo(it) }
+
+    protected fun copyTo(copy: RankOneUpdateData) {
+        copy.postTerms = postTerms.copyOf()
+        copy.preTerms = preTerms.copyOf()
+        copy.decaySums = decaySums.copyOf()
+        copy.count = count
+    }
+
+    /**
+     * Add one step's terms to the batch, and update the weights if the batch is full.
+     *
+     * @param weights the weight matrix to update
+     * @param learningRate the learning rate
+     * @param batchSize number of steps to accumulate before updating the weights
+     * @param post the post-synaptic vector a (one entry per row)
+     * @param pre the pre-synaptic vector b (one entry per column)
+     * @param decay the decay coefficients c (one entry per row), or null if the rule has no decay term
+     */
+    fun accumulate(
+        weights: Matrix,
+        learningRate: Double,
+        batchSize: Int,
+        post: DoubleArray,
+        pre: DoubleArray,
+        decay: DoubleArray?
+    ) {
+        val size = maxOf(batchSize, 1)
+        if (postTerms.size != size * rows) {
+            postTerms = postTerms.copyOf(size * rows)
+            preTerms = preTerms.copyOf(size * cols)
+            count = minOf(count, size - 1)
+        }
+        System.arraycopy(post, 0, postTerms, count * rows, rows)
+        System.arraycopy(pre, 0, preTerms, count * cols, cols)
+        if (decay != null) {
+            for (i in 0 until rows) {
+                decaySums[i] += decay[i]
+            }
+        }
+        count++
+        if (count >= size) {
+            apply(weights, learningRate)
+        }
+    }
+
+    /**
+     * Apply the accumulated terms to the weights and start a new batch.
+     */
+    private fun apply(weights: Matrix, learningRate: Double) {
+        val rowScales = DoubleArray(rows) { 1 - learningRate * decaySums[it] }
+        for (j in 0 until cols) {
+            for (i in 0 until rows) {
+                weights[i, j] = weights[i, j] * rowScales[i]
+            }
+            for (t in 0 until count) {
+                val b = preTerms[t * cols + j]
+                if (b != 0.0) {
+                    val offset = t * rows
+                    for (i in 0 until rows) {
+                        weights[i, j] = weights[i, j] + learningRate * postTerms[offset + i] * b
+                    }
+                }
+            }
+        }
+        decaySums.fill(0.0)
+        count = 0
+    }
+}
+
+/**
+ * [RankOneUpdateData] with a modification threshold for each target neuron, for BCM style rules.
+ */
+class ThresholdRankOneUpdateData(rows: Int, cols: Int, initialThreshold: Double) : RankOneUpdateData(rows, cols) {
+
+    var thresholds = DoubleArray(rows) { initialThreshold }
+
+    override fun copy() = ThresholdRankOneUpdateData(rows, cols, 0.0).also {
+        copyTo(it)
+        it.thresholds = thresholds.copyOf()
+    }
+}
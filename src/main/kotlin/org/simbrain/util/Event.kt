@@ -18,6 +18,10 @@ import java.util.function.Consumer
  *
  * Note that change events using "old" and "new" will only fire if old is different from new.
  *
+ * Events are only dispatched (and thus a [java.beans.PropertyChangeEvent] only created) when there are listeners for
+ * them. For high frequency primitive valued events, like neuron activation changes, use a typed registry like
+ * [DoubleChangeEvent], which does not box values or allocate when fired.
+ *
  * Advantages of this design are: externally no need for strings, so all references can be autocompleted in the IDE.
  * Also, since the fireX and onX methods are (by convention) next to each other, it's easy
  * to get from the code where an event is fired in the code to where it is handled, and conversely.
@@ -38,21 +42,37 @@ import java.util.function.Consumer
  */
 open class Event(private val changeSupport: PropertyChangeSupport) {
 
+    companion object {
+        /**
+         * If true every fired event is logged at debug level. Off by default, since building a log message for
+         * each event is costly in large simulations.
+         */
+        @JvmStatic
+        var logEvents = false
+    }
+
     /**
      * Overload "operator" with an argument. Used for "firing" events with an argument
      */
     protected operator fun <T> String.invoke(old: T? = null, new: T? = null) {
-        changeSupport.firePropertyChange(this@invoke, old, new)
-        // changeSupport.firePropertyChange(this@invoke, old, new)
-        Logger.debug("${this}Event")
+        if (changeSupport.hasListeners(this)) {
+            changeSupport.firePropertyChange(this@invoke, old, new)
+        }
+        if (logEvents) {
+            Logger.debug("${this}Event")
+        }
     }
 
     /**
      * Overload operator with no argument. Used for "firing" events with no argument.
      */
     protected operator fun String.invoke() {
-        changeSupport.firePropertyChange(this, null, null)
-        Logger.debug("${this}Event")
+        if (changeSupport.hasListeners(this)) {
+            changeSupport.firePropertyChange(this, null, null)
+        }
+        if (logEvents) {
+            Logger.debug("${this}Event")
+        }
     }
 
     /**
@@ -112,4 +132,45 @@ open class Event(private val changeSupport: PropertyChangeSupport) {
         }
     }
 
-}
\ No newline at end of file
+}
+
+/**
+ * Handler for a change in a primitive double value. Used with [DoubleChangeEvent] to avoid boxing.
+ */
+fun interface DoubleChangeListener {
+    fun changed(old: Double, new: Double)
+}
+
+/**
+ * A registry of [DoubleChangeListener]s for a single primitive valued event. Listeners are stored in a
+ * copy-on-write array, so firing allocates nothing, is safe while listeners are added from other threads, and costs
+ * a single length check when nobody is listening. As with [Event], listeners are only notified if old is different
+ * from new.
+ */
+class DoubleChangeEvent {
+
+    @Volatile
+    private var listeners = emptyArray<DoubleChangeListener>()
+
+    val hasListeners get() = listeners.isNotEmpty()
+
+    @Synchronized
+    fun addListener(listener: DoubleChangeListener) {
+        listeners += listener
+    }
+
+    @Synchronized
+    fun removeListener(listener: DoubleChangeListener) {
+        listeners = listeners.filter { it !== listener }.toTypedArray()
+    }
+
+    fun fire(old: Double, new: Double) {
+        val current = listeners
+        if (current.isEmpty() || old.toRawBits() == new.toRawBits()) {
+            return
+        }
+        for (listener in current) {
+            listener.changed(old, new)
+        }
+    }
+}
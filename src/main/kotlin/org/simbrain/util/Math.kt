@@ -1,7 +1,9 @@
 package org.simbrain.util
 
 import org.simbrain.util.math.SimbrainMath
+import org.simbrain.util.stats.SplittableRandomGenerator
 import smile.math.matrix.Matrix
+import kotlin.random.Random
 
 /**
  * Numeric utilities in Kotlin. Comparable to [SimbrainMath].
@@ -134,4 +136,67 @@ fun makeDoubleSequence(start: Double, stop: Double, step: Double): Sequence<Doub
  */
 fun makeStringArray(start: Double, stop: Double, f: (Double) -> Double, step: Double = 1.0): String {
     return "[${makeDoubleSequence(start, stop, step).map(f).joinToString(",")}]"
-}
\ No newline at end of file
+}
+
+/**
+ * Index of the largest value, or -1 if the array is empty. Ties go to the lowest index, or if a [random] generator is
+ * provided, to a uniformly chosen one of the tied indices. One pass, without allocating.
+ */
+fun DoubleArray.argmax(random: Random? = null): Int {
+    var best = -1
+    var ties = 0
+    for (i in indices) {
+        if (best == -1 || this[i] > this[best]) {
+            best = i
+            ties = 1
+        } else if (random != null && this[i] == this[best]) {
+            // Reservoir sampling: the i'th tied index replaces the current one with probability 1 / ties
+            ties++
+            if (random.nextInt(ties) == 0) {
+                best = i
+            }
+        }
+    }
+    return best
+}
+
+/**
+ * Indices of the [k] largest values, in increasing order of index. Found by quickselect with pivots drawn from
+ * [random], in expected linear time, rather than by sorting. Of equal values, those with lower indices are taken first,
+ * so the result does not depend on the pivots chosen.
+ */
+fun DoubleArray.topK(k: Int, random: SplittableRandomGenerator = SplittableRandomGenerator()): IntArray {
+    if (k <= 0) {
+        return IntArray(0)
+    }
+    if (k >= size) {
+        return IntArray(size) { it }
+    }
+    val order = IntArray(size) { it }
+    // Whether index a ranks ahead of index b. A strict total order, so runs of equal values do not slow the selection.
+    fun ahead(a: Int, b: Int) = this[a] > this[b] || (this[a] == this[b] && a < b)
+    fun swap(a: Int, b: Int) {
+        val t = order[a]
+        order[a] = order[b]
+        order[b] = t
+    }
+    var lo = 0
+    var hi = size - 1
+    while (lo < hi) {
+        swap(lo + random.nextInt(hi - lo + 1), hi)
+        val pivot = order[hi]
+        var store = lo
+        for (i in lo until hi) {
+            if (ahead(order[i], pivot)) {
+                swap(i, store++)
+            }
+        }
+        swap(store, hi)
+        when {
+            store == k - 1 -> break
+            store < k - 1 -> lo = store + 1
+            else -> hi = store - 1
+        }
+    }
+    return order.copyOf(k).also { it.sort() }
+}
@@ -13,7 +13,7 @@ fun FloatArray.randomize(dist: ProbabilityDistribution) {
 }
 
 fun DoubleArray.randomize(dist: ProbabilityDistribution) {
-    forEachIndexed { i, _ -> this[i] = dist.sampleDouble() }
+    dist.sampleDouble(this)
 }
 
 fun Matrix.randomize(dist: ProbabilityDistribution) {
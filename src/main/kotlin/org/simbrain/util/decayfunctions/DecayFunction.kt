@@ -36,6 +36,13 @@ abstract class DecayFunction(
     // TODO: But note these are not normalized to be probability density functions
     abstract fun getScalingFactor(distance: Double): Double
 
+    /**
+     * Distance beyond which the scaling factor is zero or negligible, so that objects farther away can be skipped.
+     * Infinite if there is no such distance.
+     */
+    open val cutoffDistance: Double
+        get() = Double.POSITIVE_INFINITY
+
     /**
      * Distance from peak.
      *
@@ -1,6 +1,13 @@
 package org.simbrain.util.decayfunctions
 
 import kotlin.math.exp
+import kotlin.math.ln
+import kotlin.math.max
+
+/**
+ * Scaling factors below this are treated as zero when computing [ExponentialDecayFunction.cutoffDistance].
+ */
+const val NEGLIGIBLE_SCALING_FACTOR = 1e-12
 
 class ExponentialDecayFunction @JvmOverloads constructor(dispersion: Double = 70.0): DecayFunction() {
 
@@ -24,6 +31,12 @@ class ExponentialDecayFunction @JvmOverloads constructor(dispersion: Double = 70
         return (1/dispersion) * exp((-1/dispersion) * x)
     }
 
+    /**
+     * Distance past the peak at which the scaling factor falls below [NEGLIGIBLE_SCALING_FACTOR].
+     */
+    override val cutoffDistance
+        get() = peakDistance + dispersion * ln(max(1.0, 1 / (dispersion * NEGLIGIBLE_SCALING_FACTOR)))
+
     override fun copy(): ExponentialDecayFunction {
         return ExponentialDecayFunction(dispersion)
             .also {
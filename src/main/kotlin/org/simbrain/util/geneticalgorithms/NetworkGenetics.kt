@@ -166,7 +166,7 @@ class NetworkGeneticsContext(val network: Network) {
         return { network ->
             map { it.buildWithContext(this@NetworkGeneticsContext) }
                 .let {
-                    it.forEach(network::addNetworkModel)
+                    network.addNetworkModels(it)
                     NeuronCollection(network, it).apply(block) }
                 .also { network.addNetworkModel(it) }
         }
@@ -6,7 +6,6 @@ import com.thoughtworks.xstream.converters.reflection.ReflectionConverter
 import com.thoughtworks.xstream.converters.reflection.ReflectionProvider
 import com.thoughtworks.xstream.io.HierarchicalStreamReader
 import com.thoughtworks.xstream.mapper.Mapper
-import org.apache.commons.math3.random.JDKRandomGenerator
 import org.simbrain.util.UserParameter
 import org.simbrain.util.createConstructorCallingConverter
 import org.simbrain.util.getSimbrainXStream
@@ -27,10 +26,10 @@ import kotlin.reflect.jvm.javaType
 abstract class ProbabilityDistribution() : CopyableObject {
 
     /**
-     * Random generator for pseudo-random sequences on which a seed can be set.
+     * Random generator for pseudo-random sequences on which a seed can be set. Not thread safe; see [stream].
      */
     @Transient
-    val randomGenerator = JDKRandomGenerator()
+    val randomGenerator = SplittableRandomGenerator()
 
     /**
      * Use this to ensure two probability distributions return the same pseudo-random sequence of numbers.
@@ -51,12 +50,33 @@ abstract class ProbabilityDistribution() : CopyableObject {
 
     abstract fun sampleDouble(n: Int): DoubleArray
 
+    /**
+     * Fill an existing array with samples, in the same order as repeated calls to [sampleDouble].
+     */
+    open fun sampleDouble(out: DoubleArray) {
+        for (i in out.indices) {
+            out[i] = sampleDouble()
+        }
+    }
+
     abstract fun sampleInt(): Int
 
     abstract fun sampleInt(n: Int): IntArray
 
     abstract fun deepCopy(): ProbabilityDistribution
 
+    /**
+     * Returns a copy of this distribution that samples from an independent random stream. The stream only depends on
+     * the seed of this distribution and the index, so parallel code that uses stream i for the i-th model or chunk of
+     * work gets the same results for a given seed regardless of the number of threads. See
+     * [SplittableRandomGenerator.stream].
+     */
+    fun stream(index: Long): ProbabilityDistribution {
+        val copy = deepCopy()
+        copy.randomGenerator.setSeed(randomGenerator.stream(index).seed)
+        return copy
+    }
+
     abstract override val name: String
 
     override fun toString() = name
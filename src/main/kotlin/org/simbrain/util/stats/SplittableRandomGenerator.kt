@@ -0,0 +1,93 @@
+package org.simbrain.util.stats
+
+import org.apache.commons.math3.random.RandomGenerator
+import java.util.*
+
+/**
+ * Apache commons [RandomGenerator] backed by a [SplittableRandom]. Unlike [org.apache.commons.math3.random.JDKRandomGenerator],
+ * which wraps the synchronized [java.util.Random], sampling does not take a lock, so it is cheap to call once per
+ * neuron or matrix element. It is also not thread safe: code that samples in parallel should give each worker (or
+ * better, each model or chunk of work) its own generator using [stream].
+ *
+ * Streams are derived from the seed of this generator and an index, not from its current state or the thread that
+ * asks for them, so a computation that uses stream i for chunk i of its work produces the same numbers however the
+ * chunks are distributed over threads.
+ *
+ * @param seed initial seed. A random seed is used if null.
+ */
+class SplittableRandomGenerator(seed: Long? = null) : RandomGenerator {
+
+    /**
+     * The seed this generator was last (re)seeded with.
+     */
+    var seed: Long = seed ?: nextUniqueSeed()
+        private set
+
+    private var random = SplittableRandom(this.seed)
+
+    override fun setSeed(seed: Int) = setSeed(seed.toLong())
+
+    override fun setSeed(seed: IntArray) {
+        var combined = 0L
+        for (s in seed) {
+            combined = combined * 4294967291L + s
+        }
+        setSeed(combined)
+    }
+
+    override fun setSeed(seed: Long) {
+        this.seed = seed
+        random = SplittableRandom(seed)
+    }
+
+    /**
+     * Returns an independent generator for the stream with the given index. The same seed and index always give the
+     * same stream.
+     */
+    fun stream(index: Long) = SplittableRandomGenerator(mix64(seed + (index + 1) * GOLDEN_GAMMA))
+
+    /**
+     * Returns a new generator split off from the current state of this one. Deterministic given the sequence of calls
+     * made on this generator.
+     */
+    fun split() = SplittableRandomGenerator(random.nextLong())
+
+    override fun nextBytes(bytes: ByteArray) = random.nextBytes(bytes)
+
+    override fun nextInt() = random.nextInt()
+
+    override fun nextInt(n: Int) = random.nextInt(n)
+
+    override fun nextLong() = random.nextLong()
+
+    override fun nextBoolean() = random.nextBoolean()
+
+    override fun nextFloat() = random.nextFloat()
+
+    override fun nextDouble() = random.nextDouble()
+
+    override fun nextGaussian() = random.nextGaussian()
+
+    private companion object {
+
+        const val GOLDEN_GAMMA = -0x61c8864680b583ebL
+
+        /**
+         * Source of seeds for unseeded generators.
+         */
+        val seedUniquifier = SplittableRandom()
+
+        fun nextUniqueSeed() = synchronized(seedUniquifier) { seedUniquifier.nextLong() }
+
+        /**
+         * Stafford's variant 13 of the murmur3 64 bit finalizer, as used by [SplittableRandom]. Scrambles stream seeds so
+         * that nearby indices give unrelated streams.
+         */
+        fun mix64(z0: Long): Long {
+            var z = z0
+            z = (z xor (z ushr 30)) * -0x40a7b892e31b1a47L
+            z = (z xor (z ushr 27)) * -0x6b2fb644ecceee15L
+            return z xor (z ushr 31)
+        }
+    }
+}
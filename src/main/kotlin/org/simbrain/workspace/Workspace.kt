@@ -252,6 +252,7 @@ class Workspace @JvmOverloads constructor(
      */
     fun clearWorkspace() {
         stop()
+        updater.close()
         removeAllComponents()
         resetTime()
         setWorkspaceChanged(false)
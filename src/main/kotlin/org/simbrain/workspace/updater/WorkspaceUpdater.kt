@@ -6,7 +6,11 @@ import org.pmw.tinylog.Logger
 import org.simbrain.workspace.Workspace
 import org.simbrain.workspace.WorkspaceComponent
 import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
 import java.util.function.Consumer
+import javax.swing.SwingUtilities
+import kotlin.coroutines.CoroutineContext
 
 /**
  * This class manages workspace updates. "Running" and "Stepping" the simulation
@@ -23,6 +27,10 @@ import java.util.function.Consumer
  * threads that can be configured), for cases when component updating happens
  * concurrently.
  *
+ * By default [doUpdate] runs on a dedicated simulation thread (see [useSimulationThread]), so that the simulation
+ * does not compete with repainting on the Swing event thread. When a desktop is attached it only samples the state
+ * of the simulation at [guiFrameRate] frames per second. With no desktop attached updates run at full speed.
+ *
  * @author Matt Watson
  * @author Jeff Yoshimi
  */
@@ -37,8 +45,10 @@ class WorkspaceUpdater(val workspace: Workspace) {
      * Returns whether the updater is set to run.
      */
     /**
-     * Whether updates should continue to run.
+     * Whether updates should continue to run. Volatile since it is set from the gui and read on the simulation
+     * thread.
      */
+    @Volatile
     var isRunning = false
         private set
 
@@ -52,6 +62,56 @@ class WorkspaceUpdater(val workspace: Workspace) {
      */
     val updateManager: UpdateActionManager = UpdateActionManager(this)
 
+    /**
+     * If true, workspace updates run on a single pinned simulation thread. If false they run on the Swing event
+     * thread (via the workspace coroutine scope).
+     */
+    var useSimulationThread = true
+
+    /**
+     * True when a gui desktop is attached to the workspace. In that case "workspace updated" notifications are
+     * sampled at [guiFrameRate] and delivered on the Swing event thread, rather than sent after every update.
+     */
+    var isDesktopAttached = false
+
+    /**
+     * Maximum number of times per second the gui is notified of workspace updates when running on the simulation
+     * thread with a desktop attached.
+     */
+    var guiFrameRate = 60
+
+    /**
+     * Time (in nanoseconds) at which the gui was last notified of an update.
+     */
+    private var lastFrameTime = 0L
+
+    /**
+     * True while a gui notification is waiting on the Swing event queue, so that notifications don't pile up when
+     * the gui can't keep up with the simulation.
+     */
+    private val framePending = AtomicBoolean(false)
+
+    /**
+     * Dispatcher for the thread that owns [doUpdate] when [useSimulationThread] is true. A single thread is used so
+     * that update order, and thus simulation results, are the same as when updating on the event thread. Null until
+     * first needed and after [close].
+     */
+    private var simulationExecutor: ExecutorCoroutineDispatcher? = null
+
+    /**
+     * Returns the simulation thread's dispatcher, starting the thread if needed.
+     */
+    private val simulationDispatcher: ExecutorCoroutineDispatcher
+        @Synchronized get() = simulationExecutor ?: Executors.newSingleThreadExecutor { runnable ->
+            Thread(runnable, "Simbrain Simulation").apply { isDaemon = true }
+        }.asCoroutineDispatcher().also { simulationExecutor = it }
+
+    /**
+     * The context in which [doUpdate] is run.
+     */
+    private val updateContext: CoroutineContext
+        get() = if (useSimulationThread) simulationDispatcher else workspace.coroutineScope.coroutineContext
+
     /**
      * Reset time to 0.
      */
@@ -66,6 +126,17 @@ class WorkspaceUpdater(val workspace: Workspace) {
         isRunning = false
     }
 
+    /**
+     * Stops updating and shuts down the simulation thread once the current update is done. Called when the workspace
+     * is cleared. A new thread is started if the workspace is run again.
+     */
+    @Synchronized
+    fun close() {
+        stop()
+        simulationExecutor?.close()
+        simulationExecutor = null
+    }
+
     /**
      * Starts the update thread. Used when "running" the workspace by pressing
      * the play button in the gui.
@@ -76,11 +147,12 @@ class WorkspaceUpdater(val workspace: Workspace) {
             wc.isRunning = true
         }
         notifyWorkspaceUpdateStarted()
-        withContext(Dispatchers.Swing) {
+        withContext(if (useSimulationThread) simulationDispatcher else Dispatchers.Swing) {
             while (isRunning) {
                 doUpdate()
             }
         }
+        notifyGuiOfFinalState()
         isRunning = false
         for (component in workspace.componentList) {
             component.isRunning = false
@@ -97,9 +169,10 @@ class WorkspaceUpdater(val workspace: Workspace) {
             wc.isRunning = true
         }
         notifyWorkspaceUpdateStarted()
-        withContext(Dispatchers.Swing) {
+        withContext(if (useSimulationThread) simulationDispatcher else Dispatchers.Swing) {
             doUpdate()
         }
+        notifyGuiOfFinalState()
         notifyWorkspaceUpdateCompleted()
         isRunning = false
         for (component in workspace.componentList) {
@@ -138,11 +211,12 @@ class WorkspaceUpdater(val workspace: Workspace) {
             wc.isRunning = true
         }
         notifyWorkspaceUpdateStarted()
-        withContext(workspace.coroutineScope.coroutineContext) {
+        withContext(updateContext) {
             repeat(numIterations) {
                 doUpdate()
             }
         }
+        notifyGuiOfFinalState()
         isRunning = false
         finishingTask()
         for (component in workspace.componentList) {
@@ -157,7 +231,7 @@ class WorkspaceUpdater(val workspace: Workspace) {
     private suspend fun doUpdate() {
         time++
         Logger.trace("starting: $time")
-        withContext(workspace.coroutineScope.coroutineContext) {
+        withContext(updateContext) {
             for (action in updateManager.actionList + updateManager.nonRemovableActions) {
                 with(PerformanceMonitor) {
                     action()
@@ -216,11 +290,31 @@ class WorkspaceUpdater(val workspace: Workspace) {
     }
 
     /**
-     * Called after every workspace update .
+     * Called after every workspace update. When updates run on the simulation thread and a desktop is attached, the
+     * gui is only notified once per frame, on the Swing event thread.
      */
     private fun notifyWorkspaceUpdated() {
-        updaterListeners.forEach { it.workspaceUpdated() }
-        // notificationEvents.submit { updaterListeners.forEach(Consumer { obj: WorkspaceUpdaterListener -> obj.workspaceUpdated() }) }
+        if (!useSimulationThread || !isDesktopAttached) {
+            updaterListeners.forEach { it.workspaceUpdated() }
+            return
+        }
+        val now = System.nanoTime()
+        if (now - lastFrameTime >= 1_000_000_000L / guiFrameRate.coerceAtLeast(1) && framePending.compareAndSet(false, true)) {
+            lastFrameTime = now
+            SwingUtilities.invokeLater {
+                framePending.set(false)
+                updaterListeners.forEach { it.workspaceUpdated() }
+            }
+        }
+    }
+
+    /**
+     * Make sure the gui reflects the last update when a run ends, since intermediate frames may have been skipped.
+     */
+    private fun notifyGuiOfFinalState() {
+        if (useSimulationThread && isDesktopAttached) {
+            SwingUtilities.invokeLater { updaterListeners.forEach { it.workspaceUpdated() } }
+        }
     }
 
     /**
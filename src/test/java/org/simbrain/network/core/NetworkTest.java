@@ -2,6 +2,7 @@ package org.simbrain.network.core;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.simbrain.network.NetworkModel;
 import org.simbrain.network.groups.NeuronCollection;
 import org.simbrain.network.groups.NeuronGroup;
 import org.simbrain.network.groups.SynapseGroup;
@@ -9,10 +10,10 @@ import org.simbrain.network.matrix.NeuronArray;
 import org.simbrain.network.matrix.WeightMatrix;
 import org.simbrain.util.XStreamUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class NetworkTest {
     Network net;
@@ -125,4 +126,120 @@ public class NetworkTest {
         // (2 in neuron collection are free neurons)
         assertEquals(22, net.getFlatNeuronList().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBulkAddFiresOneEvent() {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<NetworkModel> singles = new ArrayList<>();
+        net.getEvents().onModelsAdded(models -> batchSizes.add(models.size()));
+        net.getEvents().onModelAdded(singles::add);
+        Neuron n3 = new Neuron(net);
+        Neuron n4 = new Neuron(net);
+        net.bulkAdd(() -> {
+            net.addNetworkModel(n3);
+            net.addNetworkModels(List.of(n4, new Synapse(n3, n4)));
+            // Nothing is added until the outermost bulk add finishes
+            assertEquals(22, net.getFlatNeuronList().size());
+            return null;
+        });
+        assertEquals(List.of(3), batchSizes);
+        assertTrue(singles.isEmpty());
+        assertEquals(24, net.getFlatNeuronList().size());
+        assertEquals(24, net.getPrioritySortedNeuronList().size());
+        assertNotNull(n3.getId());
+        assertNotEquals(n3.getId(), n4.getId());
+    }
+
+    @Test
+    public void testLookupsFollowChanges() {
+        assertSame(n1, net.getFreeNeuron(n1.getId().toUpperCase()));
+        assertSame(s1, net.getFreeSynapse(s1.getId()));
+        assertNull(net.getFreeNeuron("no such id"));
+
+        assertSame(n2, net.getNeuronByLabel("NEURON2"));
+        n2.setLabel("renamed");
+        assertNull(net.getNeuronByLabel("neuron2"));
+        assertSame(n2, net.getNeuronByLabel("renamed"));
+        ng1.getNeuron(3).setLabel("in group");
+        assertSame(ng1.getNeuron(3), net.getNeuronByLabel("in group"));
+
+        assertSame(ng2, net.getNeuronGroupByLabel("NG2"));
+        ng2.setLabel("group 2");
+        assertSame(ng2, net.getNeuronGroupByLabel("group 2"));
+
+        var all = net.getAllModels();
+        assertSame(all, net.getAllModels());
+        Neuron n3 = new Neuron(net);
+        net.addNetworkModel(n3);
+        assertTrue(net.getAllModels().contains(n3));
+        assertSame(n3, net.getFreeNeuron(n3.getId()));
+        n3.delete();
+        assertNull(net.getFreeNeuron(n3.getId()));
+    }
+
+    @Test
+    public void testLookupsFollowIdChanges() {
+        assertSame(n1, net.getFreeNeuron(n1.getId()));
+        String oldId = n1.getId();
+        n1.setId("custom id");
+        assertSame(n1, net.getFreeNeuron("Custom Id"));
+        assertNull(net.getFreeNeuron(oldId));
+        // Neurons in groups are not free neurons, even after their id changes
+        ng1.getNeuron(0).setId("group neuron");
+        assertNull(net.getFreeNeuron("group neuron"));
+    }
+
+    @Test
+    public void testLabelVersionIsPerNetwork() {
+        Network other = new Network();
+        long version = net.getLabelVersion();
+        Neuron neuron = new Neuron(other);
+        other.addNetworkModel(neuron);
+        neuron.setLabel("other");
+        assertEquals(version, net.getLabelVersion());
+        n1.setLabel("changed");
+        assertTrue(net.getLabelVersion() > version);
+    }
+
+    @Test
+    public void testDirectCopyMatchesXmlCopy() {
+        Network direct = NetworkCopier.copy(net);
+        assertNotNull(direct);
+        Network xml = net.xmlCopy();
+
+        List<NetworkModel> directModels = direct.getModelsInReconstructionOrder();
+        List<NetworkModel> xmlModels = xml.getModelsInReconstructionOrder();
+        assertEquals(xmlModels.size(), directModels.size());
+        for (int i = 0; i < xmlModels.size(); i++) {
+            assertEquals(xmlModels.get(i).getClass(), directModels.get(i).getClass());
+            assertEquals(xmlModels.get(i).getId(), directModels.get(i).getId());
+            assertEquals(xmlModels.get(i).getLabel(), directModels.get(i).getLabel());
+        }
+        assertNotSame(n1, direct.getFreeNeuron(n1.getId()));
+
+        for (int i = 0; i < 3; i++) {
+            direct.update();
+            xml.update();
+        }
+        List<Neuron> directNeurons = direct.getFlatNeuronList();
+        List<Neuron> xmlNeurons = xml.getFlatNeuronList();
+        assertEquals(xmlNeurons.size(), directNeurons.size());
+        for (int i = 0; i < xmlNeurons.size(); i++) {
+            assertEquals(xmlNeurons.get(i).getActivation(), directNeurons.get(i).getActivation(), 1e-6);
+        }
+        NeuronArray directArray = direct.getModels(NeuronArray.class).iterator().next();
+        NeuronArray xmlArray = xml.getModels(NeuronArray.class).iterator().next();
+        assertArrayEquals(xmlArray.getActivationArray(), directArray.getActivationArray(), 1e-6);
+    }
+
+    @Test
+    public void testCopySharesWeightsUntilChanged() {
+        Network copy = NetworkCopier.copy(net);
+        WeightMatrix wmCopy = copy.getModels(WeightMatrix.class).iterator().next();
+        wmCopy.getWeightMatrix().set(0, 0, 5);
+        assertEquals(1, wm1.getWeightMatrix().get(0, 0));
+        wm1.increment();
+        assertEquals(5, wmCopy.getWeightMatrix().get(0, 0));
+        assertEquals(1.1, wm1.getWeightMatrix().get(0, 0), 1e-12);
+    }
+}
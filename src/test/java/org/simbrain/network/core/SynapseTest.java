@@ -1,9 +1,17 @@
 package org.simbrain.network.core;
 
+import com.thoughtworks.xstream.XStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.simbrain.network.update_actions.CompiledUpdate;
+import org.simbrain.util.Parameter;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class SynapseTest {
@@ -55,6 +63,29 @@ public class SynapseTest {
         assertEquals(0, n1.getActivation(), 0.0);
     }
 
+    @Test
+    void testDelayedPsrArrivesAfterDelay() {
+        n1.forceSetActivation(1);
+        n1.setClamped(true);
+        s1.setStrength(1);
+        s1.setDelay(3);
+        for (int i = 0; i < 3; i++) {
+            net.update();
+            assertEquals(0, n2.getActivation(), 0.0);
+        }
+        net.update();
+        assertEquals(1, n2.getActivation(), 0.0);
+
+        // Delays longer than the initial wheel size
+        s1.setDelay(40);
+        for (int i = 0; i < 40; i++) {
+            net.update();
+            assertEquals(0, n2.getActivation(), 0.0);
+        }
+        net.update();
+        assertEquals(1, n2.getActivation(), 0.0);
+    }
+
     @Test
     void testEnabled() {
         n1.setActivation(1);
@@ -67,6 +98,31 @@ public class SynapseTest {
         assertEquals(1, n2.getActivation(), 0.0);
     }
 
+    @Test
+    void testDecrementAcrossZero() {
+        n1.forceSetActivation(1);
+        n1.setClamped(true);
+        s1.forceSetStrength(.25);
+        s1.setIncrement(.5);
+        net.getUpdateManager().clear();
+        net.addUpdateAction(new CompiledUpdate(net));
+        net.update();
+        assertEquals(.25, n2.getActivation(), 0.0);
+        assertEquals(1, n2.getNumExcitatoryFanIn());
+
+        long couplingVersion = net.getCouplingVersion();
+        s1.decrement();
+        assertEquals(-.25, s1.getStrength(), 0.0);
+        assertTrue(net.getCouplingVersion() > couplingVersion);
+
+        // The synapse moves to the inhibitory part of the fan-in, and the compiled weight follows
+        assertEquals(0, n2.getNumExcitatoryFanIn());
+        assertSame(s1, n2.getSignedFanIn()[0]);
+        net.update();
+        assertEquals(-.25, n2.getActivation(), 0.0);
+        assertEquals(-.25, n2.getInhibitoryInputs(), 0.0);
+    }
+
     @Test
     public void testLength() {
 
@@ -81,4 +137,56 @@ public class SynapseTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testTemplateParametersAreCopied() {
+        Synapse template = Synapse.getTemplateSynapse();
+        template.setUpperBound(5);
+        template.setDelay(2);
+        Synapse a = new Synapse(net, n1, n2, template);
+        Synapse b = new Synapse(net, n2, n1, template);
+        assertEquals(5, a.getUpperBound(), 0.0);
+        assertEquals(2, b.getDelay());
+
+        // Changing one synapse leaves the others as they were
+        a.setUpperBound(7);
+        a.setLowerBound(-3);
+        assertEquals(7, a.getUpperBound(), 0.0);
+        assertEquals(-3, a.getLowerBound(), 0.0);
+        assertEquals(5, b.getUpperBound(), 0.0);
+        assertEquals(template.getLowerBound(), b.getLowerBound(), 0.0);
+        assertEquals(5, template.getUpperBound(), 0.0);
+    }
+
+    @Test
+    void testParametersAreEditable() {
+        var labels = Parameter.getParameters(Synapse.class).stream()
+                .map(p -> p.getAnnotation().label())
+                .collect(Collectors.toSet());
+        assertTrue(labels.containsAll(List.of("Increment", "Upper bound", "Lower bound", "Delay")));
+        Parameter.getParameters(Synapse.class).stream()
+                .filter(p -> p.getAnnotation().label().equals("Upper bound"))
+                .forEach(p -> p.setFieldValue(s1, 3.0));
+        assertEquals(3, s1.getUpperBound(), 0.0);
+    }
+
+    @Test
+    void testLegacyParametersAreLoaded() {
+        // Files saved before parameters were shared have increment, bounds and delay as fields of the synapse
+        XStream xstream = NetworkUtilsKt.getNetworkXStream();
+        String xml = xstream.toXML(net).replaceAll("(?s)<parameters[^>]*/>|<parameters[^>]*>.*?</parameters>",
+                "<increment>2.0</increment><upperBound>5.0</upperBound><lowerBound>-4.0</lowerBound><delay>3</delay>");
+        Network loaded = (Network) xstream.fromXML(xml);
+        Synapse synapse = loaded.getModels(Synapse.class).iterator().next();
+        assertEquals(2, synapse.getIncrement(), 0.0);
+        assertEquals(5, synapse.getUpperBound(), 0.0);
+        assertEquals(-4, synapse.getLowerBound(), 0.0);
+        assertEquals(3, synapse.getDelay());
+
+        // Saving again uses the new format
+        String resaved = xstream.toXML(loaded);
+        assertTrue(resaved.contains("<parameters"));
+        assertEquals(5, ((Network) xstream.fromXML(resaved)).getModels(Synapse.class).iterator().next()
+                .getUpperBound(), 0.0);
+    }
+
+}
@@ -2,8 +2,12 @@ package org.simbrain.network.groups;
 
 import org.junit.jupiter.api.Test;
 import org.simbrain.network.core.Network;
+import org.simbrain.network.matrix.NeuronArray;
 import org.simbrain.network.matrix.WeightMatrix;
+import org.simbrain.network.neuron_update_rules.SpikingThresholdRule;
 import org.simbrain.network.neurongroups.SoftmaxGroup;
+import org.simbrain.network.updaterules.IzhikevichRule;
+import smile.math.matrix.Matrix;
 
 import java.util.Arrays;
 import java.util.List;
@@ -62,6 +66,59 @@ public class NeuronGroupTest {
         assertArrayEquals(new double[]{1.0, -1.0}, ng2.getActivations());
     }
 
+    @Test
+    void outputsAreReusedAndTrackActivations() {
+        ng.setActivations(new double[]{1.0, -1.0});
+        Matrix outputs = ng.getOutputs();
+        assertSame(outputs, ng.getOutputs());
+        ng.getNeuron(0).setActivation(.5);
+        assertSame(outputs, ng.getOutputs());
+        assertArrayEquals(new double[]{.5, -1.0}, outputs.col(0));
+    }
+
+    @Test
+    void inputsFromSeveralConnectorsAreSummed() {
+        ng.setActivations(new double[]{.25, -.25});
+        NeuronGroup ng2 = new NeuronGroup(net, 2);
+        WeightMatrix wm1 = new WeightMatrix(net, ng, ng2);
+        WeightMatrix wm2 = new WeightMatrix(net, ng, ng2);
+        net.addNetworkModels(List.of(ng2, wm1, wm2));
+        net.update();
+        assertArrayEquals(new double[]{.5, -.5}, ng2.getActivations());
+        net.update();
+        assertArrayEquals(new double[]{.5, -.5}, ng2.getActivations());
+    }
+
+    @Test
+    void arrayKernelMatchesNeuronArray() {
+        NeuronGroup group = new NeuronGroup(net, 3);
+        group.setPrototypeRule(new IzhikevichRule());
+        NeuronArray array = new NeuronArray(net, 3);
+        array.setUpdateRule(new IzhikevichRule());
+        double[] initial = {-65, -65, -65};
+        group.setActivations(initial);
+        array.setActivations(initial);
+        double[] inputs = {0, 5, 20};
+        for (int step = 0; step < 50; step++) {
+            group.addInputs(inputs);
+            array.addInputs(inputs);
+            group.update();
+            array.update();
+            assertArrayEquals(array.getActivationArray(), group.getActivations(), 1e-12);
+        }
+    }
+
+    @Test
+    void arrayKernelSetsSpikes() {
+        ng.setPrototypeRule(new SpikingThresholdRule());
+        ng.addInputs(new double[]{5, 0});
+        ng.update();
+        assertTrue(ng.getNeuron(0).isSpike());
+        assertFalse(ng.getNeuron(1).isSpike());
+        ng.update();
+        assertFalse(ng.getNeuron(0).isSpike());
+    }
+
     @Test
     void testSoftmax() {
         ng.randomize();
@@ -3,9 +3,14 @@ package org.simbrain.network.groups;
 import org.junit.jupiter.api.Test;
 import org.simbrain.network.connections.AllToAll;
 import org.simbrain.network.core.Network;
+import org.simbrain.network.core.Neuron;
+import org.simbrain.network.core.Synapse;
 import org.simbrain.network.core.SynapseGroup2;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class SynapseGroupTest {
 
@@ -18,6 +23,89 @@ public class SynapseGroupTest {
         assertEquals(sg.size(), 4);
     }
 
+    @Test
+    public void testCompactMode() {
+        Network net = new Network();
+        NeuronGroup source = new NeuronGroup(net, 2);
+        NeuronGroup target = new NeuronGroup(net, 2);
+        SynapseGroup2 sg = new SynapseGroup2(source, target);
+        net.addNetworkModels(List.of(source, target, sg));
+        sg.getSynapses().forEach(s -> s.forceSetStrength(.25));
+        double[][] weights = sg.getWeightMatrixArray();
+
+        assertTrue(sg.compact());
+        assertTrue(sg.isCompact());
+        assertEquals(4, sg.size());
+        assertTrue(source.getNeuron(0).getFanOut().isEmpty());
+        assertArrayEquals(weights, sg.getWeightMatrixArray());
+
+        // Inputs are computed from the packed strengths
+        source.setActivations(new double[]{1, .5});
+        net.update();
+        assertArrayEquals(new double[]{.375, .375}, target.getActivations(), 1e-12);
+
+        // Reading the synapses does not expand the group; expanding materializes them
+        assertTrue(sg.getSynapses().isEmpty());
+        assertTrue(sg.isCompact());
+        sg.expand();
+        assertEquals(4, sg.getSynapses().size());
+        assertFalse(sg.isCompact());
+        assertEquals(2, source.getNeuron(0).getFanOut().size());
+        assertArrayEquals(weights, sg.getWeightMatrixArray());
+    }
+
+    @Test
+    public void testRandomizeDenseCompactGroupWithMissingSynapses() {
+        Network net = new Network();
+        NeuronGroup source = new NeuronGroup(net, 5);
+        NeuronGroup target = new NeuronGroup(net, 2);
+        // 6 of 10 possible synapses, stored densely with gaps
+        List<Synapse> synapses = new ArrayList<>();
+        for (int j : new int[]{0, 1, 2}) {
+            synapses.add(new Synapse(source.getNeuron(j), target.getNeuron(0), .5));
+        }
+        for (int j : new int[]{0, 3, 4}) {
+            synapses.add(new Synapse(source.getNeuron(j), target.getNeuron(1), .5));
+        }
+        SynapseGroup2 sg = new SynapseGroup2(source, target, new AllToAll(), synapses);
+        net.addNetworkModels(List.of(source, target, sg));
+        assertTrue(sg.compact());
+        assertEquals(6, sg.size());
+
+        sg.randomize();
+        assertEquals(6, sg.size());
+        source.setActivations(new double[]{1, 1, 1, 1, 1});
+        sg.updateInputs();
+
+        // Only the synapses feed input; the gaps stay empty
+        double[][] weights = sg.getWeightMatrixArray();
+        for (int i = 0; i < 2; i++) {
+            double expected = 0;
+            for (int j = 0; j < 5; j++) {
+                expected += weights[j][i];
+            }
+            assertEquals(expected, target.getNeuron(i).getInput(), 1e-12);
+        }
+        assertEquals(0, weights[3][0]);
+        assertEquals(0, weights[1][1]);
+    }
+
+    @Test
+    public void testCompactGroupExpandsWhenNeuronsChange() {
+        Network net = new Network();
+        NeuronCollection source = new NeuronCollection(net, List.of(new Neuron(net), new Neuron(net)));
+        NeuronGroup target = new NeuronGroup(net, 2);
+        SynapseGroup2 sg = new SynapseGroup2(source, target);
+        net.addNetworkModels(List.of(source, target, sg));
+        assertTrue(sg.compact());
+
+        // Adding a source neuron leaves compact mode on the next update instead of indexing past the packed strengths
+        source.addNeuron(new Neuron(net));
+        net.update();
+        assertFalse(sg.isCompact());
+        assertEquals(4, sg.size());
+    }
+
     /**
      * When the source neuron group is spiking and the target neuron group is not, the
      * prototype synapses should have spike responders.
@@ -0,0 +1,100 @@
+package org.simbrain.network.matrix;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simbrain.network.core.Network;
+import org.simbrain.network.neuron_update_rules.KuramotoRule;
+import org.simbrain.network.neuron_update_rules.SpikingThresholdRule;
+import org.simbrain.network.synapse_update_rules.HebbianRule;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchedArrayNetworkTest {
+
+    Network net;
+    NeuronArray na1;
+    NeuronArray na2;
+    WeightMatrix wm;
+
+    @BeforeEach
+    public void setUp() {
+        net = new Network();
+        na1 = new NeuronArray(net, 2);
+        na2 = new NeuronArray(net, 2);
+        wm = new WeightMatrix(net, na1, na2);
+        wm.setWeights(new double[][]{{.5, .1}, {-.2, .4}});
+        net.addNetworkModels(List.of(na1, na2, wm));
+        na1.setActivations(new double[]{.1, .2});
+        na2.setActivations(new double[]{0, 0});
+    }
+
+    @Test
+    public void testTrialsMatchSequentialRuns() {
+        var batch = new BatchedArrayNetwork(List.of(na1, na2), List.of(wm), 3);
+        batch.setActivations(na1, 1, new double[]{.3, -.4});
+        batch.addInputs(na1, 2, new double[]{.5, .5});
+        batch.update();
+        batch.update();
+
+        // The network itself is left as it was
+        assertArrayEquals(new double[]{.1, .2}, na1.getActivationArray(), 0.0);
+        assertArrayEquals(new double[]{0, 0}, na2.getActivationArray(), 0.0);
+
+        double[][] initial = {{.1, .2}, {.3, -.4}, {.1, .2}};
+        double[][] inputs = {{0, 0}, {0, 0}, {.5, .5}};
+        for (int b = 0; b < 3; b++) {
+            na1.setActivations(initial[b]);
+            na2.setActivations(new double[]{0, 0});
+            na1.addInputs(inputs[b]);
+            for (int step = 0; step < 2; step++) {
+                na2.updateInputs();
+                na1.update();
+                na2.update();
+            }
+            assertArrayEquals(na1.getActivationArray(), batch.getActivations(na1, b), 1e-12);
+            assertArrayEquals(na2.getActivationArray(), batch.getActivations(na2, b), 1e-12);
+        }
+    }
+
+    @Test
+    public void testRuleDataIsPerTrial() {
+        na1.setUpdateRule(new SpikingThresholdRule());
+        var batch = new BatchedArrayNetwork(List.of(na1, na2), List.of(wm), 2);
+        batch.addInputs(na1, 1, new double[]{5, 5});
+        batch.update();
+        assertArrayEquals(new double[]{0, 0}, batch.getActivations(na1, 0), 0.0);
+        assertArrayEquals(new double[]{1, 1}, batch.getActivations(na1, 1), 0.0);
+        assertNotSame(batch.getDataHolder(na1, 0), batch.getDataHolder(na1, 1));
+    }
+
+    @Test
+    public void testRulesReadingSourcesSeePreviousState() {
+        var theta1 = new NeuronArray(net, 1);
+        var theta2 = new NeuronArray(net, 1);
+        var rule = new KuramotoRule();
+        rule.setUpperBound(10);
+        rule.setLowerBound(-10);
+        theta1.setUpdateRule(rule);
+        theta2.setUpdateRule(rule.deepCopy());
+        var wm12 = new WeightMatrix(net, theta1, theta2);
+        var wm21 = new WeightMatrix(net, theta2, theta1);
+        net.addNetworkModels(List.of(theta1, theta2, wm12, wm21));
+        theta1.setActivations(new double[]{.5});
+        theta2.setActivations(new double[]{.7});
+        var batch = new BatchedArrayNetwork(List.of(theta1, theta2), List.of(wm12, wm21), 1);
+        batch.update();
+        double dt = net.getTimeStep();
+        // Both phases are computed from the phases before the update, although theta1 is updated first
+        assertEquals(.5 + dt * (1 + Math.sin(.2)), batch.getActivations(theta1, 0)[0], 1e-12);
+        assertEquals(.7 + dt * (1 + Math.sin(-.2)), batch.getActivations(theta2, 0)[0], 1e-12);
+    }
+
+    @Test
+    public void testLearningMatricesAreRejected() {
+        wm.setPrototypeRule(new HebbianRule());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchedArrayNetwork(List.of(na1, na2), List.of(wm), 2));
+    }
+}
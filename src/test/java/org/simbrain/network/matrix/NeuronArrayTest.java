@@ -3,12 +3,19 @@ package org.simbrain.network.matrix;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.simbrain.network.core.Network;
+import org.simbrain.network.core.Neuron;
+import org.simbrain.network.core.NeuronUpdateRule;
+import org.simbrain.network.neuron_update_rules.*;
+import org.simbrain.network.updaterules.IntegrateAndFireRule;
+import org.simbrain.network.updaterules.IzhikevichRule;
+import org.simbrain.network.updaterules.MorrisLecarRule;
 import smile.math.matrix.Matrix;
 
 import java.awt.geom.Point2D;
+import java.time.Duration;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class NeuronArrayTest {
 
@@ -32,6 +39,131 @@ public class NeuronArrayTest {
         assertEquals(0, na.getActivations().sum(), 0.0);
     }
     
+    @Test
+    public void testUpdateIsInPlace() {
+        Matrix activations = na.getActivations();
+        na.addInputs(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        na.update();
+        assertSame(activations, na.getActivations());
+        assertEquals(55, activations.sum(), 0.0);
+
+        // Setting activations copies values, so the matrix passed in is not changed by updates
+        Matrix newActivations = new Matrix(10, 1);
+        newActivations.fill(1.0);
+        na.setActivations(newActivations);
+        na.update();
+        assertEquals(10, newActivations.sum(), 0.0);
+        assertEquals(0, na.getActivations().sum(), 0.0);
+    }
+
+    @Test
+    public void testEachNeuronUsesItsOwnInput() {
+        List<NeuronUpdateRule> rules = List.of(new LinearRule(), new BinaryRule(), new DecayRule(),
+                new NakaRushtonRule(), new SpikingThresholdRule(), new IntegrateAndFireRule());
+        int size = 20;
+        for (NeuronUpdateRule rule : rules) {
+            var large = new NeuronArray(net, size);
+            large.setUpdateRule(rule.deepCopy());
+            var singles = new NeuronArray[size];
+            for (int i = 0; i < size; i++) {
+                singles[i] = new NeuronArray(net, 1);
+                singles[i].setUpdateRule(rule.deepCopy());
+            }
+            for (int step = 0; step < 10; step++) {
+                double[] inputs = new double[size];
+                for (int i = 0; i < size; i++) {
+                    inputs[i] = (i - size / 2) * (step + 1) * .1;
+                    singles[i].addInputs(new double[]{inputs[i]});
+                    singles[i].update();
+                }
+                large.addInputs(inputs);
+                large.update();
+                for (int i = 0; i < size; i++) {
+                    assertEquals(singles[i].getActivations().get(0, 0), large.getActivations().get(i, 0), 0.0,
+                            rule.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateTimeGrowsLinearlyWithSize() {
+        // Regression check: update rules used to copy the input column once per element, which is quadratic in the
+        // number of neurons. Ten times as many neurons should take about ten times as long, not a hundred.
+        List<NeuronUpdateRule> rules = List.of(new LinearRule(), new BinaryRule(), new DecayRule(),
+                new NakaRushtonRule(), new SpikingThresholdRule(), new IntegrateAndFireRule());
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (NeuronUpdateRule rule : rules) {
+                long small = fastestUpdateTime(rule, 5_000);
+                long large = fastestUpdateTime(rule, 50_000);
+                assertTrue(large < 30 * small, rule.getName() + ": " + small + " ns for 5,000 neurons, "
+                        + large + " ns for 50,000");
+            }
+        });
+    }
+
+    /**
+     * Returns the fastest of several timings, in nanoseconds, of 10 updates of an array of the given size.
+     */
+    private long fastestUpdateTime(NeuronUpdateRule rule, int size) {
+        var array = new NeuronArray(net, size);
+        array.setUpdateRule(rule.deepCopy());
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                array.addInputs(array.getActivations());
+                array.update();
+            }
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    @Test
+    public void testArrayRulesMatchScalarRules() {
+        List<NeuronUpdateRule> rules = List.of(new IzhikevichRule(), new MorrisLecarRule(), new HodgkinHuxleyRule());
+        for (NeuronUpdateRule rule : rules) {
+            var neuron = new Neuron(net, rule.deepCopy());
+            var array = new NeuronArray(net, 1);
+            array.setUpdateRule(rule.deepCopy());
+            array.setActivations(new double[]{neuron.getActivation()});
+            for (int i = 0; i < 50; i++) {
+                neuron.addInputValue(10);
+                neuron.update();
+                array.addInputs(new double[]{10});
+                array.update();
+                assertEquals(neuron.getActivation(), array.getActivations().get(0, 0), 1e-9, rule.getName());
+            }
+        }
+    }
+
+    @Test
+    public void testKuramotoArray() {
+        var phases = new NeuronArray(net, 2);
+        var rule = new KuramotoRule();
+        rule.setUpperBound(10);
+        rule.setLowerBound(-10);
+        phases.setUpdateRule(rule);
+        phases.setActivations(new double[]{0, Math.PI / 2});
+        var wm = new WeightMatrix(net, phases, phases);
+        wm.setWeights(new double[]{0, 1, 1, 0});
+        net.addNetworkModels(phases, wm);
+        phases.update();
+        double dt = net.getTimeStep();
+        // Each neuron has a fan-in of 2, including the zero self weight, as with a synapse per weight
+        // theta_0' = omega + sin(pi/2 - 0) / 2, theta_1' = omega + sin(0 - pi/2) / 2
+        assertEquals(dt * 1.5, phases.getActivations().get(0, 0), 1e-9);
+        assertEquals(Math.PI / 2 + dt * .5, phases.getActivations().get(1, 0), 1e-9);
+
+        // With the default bounds the second phase is clipped to the upper bound
+        phases.setUpdateRule(new KuramotoRule());
+        phases.setActivations(new double[]{0, Math.PI / 2});
+        phases.update();
+        assertEquals(dt * 1.5, phases.getActivations().get(0, 0), 1e-9);
+        assertEquals(1.0, phases.getActivations().get(1, 0), 1e-9);
+    }
+
     @Test
     public void testSetLocation() {
         Point2D location = na.getLocation();
@@ -0,0 +1,78 @@
+package org.simbrain.network.matrix;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simbrain.network.core.Network;
+import org.simbrain.network.neuron_update_rules.SpikingThresholdRule;
+import org.simbrain.network.spikeresponders.JumpAndDecay;
+import org.simbrain.network.synapse_update_rules.HebbianRule;
+import smile.math.matrix.Matrix;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseWeightMatrixTest {
+
+    Network net;
+    NeuronArray na1;
+    NeuronArray na2;
+    SparseWeightMatrix swm;
+
+    @BeforeEach
+    public void setUp() {
+        net = new Network();
+        na1 = new NeuronArray(net, 3);
+        na2 = new NeuronArray(net, 2);
+        swm = new SparseWeightMatrix(net, na1, na2);
+        swm.setWeights(new double[][]{{1, 0, 2}, {0, -1, 0}});
+        net.addNetworkModels(List.of(na1, na2, swm));
+    }
+
+    @Test
+    public void testStructure() {
+        assertEquals(3, swm.getNumEntries());
+        assertArrayEquals(new int[]{0, 2, 3}, swm.getRowPointers());
+        assertArrayEquals(new int[]{0, 2, 1}, swm.getColumnIndices());
+        assertEquals(2, swm.get(0, 2), 0.0);
+        assertEquals(0, swm.get(1, 0), 0.0);
+        assertFalse(swm.set(1, 0, 5));
+        assertArrayEquals(new double[]{1, 0, 2, 0, -1, 0}, swm.getWeights(), 0.0);
+    }
+
+    @Test
+    public void testOutputMatchesDense() {
+        na1.setActivations(new double[]{1, 2, 3});
+        Matrix expected = swm.toDense().mm(na1.getOutputs());
+        assertArrayEquals(expected.col(0), swm.getOutput().col(0), 0.0);
+        assertArrayEquals(new double[]{7, -2}, swm.getOutput().col(0), 0.0);
+    }
+
+    @Test
+    public void testRandomStructure() {
+        var large = new SparseWeightMatrix(net, new NeuronArray(net, 100), new NeuronArray(net, 100), .05);
+        assertTrue(large.getNumEntries() > 0);
+        assertTrue(large.getNumEntries() < 1000);
+        assertEquals(large.getNumEntries(), large.getRowPointers()[100]);
+    }
+
+    @Test
+    public void testHebbianOnlyChangesExistingEntries() {
+        var rule = new HebbianRule();
+        rule.setLearningRate(1);
+        swm.setPrototypeRule(rule);
+        na1.setActivations(new double[]{1, 1, 1});
+        na2.setActivations(new double[]{1, 1});
+        swm.update();
+        assertArrayEquals(new double[]{2, 0, 3, 0, 0, 0}, swm.getWeights(), 0.0);
+    }
+
+    @Test
+    public void testSpikeResponder() {
+        na1.setUpdateRule(new SpikingThresholdRule());
+        swm.setSpikeResponder(new JumpAndDecay());
+        na1.addInputs(new double[]{5, 5, 5});
+        na1.update();
+        assertArrayEquals(new double[]{3, -1}, swm.getOutput().col(0), 0.0);
+    }
+}
@@ -4,11 +4,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.simbrain.network.core.Network;
 import org.simbrain.network.groups.NeuronGroup;
+import org.simbrain.network.neuron_update_rules.SpikingThresholdRule;
+import org.simbrain.network.synapse_update_rules.OjaRule;
+import org.simbrain.network.synapse_update_rules.STDPRule;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class WeightMatrixTest {
 
@@ -25,6 +30,154 @@ public class WeightMatrixTest {
         wm = new WeightMatrix(net, na1, na2);
         net.addNetworkModels(List.of(na1, na2, wm));
     }
+    @Test
+    public void testTraceSTDP() {
+        na1.setUpdateRule(new SpikingThresholdRule());
+        na2.setUpdateRule(new SpikingThresholdRule());
+        wm.setWeights(new double[]{1, 1, 1, 1});
+        wm.setPrototypeRule(new STDPRule(1, 1, 10, 10, 1, false));
+        double dt = net.getTimeStep();
+
+        // Source neuron 0 spikes: its column is depressed by post traces, which are still 0
+        na1.addInputs(new double[]{1, 0});
+        na1.update();
+        na2.update();
+        wm.update();
+        assertArrayEquals(new double[]{1, 1, 1, 1}, wm.getWeights(), 0.0);
+
+        // Target neuron 1 spikes one step later: only entry (1,0) is potentiated
+        na1.update();
+        na2.addInputs(new double[]{0, 1});
+        na2.update();
+        wm.update();
+        double ltp = dt * Math.exp(-dt / 10);
+        assertArrayEquals(new double[]{1, 1, 1 + ltp, 1}, wm.getWeights(), 1e-12);
+
+        // Source neuron 0 spikes again: its column is depressed by target 1's trace
+        na1.addInputs(new double[]{1, 0});
+        na1.update();
+        na2.update();
+        wm.update();
+        assertEquals(1, wm.getWeightMatrix().get(0, 0), 0.0);
+        assertEquals(1 + ltp - ltp, wm.getWeightMatrix().get(1, 0), 1e-12);
+    }
+
+    @Test
+    public void testAntiHebbianTraceSTDP() {
+        na1.setUpdateRule(new SpikingThresholdRule());
+        na2.setUpdateRule(new SpikingThresholdRule());
+        wm.setWeights(new double[]{1, 1, 1, 1});
+        var rule = new STDPRule(2, 1, 10, 20, 1, false);
+        rule.setHebbian(false);
+        wm.setPrototypeRule(rule);
+        double dt = net.getTimeStep();
+
+        na1.addInputs(new double[]{1, 0});
+        na1.update();
+        na2.update();
+        wm.update();
+        assertArrayEquals(new double[]{1, 1, 1, 1}, wm.getWeights(), 0.0);
+
+        // Target neuron 1 spikes one step after source 0: depression with W- and tau minus
+        na1.update();
+        na2.addInputs(new double[]{0, 1});
+        na2.update();
+        wm.update();
+        double ltd = dt * Math.exp(-dt / 20);
+        assertArrayEquals(new double[]{1, 1, 1 - ltd, 1}, wm.getWeights(), 1e-12);
+
+        // Source neuron 0 spikes one step after target 1: potentiation with W+ and tau plus
+        na1.addInputs(new double[]{1, 0});
+        na1.update();
+        na2.update();
+        wm.update();
+        double ltp = 2 * dt * Math.exp(-dt / 10);
+        assertEquals(1, wm.getWeightMatrix().get(0, 0), 0.0);
+        assertEquals(1 - ltd + ltp, wm.getWeightMatrix().get(1, 0), 1e-12);
+    }
+
+    @Test
+    public void testSmoothTraceSTDP() {
+        na1.setUpdateRule(new SpikingThresholdRule());
+        na2.setUpdateRule(new SpikingThresholdRule());
+        wm.setWeights(new double[]{1, 1, 1, 1});
+        wm.setPrototypeRule(new STDPRule(1, 1, 10, 10, 1, true));
+        double dt = net.getTimeStep();
+
+        na1.addInputs(new double[]{1, 0});
+        na1.update();
+        na2.update();
+        wm.update();
+        assertArrayEquals(new double[]{1, 1, 1, 1}, wm.getWeights(), 0.0);
+
+        // Target neuron 1 spikes one step later: the derivative of entry (1,0) is set and applied
+        na1.update();
+        na2.addInputs(new double[]{0, 1});
+        na2.update();
+        wm.update();
+        double ltp = dt * Math.exp(-dt / 10);
+        assertArrayEquals(new double[]{1, 1, 1 + ltp, 1}, wm.getWeights(), 1e-12);
+
+        // Without further spikes the weight keeps changing at the same rate
+        na1.update();
+        na2.update();
+        wm.update();
+        assertArrayEquals(new double[]{1, 1, 1 + 2 * ltp, 1}, wm.getWeights(), 1e-12);
+    }
+
+    @Test
+    public void testReadingSharedWeightsDoesNotCopyThem() {
+        var copy = new WeightMatrix(net, na1, na2);
+        copy.shareWeights(wm);
+        assertSame(wm.getWeightMatrixForReading(), copy.getWeightMatrixForReading());
+        copy.getWeightMatrix().set(0, 0, 5);
+        assertNotSame(wm.getWeightMatrixForReading(), copy.getWeightMatrixForReading());
+        assertEquals(1, wm.getWeightMatrixForReading().get(0, 0), 0.0);
+        assertEquals(5, copy.getWeightMatrixForReading().get(0, 0), 0.0);
+    }
+
+    @Test
+    public void testOjaMatchesScalarRule() {
+        var rule = new OjaRule();
+        rule.setLearningRate(.1);
+        wm.setWeights(new double[]{1, 1, 1, 1});
+        wm.setPrototypeRule(rule);
+        na1.setActivations(new double[]{1, 2});
+        na2.setActivations(new double[]{1, .5});
+        wm.update();
+        // w_ij += .1 * (y_i * x_j - y_i^2 * w_ij)
+        assertArrayEquals(new double[]{1, 1.1, 1.025, 1.075}, wm.getWeights(), 1e-12);
+    }
+
+    @Test
+    public void testOjaBatched() {
+        var rule = new OjaRule();
+        rule.setLearningRate(.1);
+        rule.setBatchSize(2);
+        wm.setWeights(new double[]{1, 1, 1, 1});
+        wm.setPrototypeRule(rule);
+        na1.setActivations(new double[]{1, 2});
+        na2.setActivations(new double[]{1, .5});
+        wm.update();
+        assertArrayEquals(new double[]{1, 1, 1, 1}, wm.getWeights(), 0.0);
+        // Both steps are applied at once, with decay computed from the weights at the start of the batch
+        wm.update();
+        assertArrayEquals(new double[]{1, 1.2, 1.05, 1.15}, wm.getWeights(), 1e-12);
+    }
+
+    @Test
+    public void testDelays() {
+        wm.setDelays(new int[][]{{0, 0}, {0, 2}});
+        na1.setActivations(new double[]{1, 1});
+        assertArrayEquals(new double[]{1, 0}, wm.getOutput().col(0), 0.0);
+        net.getDelayWheel().advance();
+        na1.setActivations(new double[]{0, 0});
+        assertArrayEquals(new double[]{0, 0}, wm.getOutput().col(0), 0.0);
+        net.getDelayWheel().advance();
+        assertArrayEquals(new double[]{0, 1}, wm.getOutput().col(0), 0.0);
+        assertEquals(0, net.getDelayWheel().getSize());
+    }
+
     @Test
     public void testMatrixOperations() {
 
@@ -109,6 +262,20 @@ public class WeightMatrixTest {
         // TODO: Test with spike responders so that we can check for positive inhib outputs, the more standard case
     }
 
+    @Test
+    public void testExcitatoryOutputsFollowWeightChanges() {
+        na1.setActivations(new double[]{1, 2});
+        var na3 = new NeuronArray(net, 2);
+        WeightMatrix wm2 = new WeightMatrix(net, na1, na3);
+        wm2.setWeights(new double[]{1, -1, -1, 1});
+        assertArrayEquals(new double[]{1, 2}, wm2.getExcitatoryOutputs());
+        assertArrayEquals(new double[]{-2, -1}, wm2.getInhibitoryOutputs());
+        // Changing the weight matrix directly (as learning rules do) is reflected without firing events
+        wm2.getWeightMatrix().set(0, 1, 3);
+        assertArrayEquals(new double[]{7, 2}, wm2.getExcitatoryOutputs());
+        assertArrayEquals(new double[]{0, -1}, wm2.getInhibitoryOutputs());
+    }
+
     @Test
     public void testArrayToNeuronGroup() {
         na1.setActivations(new double[]{.5, -.5});
@@ -0,0 +1,60 @@
+package org.simbrain.network.connections
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.simbrain.network.core.Network
+import org.simbrain.network.core.Neuron
+import org.simbrain.network.util.SimnetUtils.getEuclideanDist
+import org.simbrain.util.decayfunctions.LinearDecayFunction
+import org.simbrain.util.decayfunctions.StepDecayFunction
+import org.simbrain.util.stats.SplittableRandomGenerator
+
+class DistanceBasedTest {
+
+    var net = Network()
+    lateinit var neurons: List<Neuron>
+
+    @BeforeEach
+    fun setUp() {
+        // 20 x 20 grid, 10 pixels apart. More than one parallel chunk of sources.
+        neurons = List(400) { i ->
+            Neuron(net).also { it.setLocation((i % 20) * 10.0, (i / 20) * 10.0, false) }
+        }
+    }
+
+    @Test
+    fun `grid finds the same neurons as a full scan`() {
+        val grid = NeuronGrid(neurons, 25.0)
+        for (n in listOf(neurons[0], neurons[57], neurons[399])) {
+            val expected = neurons.indices.filter { getEuclideanDist(n, neurons[it]) <= 25.0 }
+            assertEquals(expected, grid.indicesWithin(n.x, n.y, 25.0).toList())
+        }
+    }
+
+    @Test
+    fun `step decay connects every pair within the cutoff`() {
+        val syns = connectRadial(neurons, neurons, StepDecayFunction())
+        val expected = neurons.sumOf { n -> neurons.count { it != n && getEuclideanDist(n, it) <= 70.0 } }
+        assertEquals(expected, syns.size)
+    }
+
+    @Test
+    fun `same seed makes the same synapses`() {
+        val decay = LinearDecayFunction(50.0)
+        val first = connectRadial(neurons, neurons, decay, SplittableRandomGenerator(42))
+        val second = connectRadial(neurons, neurons, decay, SplittableRandomGenerator(42))
+        assertEquals(first.map { it.source to it.target }, second.map { it.source to it.target })
+        assertTrue(first.all { getEuclideanDist(it.source, it.target) <= 50.0 })
+    }
+
+    @Test
+    fun `gaussian connections are reproducible`() {
+        val first = connectRadialNoPolarity(neurons, neurons, .5, 20.0, SplittableRandomGenerator(7))
+        val second = connectRadialNoPolarity(neurons, neurons, .5, 20.0, SplittableRandomGenerator(7))
+        assertTrue(first.isNotEmpty())
+        assertEquals(first.map { it.source to it.target }, second.map { it.source to it.target })
+        assertTrue(first.none { it.source == it.target })
+    }
+}
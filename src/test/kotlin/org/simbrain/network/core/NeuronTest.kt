@@ -63,6 +63,25 @@ class NeuronTest {
         assertEquals(0.0, n3.excitatoryInputs)
     }
 
+    @Test
+    fun `signed fan in follows sign changes and new synapses`() {
+        s1.strength = 1.0
+        s2.strength = 1.0
+        assertEquals(listOf(s1, s2), n3.signedFanIn.toList())
+        assertEquals(2, n3.numExcitatoryFanIn)
+        s1.strength = -1.0
+        assertEquals(listOf(s2, s1), n3.signedFanIn.toList())
+        assertEquals(1, n3.numExcitatoryFanIn)
+        s2.strength = 0.0
+        assertEquals(listOf(s1), n3.signedFanIn.toList())
+        assertEquals(0, n3.numExcitatoryFanIn)
+        val s3 = net.addSynapse(n3, n3)
+        s3.strength = 2.0
+        assertEquals(listOf(s3, s1), n3.signedFanIn.toList())
+        s3.delete()
+        assertEquals(listOf(s1), n3.signedFanIn.toList())
+    }
+
     @Test
     fun `changing a rule applies to all neurons sharing it, but changing data does not`() {
         val rule = LinearRule()
@@ -81,4 +100,14 @@ class NeuronTest {
         assertNotEquals(data1.bias, data2.bias)
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `activation change listeners are notified only when activation changes`() {
+        val changes = mutableListOf<Pair<Double, Double>>()
+        n1.events.onActivationChange { old, new -> changes.add(old to new) }
+        n1.activation = .5
+        n1.activation = .5
+        n1.forceSetActivation(.25)
+        assertEquals(listOf(0.0 to .5, .5 to .25), changes)
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test
 import org.simbrain.network.matrix.NeuronArray
 import org.simbrain.network.matrix.WeightMatrix
 import org.simbrain.network.neuron_update_rules.SpikingThresholdRule
+import org.simbrain.network.spikeresponders.JumpAndDecay
 import org.simbrain.network.spikeresponders.NonResponder
 import org.simbrain.network.spikeresponders.ProbabilisticResponder
 import org.simbrain.network.spikeresponders.StepMatrixData
@@ -154,5 +155,38 @@ class SpikeResponderMatrixTest {
         assertArrayEquals(doubleArrayOf(0.0, 0.0, 0.0), n3.activationArray, .001)
     }
 
+    @Test
+    fun `jump and decay responses decay between spikes`() {
+        wm2.setSpikeResponder(JumpAndDecay())
+        val decay = 1 - net.timeStep / 3.0
+
+        n1.activations = Matrix(doubleArrayOf(1.0, 0.0))
+        net.update()
+        net.update()
+        assertArrayEquals(doubleArrayOf(1.0, 0.0, 0.5), n3.activationArray, 1e-9)
+        net.update()
+        assertArrayEquals(doubleArrayOf(decay, 0.0, 0.5 * decay), n3.activationArray, 1e-9)
+        net.update()
+        assertArrayEquals(doubleArrayOf(decay * decay, 0.0, 0.5 * decay * decay), n3.activationArray, 1e-9)
+        assertEquals(decay * decay, wm2.psrMatrix[0, 0], 1e-9)
+        assertEquals(0.5 * decay * decay, wm2.psrMatrix[2, 0], 1e-9)
+    }
+
+    @Test
+    fun `spike indices track spiking neurons`() {
+        val data = SpikingMatrixData(4)
+        data.setHasSpiked(1, true, 0.0)
+        data.setHasSpiked(3, true, 0.0)
+        assertArrayEquals(intArrayOf(1, 3), data.spikeIndices)
+        data.setHasSpiked(1, false, 0.0)
+        assertArrayEquals(intArrayOf(3), data.spikeIndices)
+        data.setHasSpiked(2, true, 0.0)
+        data.setHasSpiked(0, true, 0.0)
+        data.setHasSpiked(3, false, 0.0)
+        assertArrayEquals(intArrayOf(0, 2), data.spikeIndices)
+        data.setHasSpiked(0, false, 0.0)
+        data.setHasSpiked(2, false, 0.0)
+        assertArrayEquals(intArrayOf(), data.spikeIndices)
+    }
 
-}
\ No newline at end of file
+}
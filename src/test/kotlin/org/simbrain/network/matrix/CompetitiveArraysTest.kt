@@ -0,0 +1,77 @@
+package org.simbrain.network.matrix
+
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.simbrain.network.core.Network
+import org.simbrain.util.topK
+
+class CompetitiveArraysTest {
+
+    var net = Network()
+    var input = NeuronArray(net, 3)
+
+    @Test
+    fun `top k matches sorting`() {
+        val values = DoubleArray(200) { ((it * 37) % 101).toDouble() }
+        for (k in listOf(0, 1, 5, 100, 200)) {
+            val expected = values.indices.sortedWith(compareBy({ -values[it] }, { it })).take(k).sorted()
+            assertEquals(expected, values.topK(k).toList())
+        }
+    }
+
+    @Test
+    fun `winner take all picks the greatest input`() {
+        val wta = WinnerTakeAllArray(net, 4)
+        WeightMatrix(net, input, wta).setWeights(Array(4) { i -> DoubleArray(3) { j -> if (j == 1) i.toDouble() else 0.0 } })
+        input.setActivations(doubleArrayOf(0.0, 1.0, 0.0))
+        wta.updateInputs()
+        wta.update()
+        assertEquals(3, wta.winner)
+        assertArrayEquals(doubleArrayOf(0.0, 0.0, 0.0, 1.0), wta.activationArray, 0.0)
+    }
+
+    @Test
+    fun `kwta activates k units`() {
+        val kwta = KWTAArray(net, 10)
+        kwta.k = 3
+        kwta.addInputs(DoubleArray(10) { (it * 7 % 10).toDouble() })
+        kwta.update()
+        assertEquals(listOf(1, 4, 7), kwta.winners.toList())
+        assertEquals(3, kwta.activationArray.count { it == 1.0 })
+    }
+
+    @Test
+    fun `competitive learning moves the winner towards the input`() {
+        val competitive = CompetitiveArray(net, 2)
+        val wm = WeightMatrix(net, input, competitive)
+        wm.setWeights(arrayOf(doubleArrayOf(1.0, 0.0, 0.0), doubleArrayOf(0.0, 0.0, 1.0)))
+        input.setActivations(doubleArrayOf(0.0, 0.0, 1.0))
+        competitive.updateInputs()
+        competitive.update()
+        assertEquals(1, competitive.winner)
+        assertArrayEquals(doubleArrayOf(1.0, 0.0, 0.0), wm.weightMatrix.row(0), 0.0)
+        assertEquals(1.0, wm.weightMatrix[1, 2], 1e-12)
+    }
+
+    @Test
+    fun `som updates the neighborhood of the closest unit`() {
+        // 3 x 3 grid
+        val som = SOMArray(net, 9)
+        som.initNeighborhoodSize = 1.0
+        som.initAlpha = .5
+        val wm = WeightMatrix(net, input, som)
+        wm.setWeights(Array(9) { i -> DoubleArray(3) { j -> if (j == 0) i / 10.0 else 0.0 } })
+        input.setActivations(doubleArrayOf(.4, 0.0, 0.0))
+        som.update()
+        assertEquals(4, som.winner)
+        // The winner and its four grid neighbors move halfway to the input; corners stay where they were
+        for (i in 0 until 9) {
+            val before = i / 10.0
+            val expected = if (i in listOf(1, 3, 4, 5, 7)) before + .5 * (.4 - before) else before
+            assertEquals(expected, wm.weightMatrix[i, 0], 1e-12)
+        }
+        assertTrue(som.alpha < .5)
+    }
+}
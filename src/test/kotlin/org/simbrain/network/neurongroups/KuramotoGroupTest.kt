@@ -0,0 +1,57 @@
+package org.simbrain.network.neurongroups
+
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.simbrain.network.connections.connectAllToAll
+import org.simbrain.network.core.Network
+import org.simbrain.network.core.Synapse
+import org.simbrain.network.groups.NeuronGroup
+import org.simbrain.network.neuron_update_rules.KuramotoRule
+
+class KuramotoGroupTest {
+
+    var net = Network()
+
+    private fun rule() = KuramotoRule().apply {
+        naturalFrequency = .5
+        upperBound = 10.0
+        lowerBound = -10.0
+    }
+
+    private fun couple(group: NeuronGroup, strength: Double): List<Synapse> {
+        group.neuronList.forEachIndexed { i, neuron -> neuron.activation = (i * 1.3) % 6 }
+        return connectAllToAll(group.neuronList, group.neuronList).onEach { it.forceSetStrength(strength) }
+    }
+
+    @Test
+    fun `uniform all to all coupling uses the mean field and matches the exact update`() {
+        val exact = NeuronGroup(net, 20).apply { prototypeRule = rule() }
+        val meanField = KuramotoGroup(net, 20).apply { prototypeRule = rule() }
+        couple(exact, 1.5)
+        couple(meanField, 1.5)
+        assertTrue(meanField.usesMeanField)
+        repeat(10) {
+            exact.update()
+            meanField.update()
+        }
+        assertArrayEquals(exact.activations, meanField.activations, 1e-9)
+    }
+
+    @Test
+    fun `non uniform coupling falls back to the exact update`() {
+        val exact = NeuronGroup(net, 10).apply { prototypeRule = rule() }
+        val kuramoto = KuramotoGroup(net, 10).apply { prototypeRule = rule() }
+        couple(exact, 1.0)[3].forceSetStrength(2.0)
+        val synapses = couple(kuramoto, 1.0)
+        assertTrue(kuramoto.usesMeanField)
+        synapses[3].forceSetStrength(2.0)
+        assertFalse(kuramoto.usesMeanField)
+        repeat(5) {
+            exact.update()
+            kuramoto.update()
+        }
+        assertArrayEquals(exact.activations, kuramoto.activations, 0.0)
+    }
+}
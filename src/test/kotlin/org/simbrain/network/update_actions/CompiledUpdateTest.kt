@@ -0,0 +1,88 @@
+package org.simbrain.network.update_actions
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.simbrain.network.core.Network
+import org.simbrain.network.neuron_update_rules.ProductRule
+import org.simbrain.network.updaterules.IzhikevichRule
+
+class CompiledUpdateTest {
+
+    private fun createNetwork() = createMixedNetwork(30, 42, .3)
+
+    @Test
+    fun `compiled update matches buffered update`() {
+        val buffered = createNetwork()
+        val compiled = createNetwork()
+        compiled.updateManager.clear()
+        compiled.addUpdateAction(CompiledUpdate(compiled))
+        repeat(20) {
+            buffered.update()
+            compiled.update()
+        }
+        buffered.freeNeurons.zip(compiled.freeNeurons).forEach { (expected, actual) ->
+            assertEquals(expected.activation, actual.activation, 1e-9)
+            assertEquals(expected.isSpike, actual.isSpike)
+        }
+    }
+
+    @Test
+    fun `neurons sharing an Izhikevich rule keep their own recovery`() {
+        val buffered = createNetwork()
+        val compiled = createNetwork()
+        listOf(buffered, compiled).forEach { net ->
+            val shared = IzhikevichRule()
+            net.freeNeurons.filter { it.updateRule is IzhikevichRule }.forEach { it.updateRule = shared }
+        }
+        compiled.updateManager.clear()
+        compiled.addUpdateAction(CompiledUpdate(compiled))
+        repeat(10) {
+            buffered.update()
+            compiled.update()
+        }
+        // Recovery carries over when the compiled representation is dropped
+        compiled.updateManager.clear()
+        compiled.addUpdateAction(BufferedUpdate(compiled))
+        repeat(10) {
+            buffered.update()
+            compiled.update()
+        }
+        buffered.freeNeurons.zip(compiled.freeNeurons).forEach { (expected, actual) ->
+            assertEquals(expected.activation, actual.activation, 1e-9)
+        }
+    }
+
+    @Test
+    fun `strength changes are seen by the compiled update`() {
+        val net = Network()
+        val n1 = net.addNeuron { forceSetActivation(1.0) }
+        val n2 = net.addNeuron()
+        val synapse = net.addSynapse(n1, n2)
+        net.updateManager.clear()
+        net.addUpdateAction(CompiledUpdate(net))
+        n1.isClamped = true
+        net.update()
+        assertEquals(1.0, n2.activation)
+        synapse.forceSetStrength(.5)
+        net.update()
+        assertEquals(.5, n2.activation)
+        assertEquals(.5, synapse.psr)
+    }
+
+    @Test
+    fun `subclasses of compiled rules use their own update`() {
+        val net = Network()
+        val n1 = net.addNeuron { forceSetActivation(2.0) }
+        val n2 = net.addNeuron { forceSetActivation(3.0) }
+        val product = net.addNeuron { updateRule = ProductRule().apply { upperBound = 10.0 } }
+        net.addSynapse(n1, product)
+        net.addSynapse(n2, product)
+        n1.isClamped = true
+        n2.isClamped = true
+        net.updateManager.clear()
+        net.addUpdateAction(CompiledUpdate(net))
+        net.update()
+        // ProductRule extends LinearRule, but multiplies source activations rather than summing them
+        assertEquals(6.0, product.activation)
+    }
+}
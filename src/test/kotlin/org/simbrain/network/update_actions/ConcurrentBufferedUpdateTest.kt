@@ -0,0 +1,110 @@
+package org.simbrain.network.update_actions
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.simbrain.network.core.Network
+import org.simbrain.network.neuron_update_rules.HodgkinHuxleyRule
+import org.simbrain.network.neuron_update_rules.KuramotoRule
+import org.simbrain.network.neuron_update_rules.SigmoidalRule
+import org.simbrain.network.updaterules.IzhikevichRule
+
+class ConcurrentBufferedUpdateTest {
+
+    private fun createNetwork() = createMixedNetwork(500, 7, .05, 50)
+
+    private fun assertSameActivations(expected: Network, actual: Network) {
+        expected.freeNeurons.zip(actual.freeNeurons).forEach { (e, a) ->
+            assertEquals(e.activation, a.activation)
+        }
+    }
+
+    @Test
+    fun `concurrent update matches buffered update`() {
+        val buffered = createNetwork()
+        val concurrent = createNetwork()
+        concurrent.updateManager.clear()
+        concurrent.addUpdateAction(ConcurrentBufferedUpdate(concurrent, 16))
+        repeat(20) {
+            buffered.update()
+            concurrent.update()
+        }
+        assertSameActivations(buffered, concurrent)
+    }
+
+    @Test
+    fun `rules that read source activations are updated in order`() {
+        val buffered = createNetwork()
+        val concurrent = createNetwork()
+        listOf(buffered, concurrent).forEach { net ->
+            net.freeNeurons.forEachIndexed { i, neuron ->
+                if (i % 40 == 0) {
+                    neuron.updateRule = KuramotoRule()
+                }
+            }
+        }
+        concurrent.updateManager.clear()
+        concurrent.addUpdateAction(ConcurrentBufferedUpdate(concurrent, 4))
+        repeat(20) {
+            buffered.update()
+            concurrent.update()
+        }
+        assertSameActivations(buffered, concurrent)
+    }
+
+    @Test
+    fun `neurons sharing a rule match buffered update`() {
+        val buffered = createNetwork()
+        val concurrent = createNetwork()
+        listOf(buffered, concurrent).forEach { net ->
+            // Izhikevich keeps its state in the neurons' data holders, Hodgkin-Huxley keeps it in the rule
+            val izhikevich = IzhikevichRule()
+            val hodgkinHuxley = HodgkinHuxleyRule()
+            net.freeNeurons.forEach { neuron ->
+                when (neuron.updateRule) {
+                    is IzhikevichRule -> neuron.updateRule = izhikevich
+                    is SigmoidalRule -> neuron.updateRule = hodgkinHuxley
+                }
+            }
+        }
+        concurrent.updateManager.clear()
+        concurrent.addUpdateAction(ConcurrentBufferedUpdate(concurrent, 4))
+        repeat(20) {
+            buffered.update()
+            concurrent.update()
+        }
+        assertSameActivations(buffered, concurrent)
+    }
+
+    @Test
+    fun `activation listeners are notified on the calling thread`() {
+        val net = createNetwork()
+        net.updateManager.clear()
+        net.addUpdateAction(ConcurrentBufferedUpdate(net, 4))
+        val callingThread = Thread.currentThread()
+        val threads = mutableSetOf<Thread>()
+        var changes = 0
+        net.freeNeurons.forEach { neuron ->
+            neuron.events.onActivationChange { _, _ ->
+                threads.add(Thread.currentThread())
+                changes++
+            }
+        }
+        net.update()
+        assertTrue(changes > 0)
+        assertEquals(setOf(callingThread), threads)
+    }
+
+    @Test
+    fun `neurons added after the first update are updated`() {
+        val net = Network()
+        net.updateManager.clear()
+        net.addUpdateAction(ConcurrentBufferedUpdate(net))
+        val n1 = net.addNeuron { forceSetActivation(1.0); isClamped = true }
+        net.update()
+        val n2 = net.addNeuron()
+        net.addSynapse(n1, n2)
+        net.update()
+        assertEquals(1.0, n2.activation)
+    }
+}
@@ -0,0 +1,34 @@
+package org.simbrain.network.update_actions
+
+import org.simbrain.network.core.Network
+import org.simbrain.network.core.Neuron
+import org.simbrain.network.neuron_update_rules.SigmoidalRule
+import org.simbrain.network.updaterules.IzhikevichRule
+import kotlin.random.Random
+
+/**
+ * Create a random network of [size] free neurons, cycling through linear, Izhikevich and sigmoidal rules every
+ * [blockSize] neurons, with random activations and each pair of neurons connected with the given probability.
+ */
+fun createMixedNetwork(size: Int, seed: Int, connectionProbability: Double, blockSize: Int = 1): Network {
+    val net = Network()
+    val random = Random(seed)
+    val neurons = List(size) { i ->
+        Neuron(net).apply {
+            when (i / blockSize % 3) {
+                1 -> updateRule = IzhikevichRule()
+                2 -> updateRule = SigmoidalRule()
+            }
+            forceSetActivation(random.nextDouble())
+        }
+    }
+    net.addNetworkModels(neurons)
+    for (source in neurons) {
+        for (target in neurons) {
+            if (random.nextDouble() < connectionProbability) {
+                net.addSynapse(source, target) { forceSetStrength(random.nextDouble(-1.0, 1.0)) }
+            }
+        }
+    }
+    return net
+}
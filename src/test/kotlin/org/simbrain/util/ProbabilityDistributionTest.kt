@@ -294,4 +294,28 @@ class ProbabilityDistributionTest {
             assertNotEquals(deserialized1.sampleDouble(), deserialized2.sampleDouble())
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `test bulk sampling matches sequential sampling`() {
+        val dist1 = NormalDistribution(1.0, 2.0).apply { randomSeed = 7 }
+        val dist2 = dist1.deepCopy()
+        val bulk = DoubleArray(100)
+        dist1.sampleDouble(bulk)
+        assertArrayEquals(DoubleArray(100) { dist2.sampleDouble() }, bulk)
+    }
+
+    @Test
+    fun `test streams are reproducible and independent of thread count`() {
+        val dist = UniformRealDistribution().apply { randomSeed = 42 }
+        val serial = (0 until 64).map { dist.stream(it.toLong()).sampleDouble(10).toList() }
+        val parallel = (0 until 64).toList().parallelStream()
+            .map { dist.stream(it.toLong()).sampleDouble(10).toList() }
+            .toList()
+        assertEquals(serial, parallel)
+        // Different streams give different samples
+        assertEquals(64, serial.map { it.first() }.distinct().size)
+        // Taking a stream does not change the parent's sequence
+        val copy = UniformRealDistribution().apply { randomSeed = 42 }
+        assertEquals(copy.sampleDouble(), dist.sampleDouble())
+    }
+}
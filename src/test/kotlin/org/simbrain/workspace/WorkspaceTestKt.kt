@@ -2,6 +2,8 @@ package org.simbrain.workspace
 
 import kotlinx.coroutines.runBlocking
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNotSame
 import org.junit.jupiter.api.Test
 
 /**
@@ -51,4 +53,43 @@ class WorkspaceTestKt {
         assertEquals(11, counter)
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `updates should run on the simulation thread when it is enabled`() {
+        var threadName = ""
+        workspace.updater.useSimulationThread = true
+        workspace.addUpdateAction("record thread") {
+            threadName = Thread.currentThread().name
+        }
+        runBlocking {
+            workspace.iterateSuspend(1)
+        }
+        assertEquals("Simbrain Simulation", threadName)
+    }
+
+    @Test
+    fun `clearing the workspace stops the simulation thread`() {
+        var thread: Thread? = null
+        workspace.updater.useSimulationThread = true
+        workspace.addUpdateAction("record thread") {
+            thread = Thread.currentThread()
+        }
+        runBlocking {
+            workspace.iterateSuspend(1)
+        }
+        val first = thread!!
+        workspace.clearWorkspace()
+        first.join(5000)
+        assertFalse(first.isAlive)
+
+        // Running again starts a new simulation thread
+        workspace.addUpdateAction("record thread") {
+            thread = Thread.currentThread()
+        }
+        runBlocking {
+            workspace.iterateSuspend(1)
+        }
+        assertNotSame(first, thread)
+        assertEquals("Simbrain Simulation", thread!!.name)
+    }
+
+}